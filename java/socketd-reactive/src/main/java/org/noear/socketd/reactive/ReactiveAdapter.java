@@ -0,0 +1,106 @@
+package org.noear.socketd.reactive;
+
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Entity;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.flow.Publisher;
+import org.noear.socketd.transport.core.flow.Subscriber;
+import org.noear.socketd.transport.core.flow.Subscription;
+
+/**
+ * Reactive Streams 适配器（Java 9+ 可再用 org.reactivestreams.FlowAdapters 转为 java.util.concurrent.Flow）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class ReactiveAdapter {
+    /**
+     * 订阅（流控；订阅者请求多少，答复方最多答复多少）
+     *
+     * @param session 会话
+     * @param event   事件
+     * @param content 内容
+     */
+    public static org.reactivestreams.Publisher<Reply> subscribe(ClientSession session, String event, Entity content) {
+        return toPublisher(session.subscribe(event, content));
+    }
+
+    /**
+     * 订阅（流控；订阅者请求多少，答复方最多答复多少）
+     *
+     * @param session 会话
+     * @param event   事件
+     * @param content 内容
+     * @param timeout 超时（毫秒）
+     */
+    public static org.reactivestreams.Publisher<Reply> subscribe(ClientSession session, String event, Entity content, long timeout) {
+        return toPublisher(session.subscribe(event, content, timeout));
+    }
+
+    /**
+     * 转为 Reactive Streams 发布者
+     *
+     * @param publisher 发布者
+     */
+    public static <T> org.reactivestreams.Publisher<T> toPublisher(Publisher<T> publisher) {
+        return subscriber -> {
+            if (subscriber == null) {
+                throw new NullPointerException("The subscriber cannot be null");
+            }
+
+            publisher.subscribe(new SubscriberAdapter<>(subscriber));
+        };
+    }
+
+    /**
+     * 订阅者适配
+     */
+    private static class SubscriberAdapter<T> implements Subscriber<T> {
+        private final org.reactivestreams.Subscriber<? super T> real;
+
+        SubscriberAdapter(org.reactivestreams.Subscriber<? super T> real) {
+            this.real = real;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            real.onSubscribe(new SubscriptionAdapter(subscription));
+        }
+
+        @Override
+        public void onNext(T item) {
+            real.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            real.onError(error);
+        }
+
+        @Override
+        public void onComplete() {
+            real.onComplete();
+        }
+    }
+
+    /**
+     * 订阅关系适配
+     */
+    private static class SubscriptionAdapter implements org.reactivestreams.Subscription {
+        private final Subscription real;
+
+        SubscriptionAdapter(Subscription real) {
+            this.real = real;
+        }
+
+        @Override
+        public void request(long n) {
+            real.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            real.cancel();
+        }
+    }
+}
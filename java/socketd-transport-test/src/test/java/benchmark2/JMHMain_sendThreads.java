@@ -0,0 +1,55 @@
+package benchmark2;
+
+import benchmark2.cases.TestCase01;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程往一个连接发送（看吞吐随线程数的变化；tcp-java 为阻塞写，netty 为事件循环写）
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 1, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(0)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JMHMain_sendThreads {
+    static TestCase01 testCase_tcp_java;
+    static TestCase01 testCase_tcp_netty;
+
+    public static void main(String[] args) throws Exception {
+        testCase_tcp_java = new TestCase01("sd:tcp-java", 4100);
+        testCase_tcp_java.start();
+
+        testCase_tcp_netty = new TestCase01("sd:tcp-netty", 4101);
+        testCase_tcp_netty.start();
+
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int threads : new int[]{1, 2, 4, 8, 16, 32, cores}) {
+            Options opt = new
+                    OptionsBuilder()
+                    .include(JMHMain_sendThreads.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(opt).run();
+        }
+
+        testCase_tcp_java.stop();
+        testCase_tcp_netty.stop();
+    }
+
+    @Benchmark
+    public void testCase_tcp_java_send() throws Exception {
+        testCase_tcp_java.send();
+    }
+
+    @Benchmark
+    public void testCase_tcp_netty_send() throws Exception {
+        testCase_tcp_netty.send();
+    }
+}
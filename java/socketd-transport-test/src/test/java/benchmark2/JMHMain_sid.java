@@ -0,0 +1,110 @@
+package benchmark2;
+
+import org.noear.socketd.transport.client.ClientConfig;
+import org.noear.socketd.transport.core.StreamInternal;
+import org.noear.socketd.transport.core.identifier.GuidGenerator;
+import org.noear.socketd.transport.core.stream.StreamMangerCompact;
+import org.noear.socketd.transport.core.stream.StreamMangerDefault;
+import org.noear.socketd.transport.core.stream.StreamRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流Id 生成与查找（guid 字符串 vs 紧凑流Id）
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 1, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Threads(32)
+@Fork(0)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JMHMain_sid {
+    static final int STREAM_SIZE = 1024;
+
+    public static void main(String[] args) throws Exception {
+        Options opt = new
+                OptionsBuilder()
+                .include(JMHMain_sid.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    GuidGenerator guidGenerator;
+    StreamMangerDefault guidManger;
+    StreamMangerCompact compactManger;
+
+    String[] guidSids;
+    long[] compactSids;
+
+    @Setup
+    public void init() throws Exception {
+        //不启用流超时保险（只测字典）
+        ClientConfig config = new ClientConfig("sd:tcp://127.0.0.1:8602").streamTimeout(0);
+
+        guidGenerator = new GuidGenerator();
+        guidManger = new StreamMangerDefault(config);
+        compactManger = new StreamMangerCompact(config);
+
+        guidSids = new String[STREAM_SIZE];
+        compactSids = new long[STREAM_SIZE];
+
+        for (int i = 0; i < STREAM_SIZE; i++) {
+            guidSids[i] = guidGenerator.generate();
+            guidManger.addStream(guidSids[i], newStream(guidSids[i]));
+
+            compactSids[i] = compactManger.nextSid();
+            compactManger.addStream(compactSids[i], newStream(Long.toString(compactSids[i])));
+        }
+    }
+
+    private static StreamInternal newStream(String sid) {
+        return new StreamRequest(sid, 0, new CompletableFuture<>());
+    }
+
+    @Benchmark
+    public String generate_guid() {
+        return guidGenerator.generate();
+    }
+
+    @Benchmark
+    public String generate_compact() {
+        return Long.toString(compactManger.nextSid());
+    }
+
+    @Benchmark
+    public StreamInternal lookup_guid() {
+        return guidManger.getStream(guidSids[ThreadLocalRandom.current().nextInt(STREAM_SIZE)]);
+    }
+
+    @Benchmark
+    public StreamInternal lookup_compact() {
+        return compactManger.getStream(compactSids[ThreadLocalRandom.current().nextInt(STREAM_SIZE)]);
+    }
+
+    @Benchmark
+    public StreamInternal lifecycle_guid() {
+        String sid = guidGenerator.generate();
+        StreamInternal stream = newStream(sid);
+        guidManger.addStream(sid, stream);
+        StreamInternal tmp = guidManger.getStream(sid);
+        guidManger.removeStream(sid);
+        return tmp;
+    }
+
+    @Benchmark
+    public StreamInternal lifecycle_compact() {
+        long sid = compactManger.nextSid();
+        StreamInternal stream = newStream(Long.toString(sid));
+        compactManger.addStream(sid, stream);
+        StreamInternal tmp = compactManger.getStream(sid);
+        compactManger.removeStream(sid);
+        return tmp;
+    }
+}
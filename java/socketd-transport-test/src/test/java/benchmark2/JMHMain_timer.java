@@ -0,0 +1,89 @@
+package benchmark2;
+
+import org.noear.socketd.utils.NamedThreadFactory;
+import org.noear.socketd.utils.TimingWheel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流超时保险的添加与取消（调度线程池 vs 时间轮；已有大量在途的流）
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 1, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Threads(32)
+@Fork(0)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JMHMain_timer {
+    //在途的流数
+    static final int INFLIGHT_SIZE = 100_000;
+    //默认流超时（2小时）
+    static final long STREAM_TIMEOUT = 1000 * 60 * 60 * 2;
+
+    public static void main(String[] args) throws Exception {
+        Options opt = new
+                OptionsBuilder()
+                .include(JMHMain_timer.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    static final Runnable NOOP = () -> {
+    };
+
+    ScheduledThreadPoolExecutor scheduledExecutor;
+    //取消时从堆里移除（否则取消的任务要留到 2 小时后才释放）
+    ScheduledThreadPoolExecutor scheduledExecutorRemove;
+    TimingWheel timingWheel;
+
+    @Setup
+    public void init() throws Exception {
+        scheduledExecutor = new ScheduledThreadPoolExecutor(2, new NamedThreadFactory("Bench-scheduledExecutor-"));
+        scheduledExecutorRemove = new ScheduledThreadPoolExecutor(2, new NamedThreadFactory("Bench-scheduledExecutorRemove-"));
+        scheduledExecutorRemove.setRemoveOnCancelPolicy(true);
+        timingWheel = new TimingWheel("Bench-timingWheel", 10, 512, Runnable::run);
+
+        for (int i = 0; i < INFLIGHT_SIZE; i++) {
+            scheduledExecutor.schedule(NOOP, STREAM_TIMEOUT, TimeUnit.MILLISECONDS);
+            scheduledExecutorRemove.schedule(NOOP, STREAM_TIMEOUT, TimeUnit.MILLISECONDS);
+            timingWheel.newTimeout(NOOP, STREAM_TIMEOUT);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void purge() {
+        //取消的任务不清理会越积越多（正式使用时，就是 2 小时后才释放）
+        scheduledExecutor.purge();
+    }
+
+    @TearDown
+    public void destroy() {
+        scheduledExecutor.shutdownNow();
+        scheduledExecutorRemove.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean schedule_cancel_executor() {
+        ScheduledFuture<?> future = scheduledExecutor.schedule(NOOP, STREAM_TIMEOUT, TimeUnit.MILLISECONDS);
+        return future.cancel(false);
+    }
+
+    @Benchmark
+    public boolean schedule_cancel_executor_remove() {
+        ScheduledFuture<?> future = scheduledExecutorRemove.schedule(NOOP, STREAM_TIMEOUT, TimeUnit.MILLISECONDS);
+        return future.cancel(false);
+    }
+
+    @Benchmark
+    public boolean schedule_cancel_wheel() {
+        TimingWheel.Timeout timeout = timingWheel.newTimeout(NOOP, STREAM_TIMEOUT);
+        return timeout.cancel();
+    }
+}
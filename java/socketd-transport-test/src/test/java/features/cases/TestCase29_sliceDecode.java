@@ -0,0 +1,151 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.noear.socketd.utils.RunUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 切片解码（零拷贝，onMessage 之后自动释放；retain 后可异步使用）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase29_sliceDecode extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase29_sliceDecode.class);
+
+    public TestCase29_sliceDecode(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    private AtomicInteger serverOnMessageCounter = new AtomicInteger();
+    private AtomicInteger serverDataErrorCounter = new AtomicInteger();
+    private AtomicInteger clientEchoCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //tcp-java 默认的 socket 缓冲太小（512），大数据在部分系统下会很慢
+        boolean bigEnable = getSchema().contains("tcp-java") == false && getSchema().contains("udp") == false && getSchema().contains("kcp") == false;
+        CountDownLatch asyncLatch = new CountDownLatch(1);
+        CountDownLatch echoLatch = new CountDownLatch(bigEnable ? 2 : 1);
+
+        StringBuilder bigStr = new StringBuilder();
+        if (bigEnable) {
+            while (bigStr.length() < 1024 * 100) {
+                bigStr.append("qwertyuiopasdfghjklzxcvbnm");
+            }
+        }
+
+        super.start();
+        //server
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).sliceDecode(true).fragmentSize(1024 * 16))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        System.out.println("::" + message);
+                        serverOnMessageCounter.incrementAndGet();
+
+                        if ("/user/async".equals(message.event())) {
+                            //保留后，异步使用
+                            message.retain();
+                            RunUtils.async(() -> {
+                                try {
+                                    Thread.sleep(100);
+                                    if ("hi async".equals(message.dataAsString()) == false) {
+                                        serverDataErrorCounter.incrementAndGet();
+                                    }
+                                } catch (Throwable e) {
+                                    serverDataErrorCounter.incrementAndGet();
+                                } finally {
+                                    RunUtils.runAndTry(message::release);
+                                    asyncLatch.countDown();
+                                }
+                            });
+                        } else if ("/user/echo".equals(message.event())) {
+                            //直接转发收到的消息（零拷贝发送）
+                            session.send("/user/echo", message);
+                        } else if ("hi".equals(message.dataAsString()) == false) {
+                            serverDataErrorCounter.incrementAndGet();
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.fragmentSize(1024 * 16))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if ("/user/echo".equals(message.event())) {
+                            if (bigEnable && message.dataSize() > 1024) {
+                                if (bigStr.toString().equals(message.dataAsString())) {
+                                    clientEchoCounter.incrementAndGet();
+                                }
+                            } else if ("hi echo".equals(message.dataAsString())) {
+                                clientEchoCounter.incrementAndGet();
+                            }
+
+                            echoLatch.countDown();
+                        }
+                    }
+                })
+                .open();
+
+        for (int i = 0; i < 3; i++) {
+            clientSession.send("/user/created", new StringEntity("hi"));
+        }
+
+        clientSession.send("/user/async", new StringEntity("hi async"));
+        clientSession.send("/user/echo", new StringEntity("hi echo"));
+
+        if (bigEnable) {
+            clientSession.send("/user/echo", new StringEntity(bigStr.toString()));
+        }
+
+        asyncLatch.await(5, TimeUnit.SECONDS);
+        echoLatch.await(5, TimeUnit.SECONDS);
+
+        System.out.println("counter: " + serverOnMessageCounter.get() + ", " + clientEchoCounter.get());
+
+        Assertions.assertEquals(serverOnMessageCounter.get(), bigEnable ? 6 : 5, getSchema() + ":server 收的消息数量对不上");
+        Assertions.assertEquals(serverDataErrorCounter.get(), 0, getSchema() + ":server 收的消息数据不对");
+        Assertions.assertEquals(clientEchoCounter.get(), bigEnable ? 2 : 1, getSchema() + ":client 收的转发消息不对");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,123 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.EntityMetas;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.EntityDefault;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 二进制元信息（握手协商为 1.1 后启用；特殊字符、数字、常用名都要能原样还原）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase30_metaBinary extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase30_metaBinary.class);
+
+    public TestCase30_metaBinary(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    private AtomicInteger serverVersionErrorCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        super.start();
+        //server
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).fragmentSize(1024))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        System.out.println("::" + message);
+
+                        if (SocketD.protocolVersion().equals(session.handshake().version()) == false) {
+                            serverVersionErrorCounter.incrementAndGet();
+                        }
+
+                        if (message.isRequest()) {
+                            //原样回传元信息与数据
+                            session.reply(message, new EntityDefault()
+                                    .metaMapPut(message.metaMap())
+                                    .dataSet(message.dataAsBytes()));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.fragmentSize(1024))
+                .open();
+
+        Map<String, String> metaMap = new HashMap<>();
+        metaMap.put(EntityMetas.META_DATA_TYPE, "json");
+        metaMap.put(EntityMetas.META_RANGE_START, "0");
+        metaMap.put("x-num", "1234567890");
+        metaMap.put("x-zero", "007");
+        metaMap.put("x-neg", "-1");
+        metaMap.put("x-empty", "");
+        metaMap.put("x-cn", "中文");
+        metaMap.put("x-query", "a=1&b=2");
+
+        //udp-java 服务端是并发处理收到的帧，分片聚合不可靠
+        boolean bigEnable = getSchema().contains("udp") == false;
+        StringBuilder bigStr = new StringBuilder();
+        while (bigEnable && bigStr.length() < 1024 * 3) {
+            bigStr.append("qwertyuiopasdfghjklzxcvbnm");
+        }
+
+        Reply reply = clientSession.sendAndRequest("/user/meta", new StringEntity("hi").metaMapPut(metaMap));
+        Reply replyBig = bigEnable ? clientSession.sendAndRequest("/user/meta", new StringEntity(bigStr.toString()).metaMapPut(metaMap)) : reply;
+
+        System.out.println("reply: " + reply);
+
+        Assertions.assertEquals(serverVersionErrorCounter.get(), 0, getSchema() + ":server 协议版本协商不对");
+        Assertions.assertEquals("hi", reply.dataAsString(), getSchema() + ":client 收的答复数据不对");
+        if (bigEnable) {
+            Assertions.assertEquals(bigStr.toString(), replyBig.dataAsString(), getSchema() + ":client 收的分片答复数据不对");
+        }
+
+        for (Map.Entry<String, String> kv : metaMap.entrySet()) {
+            Assertions.assertEquals(kv.getValue(), reply.meta(kv.getKey()), getSchema() + ":client 收的元信息不对, " + kv.getKey());
+            Assertions.assertEquals(kv.getValue(), replyBig.meta(kv.getKey()), getSchema() + ":client 收的分片元信息不对, " + kv.getKey());
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
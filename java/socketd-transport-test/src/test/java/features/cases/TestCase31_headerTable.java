@@ -0,0 +1,126 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.EntityMetas;
+import org.noear.socketd.transport.core.HandshakeInternal;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 头部字典（事件与元信息重复出现时以序号代替；字典较小时，会不断淘汰旧条目）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase31_headerTable extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase31_headerTable.class);
+
+    public TestCase31_headerTable(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+    private ClientSession clientSession2;
+
+    private AtomicInteger serverHandshakeErrorCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp 不可靠，不支持头部字典
+        boolean headerTableEnable = getSchema().contains("udp") == false;
+
+        super.start();
+        //server
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).headerTableSize(512))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if ("a".equals(session.param("u"))) {
+                            String tableSize = ((HandshakeInternal) session.handshake()).getSource()
+                                    .meta(EntityMetas.META_SOCKETD_HEADER_TABLE_SIZE);
+
+                            if (headerTableEnable != "256".equals(tableSize)) {
+                                serverHandshakeErrorCounter.incrementAndGet();
+                            }
+                        }
+
+                        if (message.isRequest()) {
+                            //原样回传元信息，数据前加上事件
+                            session.reply(message, new StringEntity(message.event() + ":" + message.dataAsString())
+                                    .metaMapPut(message.metaMap()));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client（启用字典，取小的）
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.headerTableSize(256))
+                .open();
+
+        //client2（不启用字典）
+        String serverUrl2 = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=b&p=2";
+        clientSession2 = SocketD.createClient(serverUrl2)
+                .open();
+
+        for (int i = 0; i < 100; i++) {
+            //事件与元信息，部分重复，部分不断变化（促使字典淘汰）
+            String event = "/demo/" + (i % 5);
+            String val = "val-" + (i % 7) + "-中文";
+            String uniq = "uniq-" + i;
+
+            for (ClientSession session : new ClientSession[]{clientSession, clientSession2}) {
+                Reply reply = session.sendAndRequest(event, new StringEntity("hi-" + i)
+                        .metaPut(EntityMetas.META_DATA_TYPE, "json")
+                        .metaPut("x-val", val)
+                        .metaPut("x-uniq", uniq)
+                        .metaPut(uniq, "k"));
+
+                Assertions.assertEquals(event + ":hi-" + i, reply.dataAsString(), getSchema() + ":client 收的答复数据不对");
+                Assertions.assertEquals("json", reply.meta(EntityMetas.META_DATA_TYPE), getSchema() + ":client 收的元信息不对");
+                Assertions.assertEquals(val, reply.meta("x-val"), getSchema() + ":client 收的元信息不对");
+                Assertions.assertEquals(uniq, reply.meta("x-uniq"), getSchema() + ":client 收的元信息不对");
+                Assertions.assertEquals("k", reply.meta(uniq), getSchema() + ":client 收的元信息不对");
+            }
+        }
+
+        Assertions.assertEquals(serverHandshakeErrorCounter.get(), 0, getSchema() + ":server 握手协商不对");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (clientSession2 != null) {
+            clientSession2.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
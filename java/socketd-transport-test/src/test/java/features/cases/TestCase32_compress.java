@@ -0,0 +1,144 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.EntityMetas;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.compressor.CompressStats;
+import org.noear.socketd.transport.core.compressor.DeflateCompressor;
+import org.noear.socketd.transport.core.compressor.DictionaryTrainer;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 数据压缩（握手协商算法；超过阈值才压缩，接收时透明解压；共享字典对小 json 更有效）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase32_compress extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase32_compress.class);
+
+    public TestCase32_compress(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+    private ClientSession clientSession2;
+
+    private AtomicInteger serverMetaErrorCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //训练共享字典（双方要相同）
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            samples.add(json(i).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] dictionary = DictionaryTrainer.train(samples, 4096);
+
+        super.start();
+        //server
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).compressThreshold(128).compressor(new DeflateCompressor(dictionary)))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        //压缩元信息，对使用者透明
+                        if (message.meta(EntityMetas.META_DATA_COMPRESS) != null) {
+                            serverMetaErrorCounter.incrementAndGet();
+                        }
+
+                        if (message.isRequest()) {
+                            session.reply(message, new StringEntity(message.dataAsString()).metaPut("x-len", String.valueOf(message.dataSize())));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client（只有默认的 deflate）
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.compressThreshold(128))
+                .open();
+
+        //client2（带共享字典）
+        clientSession2 = SocketD.createClient(serverUrl)
+                .config(c -> c.compressThreshold(128).compressor(new DeflateCompressor(dictionary)))
+                .open();
+
+        //小数据（不压缩）
+        Reply reply = clientSession.sendAndRequest("/demo", new StringEntity("hi"));
+        Assertions.assertEquals("hi", reply.dataAsString(), getSchema() + ":client 收的答复数据不对");
+        Assertions.assertEquals(0, ((Session) clientSession).compressStats().messages(), getSchema() + ":client 小数据不应压缩");
+
+        //大数据（压缩）
+        StringBuilder bigStr = new StringBuilder();
+        while (bigStr.length() < 1000) {
+            bigStr.append(json(bigStr.length()));
+        }
+
+        reply = clientSession.sendAndRequest("/demo", new StringEntity(bigStr.toString()));
+        Assertions.assertEquals(bigStr.toString(), reply.dataAsString(), getSchema() + ":client 收的答复数据不对");
+        Assertions.assertEquals(String.valueOf(bigStr.length()), reply.meta("x-len"), getSchema() + ":server 收的数据不对");
+        Assertions.assertNull(reply.meta(EntityMetas.META_DATA_COMPRESS), getSchema() + ":client 收的元信息不对");
+        Assertions.assertEquals(1, ((Session) clientSession).compressStats().messages(), getSchema() + ":client 大数据应压缩");
+
+        //小 json（有共享字典的，压缩率更高）
+        for (int i = 0; i < 10; i++) {
+            String json = json(1000 + i);
+            Assertions.assertEquals(json, clientSession.sendAndRequest("/demo", new StringEntity(json)).dataAsString());
+            Assertions.assertEquals(json, clientSession2.sendAndRequest("/demo", new StringEntity(json)).dataAsString());
+        }
+
+        CompressStats stats2 = ((Session) clientSession2).compressStats();
+        System.out.println("stats: " + ((Session) clientSession).compressStats());
+        System.out.println("stats2: " + stats2);
+
+        Assertions.assertEquals(10, stats2.messages(), getSchema() + ":client2 小 json 应压缩");
+        Assertions.assertTrue(stats2.ratio() < 0.5D, getSchema() + ":client2 共享字典压缩率不对");
+        Assertions.assertEquals(serverMetaErrorCounter.get(), 0, getSchema() + ":server 收的元信息不对");
+    }
+
+    private static String json(int i) {
+        return "{\"id\":" + i + ",\"name\":\"user-" + i + "\",\"email\":\"user" + i + "@example.com\"," +
+                "\"roles\":[\"admin\",\"editor\"],\"status\":\"active\",\"createdAt\":\"2024-01-0" + (i % 9 + 1) + "T10:00:00Z\"," +
+                "\"profile\":{\"city\":\"Hangzhou\",\"language\":\"zh-CN\"}}";
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (clientSession2 != null) {
+            clientSession2.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,234 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.EntityDefault;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.noear.socketd.utils.RunUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 紧凑流Id（握手协商；双方都启用时，流Id为连接内计数）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase33_sidCompact extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase33_sidCompact.class);
+
+    public TestCase33_sidCompact(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+    private ClientSession clientSession2;
+
+    private static final int FRAGMENT_SIZE = 4 * 1024;
+    //读写缓冲（默认的太小，大数据传输慢）
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ClientSession clientSession3;
+
+    private AtomicInteger serverSidErrorCounter = new AtomicInteger();
+    private AtomicInteger clientReplyCounter = new AtomicInteger();
+    private AtomicInteger clientSidErrorCounter = new AtomicInteger();
+    //server 反向大数据请求的答复（正确的）
+    private AtomicInteger serverBigReplyCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        super.start();
+        //server
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).sidCompact(true)
+                        .fragmentSize(FRAGMENT_SIZE)
+                        .readBufferSize(BUFFER_SIZE)
+                        .writeBufferSize(BUFFER_SIZE))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        boolean compact = "a".equals(session.param("u")) || "c".equals(session.param("u"));
+
+                        //紧凑的为连接内计数；否则为 guid
+                        if (compact != (message.sid().length() < 10)) {
+                            serverSidErrorCounter.incrementAndGet();
+                        }
+
+                        //紧凑的，客户端生成的流Id为奇数（服务端的为偶数，双方不会相同）
+                        if (compact && Long.parseLong(message.sid()) % 2 != 1) {
+                            serverSidErrorCounter.incrementAndGet();
+                        }
+
+                        if ("/big".equals(message.event())) {
+                            //同时反向发大数据请求（双方的分片同时在传）
+                            byte[] data = randomBytes(message.dataSize(), 2);
+                            RunUtils.async(() -> {
+                                try {
+                                    Reply reply = session.sendAndRequest("/ask-big", new EntityDefault().dataSet(data));
+                                    if (Arrays.equals(data, reply.dataAsBytes())) {
+                                        serverBigReplyCounter.incrementAndGet();
+                                    }
+                                } catch (Throwable e) {
+                                    e.printStackTrace();
+                                }
+                            });
+
+                            session.reply(message, new EntityDefault().dataSet(message.dataAsBytes()));
+                        } else if (message.isRequest()) {
+                            session.reply(message, new StringEntity(message.dataAsString()));
+                        } else if (message.isSubscribe()) {
+                            session.reply(message, new StringEntity("1"));
+                            session.reply(message, new StringEntity("2"));
+                            session.replyEnd(message, new StringEntity("3"));
+                        } else if ("/back".equals(message.event())) {
+                            //反向请求
+                            session.sendAndRequest("/ask", new StringEntity("hi"), r -> {
+                                if ("ok".equals(r.dataAsString())) {
+                                    clientReplyCounter.incrementAndGet();
+                                }
+                            });
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        SimpleListener clientListener = new SimpleListener() {
+            @Override
+            public void onMessage(Session session, Message message) throws IOException {
+                if ("/ask-big".equals(message.event())) {
+                    //服务端生成的流Id为偶数
+                    if (Long.parseLong(message.sid()) % 2 != 0) {
+                        clientSidErrorCounter.incrementAndGet();
+                    }
+
+                    session.reply(message, new EntityDefault().dataSet(message.dataAsBytes()));
+                } else if (message.isRequest()) {
+                    session.reply(message, new StringEntity("ok"));
+                }
+            }
+        };
+
+        //client（启用）
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.sidCompact(true))
+                .listen(clientListener)
+                .open();
+
+        //client2（不启用）
+        String serverUrl2 = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=b&p=2";
+        clientSession2 = SocketD.createClient(serverUrl2)
+                .listen(clientListener)
+                .open();
+
+        for (ClientSession session : new ClientSession[]{clientSession, clientSession2}) {
+            for (int i = 0; i < 20; i++) {
+                Reply reply = session.sendAndRequest("/demo", new StringEntity("hi-" + i));
+                Assertions.assertEquals("hi-" + i, reply.dataAsString(), getSchema() + ":client 收的答复数据不对");
+            }
+
+            CountDownLatch latch = new CountDownLatch(3);
+            StringBuilder buf = new StringBuilder();
+            session.sendAndSubscribe("/sub", new StringEntity("hi"), r -> {
+                synchronized (buf) {
+                    buf.append(r.dataAsString());
+                }
+                latch.countDown();
+            });
+
+            Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS), getSchema() + ":client 订阅答复不全");
+            Assertions.assertEquals(3, buf.length(), getSchema() + ":client 订阅答复不对");
+
+            session.send("/back", new StringEntity("hi"));
+        }
+
+        Thread.sleep(1000);
+
+        Assertions.assertEquals(2, clientReplyCounter.get(), getSchema() + ":server 反向请求的答复不对");
+        Assertions.assertEquals(0, serverSidErrorCounter.get(), getSchema() + ":server 收的流Id不对");
+
+        //udp、kcp 基于数据报，不适合大量的大消息
+        if (getSchema().contains("udp") == false && getSchema().contains("kcp") == false) {
+            //client3（启用；新连接，双方的流Id都从头开始）
+            String serverUrl3 = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=c&p=2";
+            clientSession3 = SocketD.createClient(serverUrl3)
+                    .config(c -> c.sidCompact(true)
+                            .fragmentSize(FRAGMENT_SIZE)
+                            .readBufferSize(BUFFER_SIZE)
+                            .writeBufferSize(BUFFER_SIZE))
+                    .listen(clientListener)
+                    .open();
+
+            testBigBothWays();
+        }
+    }
+
+    /**
+     * 双向同时传大数据（分片的请求与答复，流Id不能混）
+     */
+    private void testBigBothWays() throws Exception {
+        int rounds = 5;
+
+        for (int i = 0; i < rounds; i++) {
+            byte[] data = randomBytes(FRAGMENT_SIZE * 16, 1);
+            Reply reply = clientSession3.sendAndRequest("/big", new EntityDefault().dataSet(data), 10_000);
+            Assertions.assertArrayEquals(data, reply.dataAsBytes(), getSchema() + ":client 大数据请求的答复不对");
+        }
+
+        for (int i = 0; i < 100 && serverBigReplyCounter.get() < rounds; i++) {
+            Thread.sleep(50);
+        }
+
+        Assertions.assertEquals(rounds, serverBigReplyCounter.get(), getSchema() + ":server 反向大数据请求的答复不对");
+        Assertions.assertEquals(0, serverSidErrorCounter.get(), getSchema() + ":server 收的流Id不对");
+        Assertions.assertEquals(0, clientSidErrorCounter.get(), getSchema() + ":client 收的流Id不对");
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (clientSession2 != null) {
+            clientSession2.close();
+        }
+
+        if (clientSession3 != null) {
+            clientSession3.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,204 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.ChannelInternal;
+import org.noear.socketd.transport.core.Codec;
+import org.noear.socketd.transport.core.CodecReader;
+import org.noear.socketd.transport.core.CodecWriter;
+import org.noear.socketd.transport.core.Config;
+import org.noear.socketd.transport.core.Frame;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.codec.CodecDefault;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 编解码器按协议版本注册（握手协商取低的版本；老版本的对端，仍用原来的编解码器）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase34_codec extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase34_codec.class);
+
+    public TestCase34_codec(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+    private ClientSession clientSession2;
+
+    private AtomicInteger serverVersionErrorCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp 没有通道级的编解码，固定用基础编解码器
+        boolean codecEnable = getSchema().contains("udp") == false;
+
+        super.start();
+
+        //server
+        AtomicInteger serverCounter = new AtomicInteger();
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).codec("1.2", new CountingCodec(c, serverCounter, false)))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        String expected = "a".equals(session.param("u")) ? "1.2" : SocketD.protocolVersion();
+                        if (expected.equals(session.handshake().version()) == false) {
+                            serverVersionErrorCounter.incrementAndGet();
+                        }
+
+                        if (message.isRequest()) {
+                            session.reply(message, new StringEntity(message.dataAsString()));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client（同样注册了 1.2；用只有基础方法的读取器，模拟第三方实现）
+        AtomicInteger clientCounter = new AtomicInteger();
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.codec("1.2", new CountingCodec(c, clientCounter, true)))
+                .open();
+
+        //client2（没有注册，协商为当前版本）
+        String serverUrl2 = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=b&p=2";
+        clientSession2 = SocketD.createClient(serverUrl2)
+                .open();
+
+        for (int i = 0; i < 10; i++) {
+            Reply reply = clientSession.sendAndRequest("/demo", new StringEntity("hi-" + i));
+            Assertions.assertEquals("hi-" + i, reply.dataAsString(), getSchema() + ":client 收的答复数据不对");
+        }
+
+        int serverCount = serverCounter.get();
+        int clientCount = clientCounter.get();
+        if (codecEnable) {
+            //每次请求：client 写、读各一次；server 读、写各一次
+            Assertions.assertTrue(serverCount >= 20, getSchema() + ":server 没有使用协商的编解码器");
+            Assertions.assertTrue(clientCount >= 20, getSchema() + ":client 没有使用协商的编解码器");
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Reply reply = clientSession2.sendAndRequest("/demo", new StringEntity("hi-" + i));
+            Assertions.assertEquals("hi-" + i, reply.dataAsString(), getSchema() + ":client2 收的答复数据不对");
+        }
+
+        //client2 的帧，不经过 1.2 编解码器（心跳可能还会增加 serverCount，所以只比较 client2 的10次请求）
+        Assertions.assertTrue(serverCounter.get() - serverCount < 20, getSchema() + ":server 对 client2 用错了编解码器");
+        Assertions.assertEquals(0, serverVersionErrorCounter.get(), getSchema() + ":server 协议版本协商不对");
+    }
+
+    /**
+     * 计数编解码器（模拟新版本的编解码器）
+     */
+    static class CountingCodec implements Codec {
+        private final Codec real;
+        private final AtomicInteger counter;
+        private final boolean primitiveReader;
+
+        CountingCodec(Config config, AtomicInteger counter, boolean primitiveReader) {
+            this.real = new CodecDefault(config);
+            this.counter = counter;
+            this.primitiveReader = primitiveReader;
+        }
+
+        @Override
+        public Frame read(CodecReader buffer) {
+            return read(null, buffer);
+        }
+
+        @Override
+        public Frame read(ChannelInternal channel, CodecReader buffer) {
+            Frame frame = real.read(channel, primitiveReader ? new PrimitiveCodecReader(buffer) : buffer);
+            if (frame != null) {
+                counter.incrementAndGet();
+            }
+            return frame;
+        }
+
+        @Override
+        public <T extends CodecWriter> T write(Frame frame, Function<Integer, T> targetFactory) throws IOException {
+            return write(null, frame, targetFactory);
+        }
+
+        @Override
+        public <T extends CodecWriter> T write(ChannelInternal channel, Frame frame, Function<Integer, T> targetFactory) throws IOException {
+            counter.incrementAndGet();
+            return real.write(channel, frame, targetFactory);
+        }
+    }
+
+    /**
+     * 只有基础方法的读取器（其它的用接口默认实现）
+     */
+    static class PrimitiveCodecReader implements CodecReader {
+        private final CodecReader real;
+
+        PrimitiveCodecReader(CodecReader real) {
+            this.real = real;
+        }
+
+        @Override
+        public byte getByte() {
+            return real.getByte();
+        }
+
+        @Override
+        public void getBytes(byte[] dst, int offset, int length) {
+            real.getBytes(dst, offset, length);
+        }
+
+        @Override
+        public int getInt() {
+            return real.getInt();
+        }
+
+        @Override
+        public int remaining() {
+            return real.remaining();
+        }
+
+        @Override
+        public int position() {
+            return real.position();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (clientSession2 != null) {
+            clientSession2.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,182 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.EntityDefault;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 解码转存临时文件（大帧边收边写入临时文件；小帧仍在内存）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase35_decodeTempfile extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase35_decodeTempfile.class);
+
+    public TestCase35_decodeTempfile(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+    private ClientSession clientSession2;
+
+    private AtomicInteger serverDataErrorCounter = new AtomicInteger();
+    private AtomicInteger serverTempfileCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp、kcp 基于数据报，不适合大帧
+        if (getSchema().contains("udp") || getSchema().contains("kcp")) {
+            return;
+        }
+
+        byte[] bigData = new byte[1024 * 1024 * 2];
+        for (int i = 0; i < bigData.length; i++) {
+            bigData[i] = (byte) (i % 251);
+        }
+
+        super.start();
+        //server（大帧时，socket 缓冲不宜太小）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).readBufferSize(1024 * 64).writeBufferSize(1024 * 64)
+                        .sliceDecode(true).decodeTempfileThreshold(1024 * 64))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if (message.dataSize() > 1024 * 64) {
+                            if (Arrays.equals(bigData, message.dataAsBytes()) == false) {
+                                serverDataErrorCounter.incrementAndGet();
+                            }
+
+                            //映射的临时文件
+                            if (message.data().isDirect()) {
+                                serverTempfileCounter.incrementAndGet();
+                            }
+                        }
+
+                        if ("/echo".equals(message.event())) {
+                            //大消息与大答复（给 client2 的）
+                            session.send("/push", new EntityDefault().dataSet(bigData));
+                            session.reply(message, new EntityDefault().dataSet(bigData));
+                        } else if (message.isRequest()) {
+                            session.reply(message, new StringEntity(String.valueOf(message.dataSize())));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(1024 * 64).writeBufferSize(1024 * 64))
+                .open();
+
+        for (int i = 0; i < 3; i++) {
+            Reply reply = clientSession.sendAndRequest("/demo", new StringEntity("hi"));
+            Assertions.assertEquals("2", reply.dataAsString(), getSchema() + ":client 收的答复数据不对");
+
+            reply = clientSession.sendAndRequest("/demo", new EntityDefault().dataSet(bigData), 10_000);
+            Assertions.assertEquals(String.valueOf(bigData.length), reply.dataAsString(), getSchema() + ":client 收的答复数据不对");
+        }
+
+        Assertions.assertEquals(0, serverDataErrorCounter.get(), getSchema() + ":server 收的大数据不对");
+
+        if (getSchema().contains("smartsocket")) {
+            Assertions.assertEquals(3, serverTempfileCounter.get(), getSchema() + ":server 没有转存临时文件");
+        }
+
+        testNoSliceDecode(serverUrl, bigData);
+    }
+
+    /**
+     * 不切片解码时（消息与答复都没有释放时机），临时文件不能留下
+     */
+    private void testNoSliceDecode(String serverUrl, byte[] bigData) throws Exception {
+        int tempfileCount = countTempfiles();
+
+        AtomicInteger clientDataErrorCounter = new AtomicInteger();
+        AtomicInteger clientTempfileCounter = new AtomicInteger();
+        CountDownLatch pushLatch = new CountDownLatch(1);
+
+        clientSession2 = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(1024 * 64).writeBufferSize(1024 * 64)
+                        .sliceDecode(false).decodeTempfileThreshold(1024 * 64))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if ("/push".equals(message.event())) {
+                            if (Arrays.equals(bigData, message.dataAsBytes()) == false) {
+                                clientDataErrorCounter.incrementAndGet();
+                            }
+
+                            if (message.data().isDirect()) {
+                                clientTempfileCounter.incrementAndGet();
+                            }
+
+                            pushLatch.countDown();
+                        }
+                    }
+                })
+                .open();
+
+        Reply reply = clientSession2.sendAndRequest("/echo", new StringEntity("hi"), 10_000);
+        Assertions.assertArrayEquals(bigData, reply.dataAsBytes(), getSchema() + ":client 收的大答复不对");
+        Assertions.assertTrue(pushLatch.await(10, TimeUnit.SECONDS), getSchema() + ":client 没有收到大消息");
+        Assertions.assertEquals(0, clientDataErrorCounter.get(), getSchema() + ":client 收的大消息不对");
+
+        if (getSchema().contains("smartsocket")) {
+            Assertions.assertTrue(reply.data().isDirect(), getSchema() + ":client 答复没有转存临时文件");
+            Assertions.assertEquals(1, clientTempfileCounter.get(), getSchema() + ":client 消息没有转存临时文件");
+        }
+
+        //答复与消息都还在用（没有释放），临时文件也不能留下
+        Assertions.assertEquals(tempfileCount, countTempfiles(), getSchema() + ":临时文件没有删除");
+    }
+
+    private static int countTempfiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir"))
+                .listFiles((dir, name) -> name.startsWith("socketd-") && name.endsWith(".tmp"));
+
+        return files == null ? 0 : files.length;
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (clientSession2 != null) {
+            clientSession2.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
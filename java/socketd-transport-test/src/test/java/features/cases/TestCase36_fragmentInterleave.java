@@ -0,0 +1,117 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.EntityDefault;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分片交替发送（大数据分片发送期间，小请求可以插在分片之间，不用等大数据发完）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase36_fragmentInterleave extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase36_fragmentInterleave.class);
+
+    public TestCase36_fragmentInterleave(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    private AtomicInteger serverBigCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp、kcp 基于数据报，不适合大帧
+        if (getSchema().contains("udp") || getSchema().contains("kcp")) {
+            return;
+        }
+
+        int bigSize = 1024 * 1024 * 16;
+
+        super.start();
+        //server（大帧时，socket 缓冲不宜太小）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).readBufferSize(1024 * 64).writeBufferSize(1024 * 64))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if (message.dataSize() == bigSize) {
+                            serverBigCounter.incrementAndGet();
+                        }
+
+                        if (message.isRequest()) {
+                            session.reply(message, new StringEntity(String.valueOf(message.dataSize())));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client（小分片，使大数据有很多分片）
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(1024 * 64).writeBufferSize(1024 * 64).fragmentSize(1024 * 8))
+                .open();
+
+        //大数据在另一个线程发送
+        CompletableFuture<String> bigFuture = CompletableFuture.supplyAsync(() -> {
+            try {
+                return clientSession.sendAndRequest("/big", new EntityDefault().dataSet(new byte[bigSize]), 60_000).dataAsString();
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        //大数据发送期间，小请求不用等它发完
+        int smallCount = 0;
+        while (bigFuture.isDone() == false) {
+            Reply reply = clientSession.sendAndRequest("/small", new StringEntity("hi"));
+            Assertions.assertEquals("2", reply.dataAsString(), getSchema() + ":client 收的答复数据不对");
+
+            if (serverBigCounter.get() == 0) {
+                smallCount++;
+            }
+        }
+
+        Assertions.assertEquals(String.valueOf(bigSize), bigFuture.get(1, TimeUnit.SECONDS), getSchema() + ":client 收的大数据答复不对");
+        Assertions.assertEquals(1, serverBigCounter.get(), getSchema() + ":server 收的大数据不对");
+
+        System.out.println("small count: " + smallCount);
+        Assertions.assertTrue(smallCount > 0, getSchema() + ":小请求没有插在分片之间");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,109 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.FlushPolicy;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 冲刷策略（客户端定时冲刷，服务端批量冲刷；消息不能丢，也不能一直卡在缓冲里）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase37_flushPolicy extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase37_flushPolicy.class);
+
+    public TestCase37_flushPolicy(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    private AtomicInteger serverCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp 不支持延后冲刷（且不可靠，收到的顺序也不固定）
+        if (getSchema().contains("udp")) {
+            return;
+        }
+
+        super.start();
+        //server（批量写出时，socket 缓冲不宜太小）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).readBufferSize(1024 * 64).writeBufferSize(1024 * 64)
+                        .flushPolicy(FlushPolicy.batched(16, 1024 * 64)))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if (message.isRequest()) {
+                            session.reply(message, new StringEntity(String.valueOf(serverCounter.get())));
+                        } else {
+                            serverCounter.incrementAndGet();
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(1024 * 64).writeBufferSize(1024 * 64)
+                        .flushPolicy(FlushPolicy.timed(5, 32, 1024 * 64)))
+                .open();
+
+        int count = 1000;
+
+        for (int i = 0; i < count; i++) {
+            clientSession.send("/demo", new StringEntity("test-" + i));
+        }
+
+        //单个请求也要在延时内冲刷出去（不能等攒够）
+        long start = System.currentTimeMillis();
+        Reply reply = clientSession.sendAndRequest("/demo", new StringEntity("hi"));
+        long times = System.currentTimeMillis() - start;
+        System.out.println("times: " + times);
+
+        Assertions.assertNotNull(reply.dataAsString(), getSchema() + ":client 收的答复不对");
+        Assertions.assertTrue(times < 2000, getSchema() + ":请求被缓冲卡住了");
+
+        //消息是异步处理的，等一会儿
+        for (int i = 0; i < 50 && serverCounter.get() < count; i++) {
+            Thread.sleep(100);
+        }
+
+        Assertions.assertEquals(count, serverCounter.get(), getSchema() + ":server 收的消息数不对");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,157 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.exception.SocketdTimeoutException;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步接口（一个线程发出大量请求，不等待；答复与请求要对得上；超时要失败）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase38_sendAsync extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase38_sendAsync.class);
+
+    public TestCase38_sendAsync(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+    private ClientSession clientSession2;
+
+    private AtomicInteger serverCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        super.start();
+        //server（大量并发写出时，socket 缓冲不宜太小）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).readBufferSize(1024 * 64).writeBufferSize(1024 * 64))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if (message.isRequest()) {
+                            if ("/demo".equals(message.event())) {
+                                session.replyEndAsync(message, new StringEntity("re:" + message.dataAsString()));
+                            }
+                        } else {
+                            serverCounter.incrementAndGet();
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(1024 * 64).writeBufferSize(1024 * 64))
+                .open();
+
+        //udp 不可靠，少发些
+        int count = getSchema().contains("udp") ? 20 : 2000;
+
+        List<CompletableFuture<Reply>> replyFutures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            replyFutures.add(clientSession.requestAsync("/demo", new StringEntity("test-" + i)));
+        }
+
+        CompletableFuture.allOf(replyFutures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        for (int i = 0; i < count; i++) {
+            Assertions.assertEquals("re:test-" + i, replyFutures.get(i).join().dataAsString(), getSchema() + ":client 收的答复不对");
+        }
+
+        List<CompletableFuture<Void>> sendFutures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sendFutures.add(clientSession.sendAsync("/demo", new StringEntity("test-" + i)));
+        }
+
+        CompletableFuture.allOf(sendFutures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        //消息是异步处理的，等一会儿
+        for (int i = 0; i < 50 && serverCounter.get() < count; i++) {
+            Thread.sleep(100);
+        }
+
+        Assertions.assertEquals(count, serverCounter.get(), getSchema() + ":server 收的消息数不对");
+
+        //服务端不答复，要超时
+        CompletableFuture<Reply> timeoutFuture = clientSession.requestAsync("/demo2", new StringEntity("hi"), 500);
+        try {
+            timeoutFuture.join();
+            Assertions.fail(getSchema() + ":没有超时");
+        } catch (CompletionException e) {
+            Assertions.assertTrue(e.getCause() instanceof SocketdTimeoutException, getSchema() + ":超时异常不对");
+        }
+
+        testRejected(serverUrl);
+    }
+
+    /**
+     * 通道执行器拒绝时（要失败，不能一直挂着；之后的也一样）
+     */
+    private void testRejected(String serverUrl) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        clientSession2 = SocketD.createClient(serverUrl)
+                .config(c -> c.channelExecutor(executor))
+                .open();
+
+        executor.shutdown();
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<Void> future = clientSession2.sendAsync("/demo", new StringEntity("test"));
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                Assertions.fail(getSchema() + ":执行器拒绝了，却没有失败");
+            } catch (ExecutionException e) {
+                Assertions.assertTrue(e.getCause() instanceof RejectedExecutionException, getSchema() + ":拒绝异常不对");
+            }
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (clientSession2 != null) {
+            clientSession2.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,160 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.exception.SocketdOverflowException;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.BackpressurePolicy;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 背压（大量异步发送超过高水位时，变为不可写并通知；写出后恢复。快速失败时，超出的发送失败）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase39_backpressure extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase39_backpressure.class);
+
+    public TestCase39_backpressure(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+    private ClientSession clientSession2;
+
+    private AtomicInteger serverCounter = new AtomicInteger();
+    private AtomicInteger unwritableCounter = new AtomicInteger();
+    private AtomicInteger writableCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp、kcp 基于数据报，不适合大量的大消息
+        if (getSchema().contains("udp") || getSchema().contains("kcp")) {
+            return;
+        }
+
+        super.start();
+        //server（大量写入时，socket 缓冲不宜太小）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).readBufferSize(1024 * 64).writeBufferSize(1024 * 64))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        serverCounter.incrementAndGet();
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client（通知）
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(1024 * 64).writeBufferSize(1024 * 64)
+                        .writeBufferWaterMark(1024 * 64, 1024 * 256))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onWritabilityChanged(Session session, boolean writable) {
+                        if (writable) {
+                            writableCounter.incrementAndGet();
+                        } else {
+                            unwritableCounter.incrementAndGet();
+                        }
+                    }
+                })
+                .open();
+
+        char[] chars = new char[1024 * 16];
+        Arrays.fill(chars, 'a');
+        String data = new String(chars);
+
+        int count = 1000;
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(clientSession.sendAsync("/demo", new StringEntity(data)));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        //通知是异步的，等一会儿
+        for (int i = 0; i < 50 && (serverCounter.get() < count || writableCounter.get() == 0); i++) {
+            Thread.sleep(100);
+        }
+
+        Assertions.assertEquals(count, serverCounter.get(), getSchema() + ":server 收的消息数不对");
+        Assertions.assertTrue(unwritableCounter.get() > 0, getSchema() + ":没有不可写通知");
+        Assertions.assertEquals(unwritableCounter.get(), writableCounter.get(), getSchema() + ":可写通知不对");
+        Assertions.assertTrue(clientSession.isWritable(), getSchema() + ":没有恢复可写");
+
+
+        //client2（快速失败）
+        clientSession2 = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(1024 * 64).writeBufferSize(1024 * 64)
+                        .writeBufferWaterMark(1024 * 64, 1024 * 256)
+                        .backpressurePolicy(BackpressurePolicy.FAIL_FAST))
+                .open();
+
+        futures.clear();
+        for (int i = 0; i < count; i++) {
+            futures.add(clientSession2.sendAsync("/demo", new StringEntity(data)));
+        }
+
+        int overflowCount = 0;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                Assertions.assertTrue(e.getCause() instanceof SocketdOverflowException, getSchema() + ":失败的异常不对");
+                overflowCount++;
+            }
+        }
+
+        Assertions.assertTrue(overflowCount > 0, getSchema() + ":没有快速失败");
+
+        //没有失败的都要送达
+        int expected = count * 2 - overflowCount;
+        for (int i = 0; i < 50 && serverCounter.get() < expected; i++) {
+            Thread.sleep(100);
+        }
+
+        Assertions.assertEquals(expected, serverCounter.get(), getSchema() + ":server 收的消息数不对");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (clientSession2 != null) {
+            clientSession2.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
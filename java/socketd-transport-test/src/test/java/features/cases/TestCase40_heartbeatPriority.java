@@ -0,0 +1,135 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.EntityDefault;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 控制帧优先（多个线程发大数据期间，心跳照常发出，不被卡住）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase40_heartbeatPriority extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase40_heartbeatPriority.class);
+
+    public TestCase40_heartbeatPriority(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    private AtomicInteger serverBigCounter = new AtomicInteger();
+    private AtomicInteger heartbeatCounter = new AtomicInteger();
+    private AtomicLong heartbeatMaxTimes = new AtomicLong();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp、kcp 基于数据报，不适合大帧
+        if (getSchema().contains("udp") || getSchema().contains("kcp")) {
+            return;
+        }
+
+        int bigSize = 1024 * 1024 * 16;
+        int bigThreads = 4;
+        int bigCount = bigThreads * 2;
+
+        super.start();
+        //server（大帧时，socket 缓冲不宜太小）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).readBufferSize(1024 * 64).writeBufferSize(1024 * 64))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if (message.dataSize() == bigSize) {
+                            serverBigCounter.incrementAndGet();
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client（小分片，使大数据有很多分片）
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(1024 * 64).writeBufferSize(1024 * 64).fragmentSize(1024 * 64))
+                .open();
+
+        //多个线程同时发大数据（共 128M）
+        byte[] bigData = new byte[bigSize];
+        List<CompletableFuture<Void>> bigFutures = new ArrayList<>();
+        for (int i = 0; i < bigThreads; i++) {
+            bigFutures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    for (int j = 0; j < bigCount / bigThreads; j++) {
+                        clientSession.send("/big", new EntityDefault().dataSet(bigData));
+                    }
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+
+        CompletableFuture<Void> bigAllFuture = CompletableFuture.allOf(bigFutures.toArray(new CompletableFuture[0]));
+
+        //大数据发送期间，心跳（ping）照常发出，记录每次的耗时
+        while (bigAllFuture.isDone() == false) {
+            long start = System.currentTimeMillis();
+            ((Session) clientSession).sendPing();
+            long times = System.currentTimeMillis() - start;
+
+            heartbeatCounter.incrementAndGet();
+            heartbeatMaxTimes.accumulateAndGet(times, Math::max);
+
+            Thread.sleep(10);
+        }
+
+        bigAllFuture.get(120, TimeUnit.SECONDS);
+
+        //消息是异步处理的，等一会儿
+        for (int i = 0; i < 100 && serverBigCounter.get() < bigCount; i++) {
+            Thread.sleep(100);
+        }
+
+        System.out.println("heartbeat count: " + heartbeatCounter.get() + ", max times: " + heartbeatMaxTimes.get());
+
+        Assertions.assertEquals(bigCount, serverBigCounter.get(), getSchema() + ":server 收的大数据不对");
+        Assertions.assertTrue(heartbeatCounter.get() > 0, getSchema() + ":大数据期间没有心跳");
+        Assertions.assertTrue(heartbeatMaxTimes.get() < 1000, getSchema() + ":心跳被大数据卡住了");
+        Assertions.assertTrue(clientSession.isValid(), getSchema() + ":连接不应断开");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
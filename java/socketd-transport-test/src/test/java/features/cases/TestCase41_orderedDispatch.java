@@ -0,0 +1,144 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.DispatchPolicy;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 会话有序派发（同一会话的消息依次处理；话多的会话不能卡住其它会话）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase41_orderedDispatch extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase41_orderedDispatch.class);
+
+    public TestCase41_orderedDispatch(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+    private ClientSession clientSession2;
+
+    private AtomicInteger serverCounter = new AtomicInteger();
+    private AtomicInteger serverDisorderCounter = new AtomicInteger();
+    private AtomicInteger serverConcurrentCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp 不可靠，收到的顺序也不固定
+        if (getSchema().contains("udp")) {
+            return;
+        }
+
+        super.start();
+        //server
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).dispatchPolicy(DispatchPolicy.SESSION_ORDERED))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if (message.isRequest()) {
+                            session.reply(message, new StringEntity(String.valueOf(serverCounter.get())));
+                            return;
+                        }
+
+                        //同一会话不能并发
+                        AtomicInteger running = session.attrOrDefault("running", null);
+                        if (running == null) {
+                            running = new AtomicInteger();
+                            session.attrPut("running", running);
+                        }
+
+                        if (running.incrementAndGet() > 1) {
+                            serverConcurrentCounter.incrementAndGet();
+                        }
+
+                        try {
+                            //同一会话要按顺序
+                            int index = Integer.parseInt(message.dataAsString());
+                            int last = session.attrOrDefault("last", -1);
+                            if (index != last + 1) {
+                                serverDisorderCounter.incrementAndGet();
+                            }
+                            session.attrPut("last", index);
+
+                            if (index % 10 == 0) {
+                                Thread.sleep(1);
+                            }
+
+                            serverCounter.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        } finally {
+                            running.decrementAndGet();
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl).open();
+        clientSession2 = SocketD.createClient(serverUrl).open();
+
+        int count = 2000;
+
+        for (int i = 0; i < count; i++) {
+            clientSession.send("/demo", new StringEntity(String.valueOf(i)));
+        }
+
+        //话多的会话还在处理时，其它会话的请求不用排在它后面
+        long start = System.currentTimeMillis();
+        Reply reply = clientSession2.sendAndRequest("/demo", new StringEntity("hi"));
+        long times = System.currentTimeMillis() - start;
+        System.out.println("times: " + times + ", server counter: " + reply.dataAsString());
+
+        Assertions.assertTrue(times < 1000, getSchema() + ":请求被其它会话卡住了");
+
+        //消息是异步处理的，等一会儿
+        for (int i = 0; i < 100 && serverCounter.get() < count; i++) {
+            Thread.sleep(100);
+        }
+
+        Assertions.assertEquals(count, serverCounter.get(), getSchema() + ":server 收的消息数不对");
+        Assertions.assertEquals(0, serverDisorderCounter.get(), getSchema() + ":同一会话的消息乱序了");
+        Assertions.assertEquals(0, serverConcurrentCounter.get(), getSchema() + ":同一会话的消息并发了");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (clientSession2 != null) {
+            clientSession2.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,122 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 订阅的答复按到达顺序交付（不并发、不乱序，结束答复在最后）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase42_subscribeOrder extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase42_subscribeOrder.class);
+
+    public TestCase42_subscribeOrder(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    private AtomicInteger clientCounter = new AtomicInteger();
+    private AtomicInteger clientDisorderCounter = new AtomicInteger();
+    private AtomicInteger clientConcurrentCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp 不可靠，收到的顺序也不固定
+        if (getSchema().contains("udp")) {
+            return;
+        }
+
+        int count = 2000;
+
+        super.start();
+        //server（大量连续写出时，socket 缓冲不宜太小）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).readBufferSize(1024 * 64).writeBufferSize(1024 * 64))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if (message.isSubscribe()) {
+                            for (int i = 0; i < count; i++) {
+                                session.reply(message, new StringEntity(String.valueOf(i)));
+                            }
+                            session.replyEnd(message, new StringEntity(String.valueOf(count)));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(1024 * 64).writeBufferSize(1024 * 64))
+                .open();
+
+        CountDownLatch endLatch = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger last = new AtomicInteger(-1);
+
+        clientSession.sendAndSubscribe("/demo", new StringEntity("hi"), reply -> {
+            if (running.incrementAndGet() > 1) {
+                clientConcurrentCounter.incrementAndGet();
+            }
+
+            try {
+                int index = Integer.parseInt(reply.dataAsString());
+                if (index != last.get() + 1) {
+                    clientDisorderCounter.incrementAndGet();
+                }
+                last.set(index);
+                clientCounter.incrementAndGet();
+
+                if (reply.isEnd()) {
+                    endLatch.countDown();
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+        }, 30_000);
+
+        Assertions.assertTrue(endLatch.await(30, TimeUnit.SECONDS), getSchema() + ":没有收到结束答复");
+
+        Assertions.assertEquals(count + 1, clientCounter.get(), getSchema() + ":client 收的答复数不对");
+        Assertions.assertEquals(count, last.get(), getSchema() + ":结束答复不在最后");
+        Assertions.assertEquals(0, clientDisorderCounter.get(), getSchema() + ":答复乱序了");
+        Assertions.assertEquals(0, clientConcurrentCounter.get(), getSchema() + ":答复并发了");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,115 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.noear.socketd.utils.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 虚拟线程模式（JDK 21+ 才真正启用；之前的 JDK 仍用平台线程，功能不变）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase43_virtualThreads extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase43_virtualThreads.class);
+
+    public TestCase43_virtualThreads(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    private AtomicInteger serverCounter = new AtomicInteger();
+    private AtomicInteger serverVirtualCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        super.start();
+        //server
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).virtualThreads(true))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        serverCounter.incrementAndGet();
+
+                        if (VirtualThreads.isVirtual(Thread.currentThread())) {
+                            serverVirtualCounter.incrementAndGet();
+                        }
+
+                        try {
+                            //模拟阻塞处理
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+
+                        if (message.isRequest()) {
+                            session.reply(message, new StringEntity("ok"));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.virtualThreads(true))
+                .open();
+
+        int count = 10;
+        CompletableFuture<Reply>[] futures = new CompletableFuture[count];
+
+        for (int i = 0; i < count; i++) {
+            futures[i] = clientSession.requestAsync("/demo", new StringEntity("hi"));
+        }
+
+        for (int i = 0; i < count; i++) {
+            Assertions.assertEquals("ok", futures[i].get(10, TimeUnit.SECONDS).dataAsString(), getSchema() + ":答复不对");
+        }
+
+        System.out.println("virtual supported: " + VirtualThreads.isSupported() + ", virtual counter: " + serverVirtualCounter.get());
+
+        Assertions.assertEquals(count, serverCounter.get(), getSchema() + ":server 收的消息数不对");
+
+        if (VirtualThreads.isSupported()) {
+            Assertions.assertEquals(count, serverVirtualCounter.get(), getSchema() + ":没有在虚拟线程上处理");
+        } else {
+            Assertions.assertEquals(0, serverVirtualCounter.get(), getSchema() + ":不支持时应该用平台线程");
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
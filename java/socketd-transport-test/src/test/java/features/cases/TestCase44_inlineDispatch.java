@@ -0,0 +1,124 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.DispatchPolicy;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.EventListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内联派发（内联的事件直接在 I/O 线程上处理，其它的仍交给通道执行器）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase44_inlineDispatch extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase44_inlineDispatch.class);
+
+    private static final String EXECUTOR_THREAD_PREFIX = "Socketd-channelExecutor-";
+
+    public TestCase44_inlineDispatch(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    private Queue<String> serverInlineThreads = new ConcurrentLinkedQueue<>();
+    private Queue<String> serverExecutorThreads = new ConcurrentLinkedQueue<>();
+    private Queue<String> clientReplyThreads = new ConcurrentLinkedQueue<>();
+    private Queue<String> clientOpenThreads = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        super.start();
+        //server（按事件内联）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()))
+                .listen(new EventListener()
+                        .doOnInline("/inline", (s, m) -> {
+                            serverInlineThreads.add(Thread.currentThread().getName());
+                            s.reply(m, new StringEntity("1"));
+                            s.replyEnd(m, new StringEntity("2"));
+                        })
+                        .doOn("/executor", (s, m) -> {
+                            serverExecutorThreads.add(Thread.currentThread().getName());
+                            s.replyEnd(m, new StringEntity("ok"));
+                        }))
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client（全部内联）
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.dispatchPolicy(DispatchPolicy.INLINE))
+                .listen(new EventListener().doOnOpen(s -> {
+                    clientOpenThreads.add(Thread.currentThread().getName());
+                }))
+                .open();
+
+        int count = 10;
+        CountDownLatch latch = new CountDownLatch(count * 2);
+
+        for (int i = 0; i < count; i++) {
+            clientSession.sendAndSubscribe("/inline", new StringEntity("hi"), r -> {
+                clientReplyThreads.add(Thread.currentThread().getName());
+                latch.countDown();
+            });
+
+            Assertions.assertEquals("ok", clientSession.sendAndRequest("/executor", new StringEntity("hi")).dataAsString());
+        }
+
+        Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS), getSchema() + ":订阅的答复数不对");
+
+        System.out.println("server inline: " + serverInlineThreads.peek()
+                + ", server executor: " + serverExecutorThreads.peek()
+                + ", client reply: " + clientReplyThreads.peek());
+
+        Assertions.assertEquals(count, serverInlineThreads.size(), getSchema() + ":server 收的内联消息数不对");
+        Assertions.assertEquals(count, serverExecutorThreads.size(), getSchema() + ":server 收的消息数不对");
+
+        for (String name : serverInlineThreads) {
+            Assertions.assertFalse(name.startsWith(EXECUTOR_THREAD_PREFIX), getSchema() + ":内联事件没有在 I/O 线程上处理");
+        }
+
+        for (String name : serverExecutorThreads) {
+            Assertions.assertTrue(name.startsWith(EXECUTOR_THREAD_PREFIX), getSchema() + ":非内联事件没有交给执行器");
+        }
+
+        //内联时，打开也内联（之后的消息不会先于 onOpen 处理）
+        Assertions.assertEquals(1, clientOpenThreads.size(), getSchema() + ":client 没有触发 onOpen");
+        Assertions.assertFalse(clientOpenThreads.peek().startsWith(EXECUTOR_THREAD_PREFIX), getSchema() + ":内联时 onOpen 没有在 I/O 线程上处理");
+
+        for (String name : clientReplyThreads) {
+            Assertions.assertFalse(name.startsWith(EXECUTOR_THREAD_PREFIX), getSchema() + ":内联时答复没有在 I/O 线程上交付");
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,190 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.exception.SocketdAlarmException;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.SheddingPolicy;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 过载削峰（派发队列满了，或排队太久时，请求立即收到 "过载" 告警；集群客户端会换个节点重试）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase45_overloadShedding extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase45_overloadShedding.class);
+
+    public TestCase45_overloadShedding(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private Server server2;
+    private Server server3;
+    private ClientSession clientSession;
+    private ClientSession clientSession3;
+    private ClientSession clusterSession;
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp 不可靠，大量请求时可能丢包
+        if (getSchema().contains("udp")) {
+            return;
+        }
+
+        super.start();
+
+        //server（按容量削峰；处理慢）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).coreThreads(1).maxThreads(3)
+                        .sheddingPolicy(SheddingPolicy.bounded(4)))
+                .listen(new SlowListener(200))
+                .start();
+
+        //server2（不削峰）
+        server2 = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort() + 50))
+                .listen(new SlowListener(0))
+                .start();
+
+        //server3（按逗留时间削峰）
+        server3 = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort() + 60).coreThreads(1).maxThreads(3)
+                        .sheddingPolicy(SheddingPolicy.codel(5, 50)))
+                .listen(new SlowListener(20))
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //按容量削峰：被拒绝的请求要立即收到过载告警
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl).open();
+
+        int count = 20;
+        int[] results = request(clientSession, count);
+        System.out.println("bounded: ok=" + results[0] + ", overloaded=" + results[1] + ", " + server.getConfig().getDispatchStats());
+
+        Assertions.assertEquals(count, results[0] + results[1], getSchema() + ":有请求没有结果");
+        Assertions.assertTrue(results[1] > 0, getSchema() + ":没有削峰");
+        Assertions.assertEquals(results[1], server.getConfig().getDispatchStats().rejected(), getSchema() + ":拒绝数不对");
+
+
+        //按逗留时间削峰：排队太久的请求被拒绝
+        String serverUrl3 = getSchema() + "://127.0.0.1:" + (getPort() + 60) + "/path?u=a&p=2";
+        clientSession3 = SocketD.createClient(serverUrl3).open();
+
+        int[] results3 = request(clientSession3, count);
+        System.out.println("codel: ok=" + results3[0] + ", overloaded=" + results3[1] + ", " + server3.getConfig().getDispatchStats());
+
+        Assertions.assertEquals(count, results3[0] + results3[1], getSchema() + ":有请求没有结果");
+        Assertions.assertTrue(results3[1] > 0, getSchema() + ":没有按逗留时间削峰");
+
+
+        //集群：过载节点拒绝的请求，换个节点重试
+        String serverUrl2 = getSchema() + "://127.0.0.1:" + (getPort() + 50) + "/path?u=a&p=2";
+        clusterSession = SocketD.createClusterClient(serverUrl, serverUrl2).open();
+
+        long rejectedBefore = server.getConfig().getDispatchStats().rejected();
+        int[] results2 = request(clusterSession, count);
+        System.out.println("cluster: ok=" + results2[0] + ", overloaded=" + results2[1] + ", " + server.getConfig().getDispatchStats());
+
+        Assertions.assertEquals(count, results2[0], getSchema() + ":集群没有重试");
+        Assertions.assertTrue(server.getConfig().getDispatchStats().rejected() > rejectedBefore, getSchema() + ":集群时没有削峰");
+    }
+
+    /**
+     * 并发请求
+     *
+     * @return [成功数, 过载数]
+     */
+    private int[] request(ClientSession session, int count) throws Exception {
+        CompletableFuture<Reply>[] futures = new CompletableFuture[count];
+        for (int i = 0; i < count; i++) {
+            futures[i] = session.requestAsync("/demo", new StringEntity("hi"), 10_000);
+        }
+
+        int[] results = new int[2];
+        for (int i = 0; i < count; i++) {
+            try {
+                futures[i].get(10, TimeUnit.SECONDS);
+                results[0]++;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SocketdAlarmException && ((SocketdAlarmException) e.getCause()).isOverloaded()) {
+                    results[1]++;
+                } else {
+                    throw e;
+                }
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (clientSession3 != null) {
+            clientSession3.close();
+        }
+
+        if (clusterSession != null) {
+            clusterSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        if (server2 != null) {
+            server2.stop();
+        }
+
+        if (server3 != null) {
+            server3.stop();
+        }
+
+        super.stop();
+    }
+
+    private static class SlowListener extends SimpleListener {
+        private final long sleep;
+
+        SlowListener(long sleep) {
+            this.sleep = sleep;
+        }
+
+        @Override
+        public void onMessage(Session session, Message message) throws IOException {
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            session.reply(message, new StringEntity("ok"));
+        }
+    }
+}
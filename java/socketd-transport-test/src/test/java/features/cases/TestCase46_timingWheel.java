@@ -0,0 +1,125 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.exception.SocketdTimeoutException;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 时间轮（大量请求超时，及心跳）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase46_timingWheel extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase46_timingWheel.class);
+
+    public TestCase46_timingWheel(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    private AtomicInteger heartbeatCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        super.start();
+        //server（不答复 /noreply）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if ("/noreply".equals(message.event()) == false) {
+                            session.reply(message, new StringEntity("ok"));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.heartbeatInterval(100))
+                .heartbeatHandler(s -> {
+                    heartbeatCounter.incrementAndGet();
+                    ((Session) s).sendPing();
+                })
+                .open();
+
+        int count = 2000;
+        long timeout = 500;
+        CountDownLatch latch = new CountDownLatch(count);
+        AtomicInteger timeoutCounter = new AtomicInteger();
+        AtomicLong minElapsed = new AtomicLong(Long.MAX_VALUE);
+        AtomicLong maxElapsed = new AtomicLong();
+
+        for (int i = 0; i < count; i++) {
+            long start = System.currentTimeMillis();
+            clientSession.requestAsync("/noreply", new StringEntity("hi"), timeout).whenComplete((r, e) -> {
+                long elapsed = System.currentTimeMillis() - start;
+                minElapsed.accumulateAndGet(elapsed, Math::min);
+                maxElapsed.accumulateAndGet(elapsed, Math::max);
+
+                if (e instanceof SocketdTimeoutException) {
+                    timeoutCounter.incrementAndGet();
+                }
+
+                latch.countDown();
+            });
+        }
+
+        //超时期间，正常的请求不受影响
+        Assertions.assertEquals("ok", clientSession.sendAndRequest("/demo", new StringEntity("hi")).dataAsString());
+
+        Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS), getSchema() + ":有请求没有超时");
+
+        System.out.println("timeout: " + timeoutCounter.get() + ", min: " + minElapsed.get() + "ms, max: " + maxElapsed.get() + "ms");
+
+        Assertions.assertEquals(count, timeoutCounter.get(), getSchema() + ":超时数不对");
+        //精度为一个刻度（10ms）
+        Assertions.assertTrue(minElapsed.get() >= timeout - 20, getSchema() + ":超时太早了");
+        Assertions.assertTrue(maxElapsed.get() < timeout + 2000, getSchema() + ":超时太晚了");
+
+        //心跳（第一次在 1 秒后）
+        for (int i = 0; i < 30 && heartbeatCounter.get() < 3; i++) {
+            Thread.sleep(100);
+        }
+
+        Assertions.assertTrue(heartbeatCounter.get() >= 3, getSchema() + ":心跳次数不对");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,122 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.exception.SocketdChannelException;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 通道关闭时，结束还没完成的流（不用等超时）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase47_closeStreams extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase47_closeStreams.class);
+
+    public TestCase47_closeStreams(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        super.start();
+        //server（不答复 /hold；收到 /kick 时关闭会话）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if ("/kick".equals(message.event())) {
+                            session.close();
+                        } else if ("/hold".equals(message.event()) == false) {
+                            session.reply(message, new StringEntity("ok"));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+
+        //1.服务端关闭
+        clientSession = SocketD.createClient(serverUrl).open();
+        assertClosedFast(() -> clientSession.send("/kick", new StringEntity("hi")));
+        clientSession.close();
+
+        //2.客户端关闭
+        clientSession = SocketD.createClient(serverUrl).open();
+        assertClosedFast(() -> clientSession.close());
+    }
+
+    private void assertClosedFast(CloseAction action) throws Exception {
+        Assertions.assertEquals("ok", clientSession.sendAndRequest("/demo", new StringEntity("hi")).dataAsString());
+
+        CompletableFuture<Reply> request = clientSession.requestAsync("/hold", new StringEntity("hi"), 60_000);
+        AtomicReference<Throwable> subscribeError = new AtomicReference<>();
+        clientSession.sendAndSubscribe("/hold", new StringEntity("hi"), r -> {
+        }, 60_000).thenError(subscribeError::set);
+
+        //确保请求已经到达服务端
+        Thread.sleep(100);
+
+        long start = System.currentTimeMillis();
+        action.run();
+
+        try {
+            request.get(5, TimeUnit.SECONDS);
+            Assertions.fail(getSchema() + ":请求不应该有答复");
+        } catch (ExecutionException e) {
+            Assertions.assertTrue(e.getCause() instanceof SocketdChannelException, getSchema() + ":异常不对：" + e.getCause());
+        }
+
+        for (int i = 0; i < 50 && subscribeError.get() == null; i++) {
+            Thread.sleep(10);
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println(getSchema() + " closed streams in: " + elapsed + "ms");
+
+        Assertions.assertTrue(subscribeError.get() instanceof SocketdChannelException, getSchema() + ":订阅没有异常通知");
+        Assertions.assertTrue(elapsed < 5000, getSchema() + ":结束太晚了");
+    }
+
+    private interface CloseAction {
+        void run() throws Exception;
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,200 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.reactive.ReactiveAdapter;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.Reply;
+import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.flow.Subscriber;
+import org.noear.socketd.transport.core.flow.Subscription;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 订阅流控（订阅者请求多少，答复方最多答复多少）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase48_subscribeFlow extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase48_subscribeFlow.class);
+
+    public TestCase48_subscribeFlow(String schema, int port) {
+        super(schema, port);
+    }
+
+    private static final int COUNT = 100;
+
+    private Server server;
+    private ClientSession clientSession;
+
+    //服务端已答复的数量
+    private AtomicInteger repliedCounter = new AtomicInteger();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp 不可靠，授信帧丢了会一直等
+        if (getSchema().contains("udp")) {
+            return;
+        }
+
+        super.start();
+        //server（同步答复 /sync；异步答复 /async；内联同步答复 /inline）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()))
+                .listen(new SimpleListener() {
+                    @Override
+                    public boolean isInline(Session session, Message message) {
+                        return "/inline".equals(message.event());
+                    }
+
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if (message.isSubscribe() == false) {
+                            return;
+                        }
+
+                        if ("/async".equals(message.event())) {
+                            for (int i = 0; i < COUNT; i++) {
+                                session.replyAsync(message, new StringEntity(String.valueOf(i)))
+                                        .thenRun(repliedCounter::incrementAndGet);
+                            }
+                            session.replyEndAsync(message, new StringEntity(""));
+                        } else {
+                            for (int i = 0; i < COUNT; i++) {
+                                session.reply(message, new StringEntity(String.valueOf(i)));
+                                repliedCounter.incrementAndGet();
+                            }
+                            session.replyEnd(message, new StringEntity(""));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl).open();
+
+        testDemand("/sync");
+        testDemand("/async");
+        //内联时，同步答复不能卡住 I/O 线程（授信帧要由它读取）
+        testDemand("/inline");
+        testReactive();
+    }
+
+    /**
+     * 先请求 5 个，服务端应该停在 5 个；再请求剩下的
+     */
+    private void testDemand(String event) throws Exception {
+        repliedCounter.set(0);
+
+        List<String> items = new CopyOnWriteArrayList<>();
+        AtomicReference<Subscription> subscriptionRef = new AtomicReference<>();
+        CountDownLatch completed = new CountDownLatch(1);
+
+        clientSession.subscribe(event, new StringEntity("hi")).subscribe(new Subscriber<Reply>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscriptionRef.set(subscription);
+                subscription.request(5);
+            }
+
+            @Override
+            public void onNext(Reply item) {
+                items.add(item.dataAsString());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                error.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+
+        Thread.sleep(500);
+
+        Assertions.assertEquals(5, items.size(), getSchema() + event + ":交付数不对");
+        if ("/inline".equals(event) == false) {
+            //内联时不等待授信（排队后就返回了），不统计
+            Assertions.assertEquals(5, repliedCounter.get(), getSchema() + event + ":服务端没有按授信答复");
+        }
+
+        subscriptionRef.get().request(COUNT);
+
+        Assertions.assertTrue(completed.await(10, TimeUnit.SECONDS), getSchema() + event + ":没有完成");
+        Assertions.assertEquals(COUNT, items.size(), getSchema() + event + ":交付数不对");
+        for (int i = 0; i < COUNT; i++) {
+            Assertions.assertEquals(String.valueOf(i), items.get(i), getSchema() + event + ":顺序不对");
+        }
+    }
+
+    /**
+     * 通过 Reactive Streams 适配（不限请求）
+     */
+    private void testReactive() throws Exception {
+        AtomicInteger itemCounter = new AtomicInteger();
+        CountDownLatch completed = new CountDownLatch(1);
+
+        ReactiveAdapter.subscribe(clientSession, "/sync", new StringEntity("hi"))
+                .subscribe(new org.reactivestreams.Subscriber<Reply>() {
+                    @Override
+                    public void onSubscribe(org.reactivestreams.Subscription subscription) {
+                        subscription.request(Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(Reply reply) {
+                        itemCounter.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        error.printStackTrace();
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        completed.countDown();
+                    }
+                });
+
+        Assertions.assertTrue(completed.await(10, TimeUnit.SECONDS), getSchema() + ":reactive 没有完成");
+        Assertions.assertEquals(COUNT, itemCounter.get(), getSchema() + ":reactive 交付数不对");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -0,0 +1,297 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.*;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.fragment.FragmentHandlerDefault;
+import org.noear.socketd.transport.core.flow.Subscriber;
+import org.noear.socketd.transport.core.flow.Subscription;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.noear.socketd.utils.IoConsumer;
+import org.noear.socketd.utils.RunUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 取消流（订阅方取消后，答复方停止答复）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase49_streamCancel extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase49_streamCancel.class);
+
+    public TestCase49_streamCancel(String schema, int port) {
+        super(schema, port);
+    }
+
+    private Server server;
+    private ClientSession clientSession;
+
+    //服务端已答复的数量
+    private AtomicInteger repliedCounter = new AtomicInteger();
+    private CountDownLatch cancelLatch;
+    private CountDownLatch stopLatch;
+    //服务端的通道（答复时记下）
+    private AtomicReference<ChannelInternal> serverChannelRef = new AtomicReference<>();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp 不可靠，取消帧或授信帧丢了会一直等
+        if (getSchema().contains("udp")) {
+            return;
+        }
+
+        super.start();
+        //server（/ticks 一直答复，直到取消；/late 处理返回后才开始答复与监听取消；/once 只答复一次，不结束；/throw 处理出错）
+        //（流超时改短，空闲的答复流控早点移除）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort()).streamTimeout(2000)
+                        .fragmentHandler(new FragmentHandlerDefault() {
+                            @Override
+                            public void spliFragment(Channel channel, MessageInternal message, IoConsumer<Entity> consumer) throws IOException {
+                                serverChannelRef.set((ChannelInternal) channel);
+                                super.spliFragment(channel, message, consumer);
+                            }
+                        }))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if (message.isSubscribe() == false) {
+                            return;
+                        }
+
+                        if ("/once".equals(message.event())) {
+                            session.reply(message, new StringEntity("1"));
+                            return;
+                        }
+
+                        if ("/throw".equals(message.event())) {
+                            throw new IllegalStateException("test");
+                        }
+
+                        if ("/late".equals(message.event())) {
+                            //处理返回后，才开始答复（轮询取消），并监听取消
+                            RunUtils.async(() -> {
+                                try {
+                                    Thread.sleep(100);
+                                    message.onCancel(cancelLatch::countDown);
+
+                                    for (int i = 0; message.isCancelled() == false; i++) {
+                                        session.reply(message, new StringEntity(String.valueOf(i)));
+                                        repliedCounter.incrementAndGet();
+                                        Thread.sleep(10);
+                                    }
+                                } catch (Throwable e) {
+                                    e.printStackTrace();
+                                }
+
+                                stopLatch.countDown();
+                            });
+                            return;
+                        }
+
+                        message.onCancel(cancelLatch::countDown);
+
+                        //不占用 I/O 线程
+                        RunUtils.async(() -> {
+                            try {
+                                for (int i = 0; message.isCancelled() == false; i++) {
+                                    session.reply(message, new StringEntity(String.valueOf(i)));
+                                    repliedCounter.incrementAndGet();
+                                    Thread.sleep(10);
+                                }
+                            } catch (Throwable e) {
+                                e.printStackTrace();
+                            }
+
+                            stopLatch.countDown();
+                        });
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl).open();
+
+        testCancel();
+        testCancelFlow();
+        testCancelLate();
+        testNoLeak();
+    }
+
+    /**
+     * 取消（处理返回后才异步答复的；不限授信）
+     */
+    private void testCancelLate() throws Exception {
+        reset();
+
+        AtomicInteger receivedCounter = new AtomicInteger();
+        Stream stream = clientSession.sendAndSubscribe("/late", new StringEntity("hi"), r -> {
+            receivedCounter.incrementAndGet();
+        });
+
+        for (int i = 0; i < 100 && receivedCounter.get() < 5; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(receivedCounter.get() >= 5, getSchema() + ":没有收到答复");
+
+        stream.cancel();
+
+        assertStopped();
+    }
+
+    /**
+     * 处理完了（没有答复结束，或者出错了），答复流控不能一直留着（空闲超过流超时后移除）
+     */
+    private void testNoLeak() throws Exception {
+        CountDownLatch replied = new CountDownLatch(1);
+        clientSession.sendAndSubscribe("/once", new StringEntity("hi"), r -> replied.countDown());
+        Assertions.assertTrue(replied.await(3, TimeUnit.SECONDS), getSchema() + ":没有收到答复");
+
+        clientSession.subscribe("/throw", new StringEntity("hi")).subscribe(new Subscriber<Reply>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(3);
+            }
+
+            @Override
+            public void onNext(Reply item) {
+
+            }
+
+            @Override
+            public void onError(Throwable error) {
+
+            }
+
+            @Override
+            public void onComplete() {
+
+            }
+        });
+
+        ChannelInternal serverChannel = serverChannelRef.get();
+        Assertions.assertNotNull(serverChannel, getSchema() + ":没有服务端通道");
+
+        //流超时前，还在跟踪（之后还可以异步答复，也可以收到取消）
+        Thread.sleep(500);
+        Assertions.assertEquals(2, serverChannel.getReplyFlowManager().size(), getSchema() + ":答复流控过早移除");
+
+        Thread.sleep(3000);
+        Assertions.assertEquals(0, serverChannel.getReplyFlowManager().size(), getSchema() + ":答复流控没有移除");
+    }
+
+    /**
+     * 取消（sendAndSubscribe 的流）
+     */
+    private void testCancel() throws Exception {
+        reset();
+
+        AtomicInteger receivedCounter = new AtomicInteger();
+        Stream stream = clientSession.sendAndSubscribe("/ticks", new StringEntity("hi"), r -> {
+            receivedCounter.incrementAndGet();
+        });
+
+        for (int i = 0; i < 100 && receivedCounter.get() < 5; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(receivedCounter.get() >= 5, getSchema() + ":没有收到答复");
+
+        stream.cancel();
+
+        assertStopped();
+
+        //取消后，不再交付
+        int received = receivedCounter.get();
+        Thread.sleep(100);
+        Assertions.assertEquals(received, receivedCounter.get(), getSchema() + ":取消后还在交付");
+    }
+
+    /**
+     * 取消（流控订阅；答复方正在等待授信）
+     */
+    private void testCancelFlow() throws Exception {
+        reset();
+
+        AtomicReference<Subscription> subscriptionRef = new AtomicReference<>();
+        AtomicInteger receivedCounter = new AtomicInteger();
+
+        clientSession.subscribe("/ticks", new StringEntity("hi")).subscribe(new Subscriber<Reply>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscriptionRef.set(subscription);
+                subscription.request(3);
+            }
+
+            @Override
+            public void onNext(Reply item) {
+                receivedCounter.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                error.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+
+            }
+        });
+
+        for (int i = 0; i < 100 && receivedCounter.get() < 3; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(3, receivedCounter.get(), getSchema() + ":交付数不对");
+        Assertions.assertEquals(3, repliedCounter.get(), getSchema() + ":服务端没有按授信答复");
+
+        subscriptionRef.get().cancel();
+
+        assertStopped();
+    }
+
+    private void reset() {
+        repliedCounter.set(0);
+        cancelLatch = new CountDownLatch(1);
+        stopLatch = new CountDownLatch(1);
+    }
+
+    private void assertStopped() throws Exception {
+        Assertions.assertTrue(cancelLatch.await(3, TimeUnit.SECONDS), getSchema() + ":服务端没有收到取消");
+        Assertions.assertTrue(stopLatch.await(3, TimeUnit.SECONDS), getSchema() + ":服务端没有停止答复");
+
+        int replied = repliedCounter.get();
+        Thread.sleep(100);
+        Assertions.assertEquals(replied, repliedCounter.get(), getSchema() + ":取消后还在答复");
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
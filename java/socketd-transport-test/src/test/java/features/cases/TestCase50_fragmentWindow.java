@@ -0,0 +1,243 @@
+package features.cases;
+
+import org.junit.jupiter.api.Assertions;
+import org.noear.socketd.SocketD;
+import org.noear.socketd.exception.SocketdAlarmException;
+import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.*;
+import org.noear.socketd.transport.core.entity.EntityDefault;
+import org.noear.socketd.transport.core.entity.StringEntity;
+import org.noear.socketd.transport.core.fragment.FragmentHandlerDefault;
+import org.noear.socketd.transport.core.fragment.FragmentWindowManager;
+import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.server.Server;
+import org.noear.socketd.utils.IoConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * 分片窗口（接收方授信后再发；在途分片不超过窗口，窗口按往返时间自动调整）
+ *
+ * @author noear
+ * @since 2.2
+ */
+public class TestCase50_fragmentWindow extends BaseTestCase {
+    private static Logger log = LoggerFactory.getLogger(TestCase50_fragmentWindow.class);
+
+    public TestCase50_fragmentWindow(String schema, int port) {
+        super(schema, port);
+    }
+
+    private static final int FRAGMENT_SIZE = 8 * 1024;
+    //读写缓冲（默认的太小，大数据传输慢）
+    private static final int BUFFER_SIZE = 64 * 1024;
+    //服务端的聚合上限
+    private static final int MAX_AGGR_SIZE = 4 * 1024 * 1024;
+
+    private Server server;
+    private ClientSession clientSession;
+    private ClientSession clientSession2;
+
+    //发送方已发出的分片数
+    private AtomicInteger sentCounter = new AtomicInteger();
+    //接收方已聚合的分片数
+    private AtomicInteger receivedCounter = new AtomicInteger();
+    //最多在途的分片数
+    private AtomicInteger maxInFlight = new AtomicInteger();
+    //发送方的分片窗口管理器
+    private AtomicReference<FragmentWindowManager> windowManagerRef = new AtomicReference<>();
+
+    @Override
+    public void start() throws Exception {
+        log.trace("...");
+
+        //udp 不适合大数据
+        if (getSchema().contains("udp")) {
+            return;
+        }
+
+        super.start();
+        //server（接收慢一些；答复数据的校验码）
+        server = SocketD.createServer(getSchema())
+                .config(c -> c.port(getPort())
+                        .readBufferSize(BUFFER_SIZE)
+                        .writeBufferSize(BUFFER_SIZE)
+                        .fragmentHandler(new FragmentHandlerDefault(MAX_AGGR_SIZE) {
+                            @Override
+                            public Frame aggrFragment(Channel channel, int fragmentIndex, MessageInternal message) throws IOException {
+                                receivedCounter.incrementAndGet();
+
+                                try {
+                                    Thread.sleep(1);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+
+                                return super.aggrFragment(channel, fragmentIndex, message);
+                            }
+                        }))
+                .listen(new SimpleListener() {
+                    @Override
+                    public void onMessage(Session session, Message message) throws IOException {
+                        if (message.isRequest()) {
+                            session.replyEnd(message, new StringEntity(String.valueOf(crc32(message.dataAsBytes()))));
+                        }
+                    }
+                })
+                .start();
+
+        //休息下，启动可能要等会儿
+        Thread.sleep(1000);
+
+
+        //client
+        String serverUrl = getSchema() + "://127.0.0.1:" + getPort() + "/path?u=a&p=2";
+        clientSession = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(BUFFER_SIZE)
+                        .writeBufferSize(BUFFER_SIZE)
+                        .fragmentSize(FRAGMENT_SIZE)
+                        .fragmentHandler(new CountingFragmentHandler())
+                        .fragmentWindowPolicy(FragmentWindowPolicy.fixed(FRAGMENT_SIZE * 4)))
+                .open();
+
+        clientSession2 = SocketD.createClient(serverUrl)
+                .config(c -> c.readBufferSize(BUFFER_SIZE)
+                        .writeBufferSize(BUFFER_SIZE)
+                        .fragmentSize(FRAGMENT_SIZE)
+                        .fragmentHandler(new CountingFragmentHandler())
+                        .fragmentWindowPolicy(FragmentWindowPolicy.auto(FRAGMENT_SIZE * 2, 1024 * 1024)))
+                .open();
+
+        testFixed();
+        testAutoTune();
+        testOversize();
+    }
+
+    /**
+     * 数据大小（kcp 基于数据报，不适合大量的大消息：丢包时 fec 恢复可能出错，连接会被关掉；只用少量数据）
+     */
+    private int dataSize(int size) {
+        return getSchema().contains("kcp") ? FRAGMENT_SIZE * 8 : size;
+    }
+
+    /**
+     * 固定窗口（在途分片不超过窗口，数据完整）
+     */
+    private void testFixed() throws Exception {
+        reset();
+
+        byte[] data = randomBytes(dataSize(1024 * 1024));
+        Reply reply = clientSession.sendAndRequest("/demo", new EntityDefault().dataSet(data), 30_000);
+
+        Assertions.assertEquals(String.valueOf(crc32(data)), reply.dataAsString(), getSchema() + ":数据不完整");
+        Assertions.assertEquals(data.length / FRAGMENT_SIZE, sentCounter.get(), getSchema() + ":分片数不对");
+        Assertions.assertTrue(maxInFlight.get() <= 4, getSchema() + ":在途分片超过了窗口: " + maxInFlight.get());
+    }
+
+    /**
+     * 自动调整的窗口（有往返时间采样；窗口只增不减，不超过最大窗口。调大多少与机器快慢有关，不作断言）
+     */
+    private void testAutoTune() throws Exception {
+        reset();
+
+        byte[] data = randomBytes(dataSize(2 * 1024 * 1024));
+        Reply reply = clientSession2.sendAndRequest("/demo", new EntityDefault().dataSet(data), 30_000);
+
+        Assertions.assertEquals(String.valueOf(crc32(data)), reply.dataAsString(), getSchema() + ":数据不完整");
+
+        FragmentWindowManager windowManager = windowManagerRef.get();
+        Assertions.assertNotNull(windowManager, getSchema() + ":没有分片窗口管理器");
+        Assertions.assertTrue(windowManager.isWindowed(), getSchema() + ":没有协商启用窗口");
+        Assertions.assertTrue(windowManager.getRttMillis() > 0, getSchema() + ":没有往返时间采样");
+        Assertions.assertTrue(windowManager.getWindow() >= FRAGMENT_SIZE * 2, getSchema() + ":窗口变小了: " + windowManager);
+        Assertions.assertTrue(windowManager.getWindow() <= 1024 * 1024, getSchema() + ":窗口超过了最大: " + windowManager);
+    }
+
+    /**
+     * 超过接收方的聚合上限（告警给发送方；分片照样授信，不会卡住；之后的照常）
+     */
+    private void testOversize() throws Exception {
+        //kcp 不适合大量数据
+        if (getSchema().contains("kcp")) {
+            return;
+        }
+
+        reset();
+
+        byte[] data = randomBytes(MAX_AGGR_SIZE + FRAGMENT_SIZE);
+        try {
+            clientSession.requestAsync("/demo", new EntityDefault().dataSet(data), 30_000).get(30, TimeUnit.SECONDS);
+            Assertions.fail(getSchema() + ":超过聚合上限，却没有告警");
+        } catch (ExecutionException e) {
+            Assertions.assertTrue(e.getCause() instanceof SocketdAlarmException && ((SocketdAlarmException) e.getCause()).isSizeLimit(),
+                    getSchema() + ":告警不对: " + e.getCause());
+        }
+
+        byte[] data2 = randomBytes(FRAGMENT_SIZE * 4);
+        Reply reply = clientSession.sendAndRequest("/demo", new EntityDefault().dataSet(data2), 30_000);
+        Assertions.assertEquals(String.valueOf(crc32(data2)), reply.dataAsString(), getSchema() + ":之后的数据不完整");
+    }
+
+    private void reset() {
+        sentCounter.set(0);
+        receivedCounter.set(0);
+        maxInFlight.set(0);
+        windowManagerRef.set(null);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    private static long crc32(byte[] data) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data);
+        return crc32.getValue();
+    }
+
+    /**
+     * 统计在途分片（发出的减去已聚合的）
+     */
+    private class CountingFragmentHandler extends FragmentHandlerDefault {
+        @Override
+        public void spliFragment(Channel channel, MessageInternal message, IoConsumer<Entity> consumer) throws IOException {
+            if (channel instanceof ChannelInternal) {
+                windowManagerRef.set(((ChannelInternal) channel).getFragmentWindowManager());
+            }
+
+            super.spliFragment(channel, message, fragmentEntity -> {
+                consumer.accept(fragmentEntity);
+
+                int inFlight = sentCounter.incrementAndGet() - receivedCounter.get();
+                maxInFlight.accumulateAndGet(inFlight, Math::max);
+            });
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (clientSession != null) {
+            clientSession.close();
+        }
+
+        if (clientSession2 != null) {
+            clientSession2.close();
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+
+        super.stop();
+    }
+}
@@ -3,6 +3,7 @@ package org.noear.socketd.transport.java_kcp;
 import io.netty.buffer.Unpooled;
 import kcp.Ukcp;
 import org.noear.socketd.transport.core.ChannelAssistant;
+import org.noear.socketd.transport.core.ChannelInternal;
 import org.noear.socketd.transport.core.Config;
 import org.noear.socketd.transport.core.Frame;
 import org.noear.socketd.transport.java_kcp.impl.NettyBufferCodecWriter;
@@ -23,13 +24,35 @@ public class KcpNioChannelAssistant implements ChannelAssistant<Ukcp> {
 
     @Override
     public void write(Ukcp target, Frame frame) throws IOException {
+        write(target, frame, null);
+    }
+
+    @Override
+    public void write(Ukcp target, Frame frame, ChannelInternal channel) throws IOException {
         if (frame != null) {
-            NettyBufferCodecWriter writer = config.getCodec().write(frame, i -> new NettyBufferCodecWriter(Unpooled.buffer(i)));
-            target.write(writer.getBuffer());
-            writer.getBuffer().release();
+            NettyBufferCodecWriter writer = config.getCodec().write(channel, frame, i -> new NettyBufferCodecWriter(Unpooled.buffer(i)));
+
+            try {
+                //配置了写缓冲上限时，满了会拒收（不能当作已发送）
+                if (target.write(writer.getBuffer()) == false) {
+                    throw new IOException("Kcp write buffer is full, the frame was refused: " + frame);
+                }
+            } finally {
+                writer.getBuffer().release();
+            }
         }
     }
 
+    @Override
+    public boolean isCodecStateful() {
+        return true;
+    }
+
+    @Override
+    public boolean isFragmentWindowable() {
+        return true;
+    }
+
     @Override
     public boolean isValid(Ukcp target) {
         return target.isActive();
@@ -44,14 +44,14 @@ public class ClientKcpListener implements KcpListener {
 
     @Override
     public void handleReceive(ByteBuf byteBuf, Ukcp ukcp) {
+        ChannelInternal channel = ukcp.user().getCache();
+
         CodecReader reader = new NettyBufferCodecReader(byteBuf);
-        Frame frame = client.getConfig().getCodec().read(reader);
+        Frame frame = client.getConfig().getCodec().read(channel, reader);
         if (frame == null) {
             return;
         }
 
-        ChannelInternal channel = ukcp.user().getCache();
-
         try {
             if (frame.flag() == Flags.Connack) {
                 channel.onOpenFuture((r, e) -> {
@@ -4,6 +4,7 @@ import io.netty.buffer.ByteBuf;
 import org.noear.socketd.transport.core.CodecWriter;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * @author noear
@@ -21,6 +22,12 @@ public class NettyBufferCodecWriter implements CodecWriter {
         target.writeBytes(bytes);
     }
 
+    @Override
+    public void putBytes(ByteBuffer src) throws IOException {
+        //kcp 是排队异步发送的（没有完成回调），不能直接引用实体数据
+        target.writeBytes(src.duplicate());
+    }
+
     @Override
     public void putInt(int val) throws IOException {
         target.writeInt(val);
@@ -28,14 +28,14 @@ public class ServerKcpListener implements KcpListener {
 
     @Override
     public void handleReceive(ByteBuf byteBuf, Ukcp ukcp) {
+        ChannelInternal channel = ukcp.user().getCache();
+
         CodecReader reader = new NettyBufferCodecReader(byteBuf);
-        Frame frame = server.getConfig().getCodec().read(reader);
+        Frame frame = server.getConfig().getCodec().read(channel, reader);
         if (frame == null) {
             return;
         }
 
-        ChannelInternal channel = ukcp.user().getCache();
-
         try {
             server.getProcessor().onReceive(channel, frame);
         } catch (Throwable e) {
@@ -1,11 +1,13 @@
 package org.noear.socketd.transport.java_tcp;
 
 import org.noear.socketd.transport.core.ChannelAssistant;
+import org.noear.socketd.transport.core.ChannelInternal;
 import org.noear.socketd.transport.core.Config;
 import org.noear.socketd.transport.core.Frame;
 import org.noear.socketd.transport.core.codec.ByteBufferCodecReader;
-import org.noear.socketd.transport.core.codec.ByteBufferCodecWriter;
+import org.noear.socketd.transport.java_tcp.impl.OutputStreamCodecWriter;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -20,6 +22,13 @@ import java.nio.ByteBuffer;
  * @since 2.0
  */
 public class TcpBioChannelAssistant implements ChannelAssistant<Socket> {
+    //头部缓冲的最大容量
+    private static final int HEAD_BUFFER_SIZE = 1024 * 8;
+    //延后冲刷时，输出缓冲的容量
+    private static final int FLUSH_BUFFER_SIZE = 1024 * 16;
+    //延后冲刷时，输出缓冲的附件名
+    private static final String ATTACHMENT_OUTPUT = "java-tcp:output";
+
     private final Config config;
 
     public TcpBioChannelAssistant(Config config) {
@@ -50,22 +59,64 @@ public class TcpBioChannelAssistant implements ChannelAssistant<Socket> {
 
     @Override
     public void write(Socket source, Frame frame) throws IOException {
-        OutputStream output = source.getOutputStream();
-//        config.getCodec().write(frame, i -> new OutputStreamBufferWriter(output));
-//        output.flush();
-        ByteBuffer buffer = config.getCodec().write(frame, (i) -> new ByteBufferCodecWriter(ByteBuffer.allocate(i))).getBuffer();
-        output.write(buffer.array());
-        output.flush();
+        write(source, frame, null);
+    }
+
+    @Override
+    public void write(Socket source, Frame frame, ChannelInternal channel) throws IOException {
+        if (channel != null && channel.getConfig().getFlushPolicy().isImmediate() == false) {
+            //延后冲刷：写入连接的输出缓冲，由 flush 统一写出
+            OutputStream output = getFlushOutput(source, channel);
+            config.getCodec().write(channel, frame, i -> new OutputStreamCodecWriter(output, false));
+        } else {
+            OutputStream output = source.getOutputStream();
+            //头部先缓冲（小帧一次写出）；数据较大时，直接从实体缓冲写出（不再整帧复制）
+            config.getCodec().write(channel, frame, i -> new OutputStreamCodecWriter(new BufferedOutputStream(output, Math.min(i, HEAD_BUFFER_SIZE))));
+        }
+    }
+
+    @Override
+    public boolean isFlushDeferrable() {
+        return true;
+    }
+
+    @Override
+    public void flush(Socket target, ChannelInternal channel) throws IOException {
+        getFlushOutput(target, channel).flush();
+    }
+
+    /**
+     * 获取连接的输出缓冲（延后冲刷时用；调用方已按帧加锁）
+     */
+    private OutputStream getFlushOutput(Socket source, ChannelInternal channel) throws IOException {
+        OutputStream output = channel.getAttachment(ATTACHMENT_OUTPUT);
+        if (output == null) {
+            output = new BufferedOutputStream(source.getOutputStream(), FLUSH_BUFFER_SIZE);
+            channel.putAttachment(ATTACHMENT_OUTPUT, output);
+        }
+
+        return output;
+    }
+
+    @Override
+    public boolean isCodecStateful() {
+        return true;
+    }
+
+    @Override
+    public boolean isFragmentWindowable() {
+        return true;
     }
 
-    public Frame read(Socket source) throws IOException {
+    public Frame read(Socket source, ChannelInternal channel) throws IOException {
         InputStream input = source.getInputStream();
         if (input == null) {
             return null;
         }
 
+        //长度可能分几次到达（要读满 4 个字节，否则之后的帧都会错位）
         byte[] lenBts = new byte[4];
-        if (input.read(lenBts) == -1) {
+        if (readFully(input, lenBts) == false) {
             return null;
         }
 
@@ -99,7 +150,25 @@ public class TcpBioChannelAssistant implements ChannelAssistant<Socket> {
 
         buffer.flip();
 
-        return config.getCodec().read(new ByteBufferCodecReader(buffer));
+        return config.getCodec().read(channel, new ByteBufferCodecReader(buffer));
+    }
+
+    /**
+     * 读满（流结束时返回 false）
+     */
+    private static boolean readFully(InputStream input, byte[] bytes) throws IOException {
+        int offset = 0;
+
+        while (offset < bytes.length) {
+            int readSize = input.read(bytes, offset, bytes.length - offset);
+            if (readSize == -1) {
+                return false;
+            }
+
+            offset += readSize;
+        }
+
+        return true;
     }
 
     private static int bytesToInt32(byte[] bytes) {
@@ -7,6 +7,7 @@ import org.noear.socketd.transport.core.ChannelInternal;
 import org.noear.socketd.transport.core.Flags;
 import org.noear.socketd.transport.core.Frame;
 import org.noear.socketd.transport.core.internal.ChannelDefault;
+import org.noear.socketd.utils.VirtualThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,9 +73,15 @@ public class TcpBioClientConnector extends ClientConnectorBase<TcpBioClient> {
         CompletableFuture<ClientHandshakeResult> handshakeFuture = new CompletableFuture<>();
         ChannelInternal channel = new ChannelDefault<>(real, client);
 
-        clientThread = new Thread(() -> {
+        Runnable receiveTask = () -> {
             receive(channel, real, handshakeFuture);
-        });
+        };
+
+        if (client.getConfig().isVirtualThreads()) {
+            clientThread = VirtualThreads.newFactory("Socketd-tcpBioClient-").newThread(receiveTask);
+        } else {
+            clientThread = new Thread(receiveTask);
+        }
         clientThread.start();
 
         try {
@@ -111,7 +118,7 @@ public class TcpBioClientConnector extends ClientConnectorBase<TcpBioClient> {
                     break;
                 }
 
-                Frame frame = client.getAssistant().read(socket);
+                Frame frame = client.getAssistant().read(socket, channel);
                 if (frame != null) {
                     if (frame.flag() == Flags.Connack) {
                         channel.onOpenFuture((r, e) -> {
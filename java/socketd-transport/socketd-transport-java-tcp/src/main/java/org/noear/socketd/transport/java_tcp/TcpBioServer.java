@@ -10,6 +10,7 @@ import org.noear.socketd.transport.server.ServerBase;
 import org.noear.socketd.transport.server.ServerConfig;
 import org.noear.socketd.utils.RunUtils;
 import org.noear.socketd.utils.StrUtils;
+import org.noear.socketd.utils.VirtualThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,7 +68,12 @@ public class TcpBioServer extends ServerBase<TcpBioChannelAssistant> implements
             isStarted = true;
         }
 
-        serverExecutor = Executors.newFixedThreadPool(getConfig().getMaxThreads());
+        if (getConfig().isVirtualThreads()) {
+            //每个连接一个虚拟线程（不受 maxThreads 限制）
+            serverExecutor = VirtualThreads.newExecutor("Socketd-tcpBioServer-");
+        } else {
+            serverExecutor = Executors.newFixedThreadPool(getConfig().getMaxThreads());
+        }
         server = createServer();
 
         serverExecutor.submit(this::accept);
@@ -141,7 +147,7 @@ public class TcpBioServer extends ServerBase<TcpBioChannelAssistant> implements
                         break;
                     }
 
-                    Frame frame = getAssistant().read(socket);
+                    Frame frame = getAssistant().read(socket, channel);
                     if (frame != null) {
                         getProcessor().onReceive(channel, frame);
                     }
@@ -4,16 +4,27 @@ import org.noear.socketd.transport.core.CodecWriter;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * @author noear
  * @since 2.0
  */
 public class OutputStreamCodecWriter implements CodecWriter {
+    //非堆缓冲时的分块大小
+    private static final int CHUNK_SIZE = 1024 * 8;
+
     private OutputStream target;
+    //帧写完时，是否冲刷（延后冲刷时为 false）
+    private boolean autoFlush;
 
     public OutputStreamCodecWriter(OutputStream target) {
+        this(target, true);
+    }
+
+    public OutputStreamCodecWriter(OutputStream target, boolean autoFlush) {
         this.target = target;
+        this.autoFlush = autoFlush;
     }
 
     @Override
@@ -21,6 +32,23 @@ public class OutputStreamCodecWriter implements CodecWriter {
         target.write(bytes);
     }
 
+    @Override
+    public void putBytes(ByteBuffer src) throws IOException {
+        if (src.hasArray()) {
+            //堆缓冲，直接引用数组写入
+            target.write(src.array(), src.arrayOffset() + src.position(), src.remaining());
+        } else {
+            //映射或直接缓冲，分块写入（避免整块复制到堆）
+            ByteBuffer dup = src.duplicate();
+            byte[] chunk = new byte[Math.min(CHUNK_SIZE, dup.remaining())];
+            while (dup.hasRemaining()) {
+                int len = Math.min(chunk.length, dup.remaining());
+                dup.get(chunk, 0, len);
+                target.write(chunk, 0, len);
+            }
+        }
+    }
+
 
     @Override
     public void putInt(int val) throws IOException {
@@ -38,6 +66,8 @@ public class OutputStreamCodecWriter implements CodecWriter {
 
     @Override
     public void flush() throws IOException {
-        target.flush();
+        if (autoFlush) {
+            target.flush();
+        }
     }
 }
@@ -8,6 +8,7 @@ import org.noear.socketd.transport.java_udp.impl.DatagramTagert;
 import org.noear.socketd.transport.client.ClientConnectorBase;
 import org.noear.socketd.transport.core.Flags;
 import org.noear.socketd.transport.core.internal.ChannelDefault;
+import org.noear.socketd.utils.VirtualThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,13 +49,19 @@ public class UdpBioClientConnector extends ClientConnectorBase<UdpBioClient> {
         CompletableFuture<ClientHandshakeResult> handshakeFuture = new CompletableFuture<>();
 
         //定义接收线程
-        clientThread = new Thread(() -> {
+        Runnable receiveTask = () -> {
             try {
                 receive(channel, real, handshakeFuture);
             } catch (Throwable e) {
                 throw new IllegalStateException(e);
             }
-        });
+        };
+
+        if (client.getConfig().isVirtualThreads()) {
+            clientThread = VirtualThreads.newFactory("Socketd-udpBioClient-").newThread(receiveTask);
+        } else {
+            clientThread = new Thread(receiveTask);
+        }
         clientThread.start();
 
         try {
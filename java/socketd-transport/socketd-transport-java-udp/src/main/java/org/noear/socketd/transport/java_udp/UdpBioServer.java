@@ -10,6 +10,7 @@ import org.noear.socketd.transport.core.internal.ChannelDefault;
 import org.noear.socketd.transport.server.Server;
 import org.noear.socketd.transport.server.ServerBase;
 import org.noear.socketd.transport.server.ServerConfig;
+import org.noear.socketd.utils.VirtualThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,7 +56,12 @@ public class UdpBioServer extends ServerBase<UdpBioChannelAssistant> implements
             isStarted = true;
         }
 
-        serverExecutor = Executors.newFixedThreadPool(getConfig().getMaxThreads());
+        if (getConfig().isVirtualThreads()) {
+            //每个连接一个虚拟线程（不受 maxThreads 限制）
+            serverExecutor = VirtualThreads.newExecutor("Socketd-udpBioServer-");
+        } else {
+            serverExecutor = Executors.newFixedThreadPool(getConfig().getMaxThreads());
+        }
         server = createServer();
 
         serverExecutor.submit(this::accept);
@@ -1,7 +1,10 @@
 package org.noear.socketd.transport.java_websocket;
 
 import org.java_websocket.WebSocket;
+import org.java_websocket.framing.BinaryFrame;
+import org.java_websocket.framing.Framedata;
 import org.noear.socketd.transport.core.ChannelAssistant;
+import org.noear.socketd.transport.core.ChannelInternal;
 import org.noear.socketd.transport.core.Config;
 import org.noear.socketd.transport.core.Frame;
 import org.noear.socketd.transport.core.codec.ByteBufferCodecReader;
@@ -10,6 +13,8 @@ import org.noear.socketd.transport.core.codec.ByteBufferCodecWriter;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Ws-Bio 通道助理实现
@@ -18,6 +23,9 @@ import java.nio.ByteBuffer;
  * @since 2.0
  */
 public class WsNioChannelAssistant implements ChannelAssistant<WebSocket> {
+    //延后冲刷时，待冲刷帧的附件名
+    private static final String ATTACHMENT_FRAMES = "java-websocket:frames";
+
     private final Config config;
 
     public WsNioChannelAssistant(Config config) {
@@ -26,8 +34,58 @@ public class WsNioChannelAssistant implements ChannelAssistant<WebSocket> {
 
     @Override
     public void write(WebSocket source, Frame frame) throws IOException {
-        ByteBufferCodecWriter writer = config.getCodec().write(frame, len -> new ByteBufferCodecWriter(ByteBuffer.allocate(len)));
-        source.send(writer.getBuffer());
+        write(source, frame, null);
+    }
+
+    @Override
+    public void write(WebSocket source, Frame frame, ChannelInternal channel) throws IOException {
+        ByteBufferCodecWriter writer = config.getCodec().write(channel, frame, len -> new ByteBufferCodecWriter(ByteBuffer.allocate(len)));
+
+        if (channel != null && channel.getConfig().getFlushPolicy().isImmediate() == false) {
+            //延后冲刷：先攒着，由 flush 一次提交（每帧仍是一个 ws 消息）
+            BinaryFrame wsFrame = new BinaryFrame();
+            wsFrame.setPayload(writer.getBuffer());
+            getFlushFrames(channel).add(wsFrame);
+        } else {
+            source.send(writer.getBuffer());
+        }
+    }
+
+    @Override
+    public boolean isFlushDeferrable() {
+        return true;
+    }
+
+    @Override
+    public void flush(WebSocket target, ChannelInternal channel) throws IOException {
+        List<Framedata> frames = getFlushFrames(channel);
+        if (frames.size() > 0) {
+            target.sendFrame(new ArrayList<>(frames));
+            frames.clear();
+        }
+    }
+
+    /**
+     * 获取连接待冲刷的帧（延后冲刷时用；调用方已按帧加锁）
+     */
+    private List<Framedata> getFlushFrames(ChannelInternal channel) {
+        List<Framedata> frames = channel.getAttachment(ATTACHMENT_FRAMES);
+        if (frames == null) {
+            frames = new ArrayList<>();
+            channel.putAttachment(ATTACHMENT_FRAMES, frames);
+        }
+
+        return frames;
+    }
+
+    @Override
+    public boolean isCodecStateful() {
+        return true;
+    }
+
+    @Override
+    public boolean isFragmentWindowable() {
+        return true;
     }
 
     @Override
@@ -50,7 +108,7 @@ public class WsNioChannelAssistant implements ChannelAssistant<WebSocket> {
         return target.getLocalSocketAddress();
     }
 
-    public Frame read(ByteBuffer buffer) throws IOException{
-        return config.getCodec().read(new ByteBufferCodecReader(buffer));
+    public Frame read(ByteBuffer buffer, ChannelInternal channel) throws IOException {
+        return config.getCodec().read(channel, new ByteBufferCodecReader(buffer));
     }
 }
@@ -52,6 +52,9 @@ public class WsNioServer extends ServerBase<WsNioChannelAssistant> implements Ch
             server.setWebSocketFactory(new DefaultSSLWebSocketServerFactory(getConfig().getSslContext()));
         }
 
+        //端口复用（java-websocket 默认关闭；否则重启时，端口还在 TIME_WAIT 会绑定失败）
+        server.setReuseAddr(true);
+
         server.start();
 
         log.info("Socket.D server started: {server=" + getConfig().getLocalUrl() + "}");
@@ -74,7 +74,7 @@ public class WebSocketClientImpl extends WebSocketClient {
     @Override
     public void onMessage(ByteBuffer bytes) {
         try {
-            Frame frame = client.getAssistant().read(bytes);
+            Frame frame = client.getAssistant().read(bytes, channel);
 
             if (frame != null) {
                 if (frame.flag() == Flags.Connack) {
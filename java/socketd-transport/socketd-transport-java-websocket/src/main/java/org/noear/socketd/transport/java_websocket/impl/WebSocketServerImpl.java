@@ -73,7 +73,7 @@ public class WebSocketServerImpl extends WebSocketServer {
             ((WebSocketImpl) conn).updateLastPong();
 
             ChannelInternal channel = getChannel(conn);
-            Frame frame = server.getAssistant().read(message);
+            Frame frame = server.getAssistant().read(message, channel);
 
             if (frame != null) {
                 server.getProcessor().onReceive(channel, frame);
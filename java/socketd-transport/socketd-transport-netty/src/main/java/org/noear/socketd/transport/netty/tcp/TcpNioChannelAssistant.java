@@ -3,6 +3,7 @@ package org.noear.socketd.transport.netty.tcp;
 import io.netty.channel.Channel;
 import org.noear.socketd.transport.core.Frame;
 import org.noear.socketd.transport.core.ChannelAssistant;
+import org.noear.socketd.transport.core.ChannelInternal;
 
 import java.io.IOException;
 import java.io.NotActiveException;
@@ -17,15 +18,69 @@ import java.net.InetSocketAddress;
 public class TcpNioChannelAssistant implements ChannelAssistant<Channel> {
     @Override
     public void write(Channel target, Frame frame) throws IOException {
+        write(target, frame, null);
+    }
+
+    @Override
+    public void write(Channel target, Frame frame, ChannelInternal channel) throws IOException {
+        write(target, frame, channel, null);
+    }
+
+    @Override
+    public void write(Channel target, Frame frame, ChannelInternal channel, Runnable onWritten) throws IOException {
         if (target.isActive()) {
-            target.write(frame);
-            target.flush();
+            if (frame.message() == null) {
+                if (onWritten == null) {
+                    target.write(frame);
+                } else {
+                    target.write(frame).addListener(f -> onWritten.run());
+                }
+            } else {
+                //异步写时，数据会被直接引用（零拷贝），写完前需保留（写出后才算写完）
+                frame.message().retain();
+                target.write(frame).addListener(f -> {
+                    frame.message().release();
+
+                    if (onWritten != null) {
+                        onWritten.run();
+                    }
+                });
+            }
+
+            //延后冲刷时，只进出站缓冲（由 flush 统一写出）
+            if (channel == null || channel.getConfig().getFlushPolicy().isImmediate()) {
+                target.flush();
+            }
         } else {
+            if (onWritten != null) {
+                onWritten.run();
+            }
+
             //触发自动重链
             throw new NotActiveException();
         }
     }
 
+    @Override
+    public boolean isCodecStateful() {
+        return true;
+    }
+
+    @Override
+    public boolean isFragmentWindowable() {
+        return true;
+    }
+
+    @Override
+    public boolean isFlushDeferrable() {
+        return true;
+    }
+
+    @Override
+    public void flush(Channel target, ChannelInternal channel) throws IOException {
+        target.flush();
+    }
+
     @Override
     public boolean isValid(Channel target) {
         return target.isActive();
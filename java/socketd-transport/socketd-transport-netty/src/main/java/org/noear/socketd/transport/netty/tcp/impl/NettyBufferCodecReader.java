@@ -2,6 +2,11 @@ package org.noear.socketd.transport.netty.tcp.impl;
 
 import io.netty.buffer.ByteBuf;
 import org.noear.socketd.transport.core.CodecReader;
+import org.noear.socketd.utils.RunnableEx;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 /**
  * @author noear
@@ -22,6 +27,53 @@ public class NettyBufferCodecReader implements CodecReader {
         source.readBytes(dst, offset, length);
     }
 
+    @Override
+    public String getString(int length, Charset charset) {
+        return source.readCharSequence(length, charset).toString();
+    }
+
+    @Override
+    public boolean isSearchable() {
+        return true;
+    }
+
+    @Override
+    public byte peekByte(int offset) {
+        return source.getByte(source.readerIndex() + offset);
+    }
+
+    @Override
+    public int indexOf(byte value) {
+        return source.bytesBefore(value);
+    }
+
+    @Override
+    public void skipBytes(int length) {
+        source.skipBytes(length);
+    }
+
+    @Override
+    public ByteBuffer getSlice(int length) {
+        if (source.nioBufferCount() == 1) {
+            //单段缓冲，直接视图
+            ByteBuffer slice = source.nioBuffer(source.readerIndex(), length).asReadOnlyBuffer();
+            source.skipBytes(length);
+            return slice;
+        } else {
+            //多段缓冲，需要复制
+            ByteBuffer slice = ByteBuffer.allocate(length);
+            source.readBytes(slice);
+            slice.flip();
+            return slice;
+        }
+    }
+
+    @Override
+    public RunnableEx<IOException> retainBuffer() {
+        source.retain();
+        return source::release;
+    }
+
     @Override
     public int getInt() {
         return source.readInt();
@@ -1,16 +1,23 @@
 package org.noear.socketd.transport.netty.tcp.impl;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import org.noear.socketd.transport.core.CodecWriter;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * @author noear
  * @since 2.0
  */
 public class NettyBufferCodecWriter implements CodecWriter {
+    //聚合（零拷贝）的最小尺寸（太小的，直接复制更划算）
+    private static final int GATHER_MIN_SIZE = 1024;
+
     private ByteBuf target;
+    private CompositeByteBuf gather;
 
     public NettyBufferCodecWriter(ByteBuf target) {
         this.target = target;
@@ -21,6 +28,24 @@ public class NettyBufferCodecWriter implements CodecWriter {
         target.writeBytes(bytes);
     }
 
+    @Override
+    public void putBytes(ByteBuffer src) throws IOException {
+        if (src.remaining() < GATHER_MIN_SIZE) {
+            target.writeBytes(src.duplicate());
+        } else {
+            //聚合：头部缓冲 + 数据缓冲（包装引用，不复制）
+            if (gather == null) {
+                gather = target.alloc().compositeBuffer();
+            }
+
+            ByteBuf head = target;
+            target = head.alloc().buffer(0);
+
+            gather.addComponent(true, head);
+            gather.addComponent(true, Unpooled.wrappedBuffer(src.duplicate()));
+        }
+    }
+
     @Override
     public void putInt(int val) throws IOException {
         target.writeInt(val);
@@ -33,7 +58,16 @@ public class NettyBufferCodecWriter implements CodecWriter {
 
     @Override
     public void flush() throws IOException {
+        if (gather != null) {
+            if (target.isReadable()) {
+                gather.addComponent(true, target);
+            } else {
+                target.release();
+            }
 
+            target = gather;
+            gather = null;
+        }
     }
 
     public ByteBuf getBuffer() {
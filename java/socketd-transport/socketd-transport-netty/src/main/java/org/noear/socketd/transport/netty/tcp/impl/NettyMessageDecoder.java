@@ -3,6 +3,8 @@ package org.noear.socketd.transport.netty.tcp.impl;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.util.AttributeKey;
+import org.noear.socketd.transport.core.ChannelInternal;
 import org.noear.socketd.transport.core.CodecReader;
 import org.noear.socketd.transport.core.Config;
 import org.noear.socketd.transport.core.Frame;
@@ -14,6 +16,8 @@ import java.util.List;
  * @since 2.0
  */
 public class NettyMessageDecoder extends ByteToMessageDecoder {
+    private static AttributeKey<ChannelInternal> CHANNEL_KEY = AttributeKey.valueOf("CHANNEL_KEY");
+
     private final Config config;
 
     public NettyMessageDecoder(Config config) {
@@ -23,7 +27,7 @@ public class NettyMessageDecoder extends ByteToMessageDecoder {
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf inBuf, List<Object> out) throws Exception {
         CodecReader reader = new NettyBufferCodecReader(inBuf);
-        Frame message = config.getCodec().read(reader);
+        Frame message = config.getCodec().read(ctx.channel().attr(CHANNEL_KEY).get(), reader);
         if (message == null) {
             return;
         }
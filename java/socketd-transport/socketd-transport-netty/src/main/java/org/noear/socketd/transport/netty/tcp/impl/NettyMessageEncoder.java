@@ -1,16 +1,24 @@
 package org.noear.socketd.transport.netty.tcp.impl;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.util.AttributeKey;
+import org.noear.socketd.transport.core.ChannelInternal;
 import org.noear.socketd.transport.core.Config;
 import org.noear.socketd.transport.core.Frame;
 
+import java.util.List;
+
 /**
  * @author noear
  * @since 2.0
  */
-public class NettyMessageEncoder extends MessageToByteEncoder<Frame> {
+public class NettyMessageEncoder extends MessageToMessageEncoder<Frame> {
+    //头部缓冲的初始容量（数据较大时，会以聚合方式发送）
+    private static final int HEAD_BUFFER_SIZE = 1024 * 2;
+
+    private static AttributeKey<ChannelInternal> CHANNEL_KEY = AttributeKey.valueOf("CHANNEL_KEY");
+
     private final Config config;
 
     public NettyMessageEncoder(Config config) {
@@ -18,10 +26,11 @@ public class NettyMessageEncoder extends MessageToByteEncoder<Frame> {
     }
 
     @Override
-    protected void encode(ChannelHandlerContext channelHandlerContext, Frame message, ByteBuf byteBuf) throws Exception {
+    protected void encode(ChannelHandlerContext ctx, Frame message, List<Object> out) throws Exception {
         if (message != null) {
-            NettyBufferCodecWriter writer = new NettyBufferCodecWriter(byteBuf);
-            config.getCodec().write(message, i -> writer);
+            NettyBufferCodecWriter writer = config.getCodec().write(ctx.channel().attr(CHANNEL_KEY).get(), message,
+                    len -> new NettyBufferCodecWriter(ctx.alloc().buffer(Math.min(len, HEAD_BUFFER_SIZE))));
+            out.add(writer.getBuffer());
         }
     }
 }
@@ -4,16 +4,27 @@ import org.noear.socketd.transport.core.CodecWriter;
 import org.smartboot.socket.transport.WriteBuffer;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * @author noear
  * @since 2.0
  */
 public class TcpAioBufferWriter implements CodecWriter {
+    //非堆缓冲时的分块大小
+    private static final int CHUNK_SIZE = 1024 * 8;
+
     private WriteBuffer target;
+    //帧写完时，是否冲刷（延后冲刷时为 false）
+    private boolean autoFlush;
 
     public TcpAioBufferWriter(WriteBuffer target) {
+        this(target, true);
+    }
+
+    public TcpAioBufferWriter(WriteBuffer target, boolean autoFlush) {
         this.target = target;
+        this.autoFlush = autoFlush;
     }
 
     @Override
@@ -21,6 +32,23 @@ public class TcpAioBufferWriter implements CodecWriter {
         target.write(bytes);
     }
 
+    @Override
+    public void putBytes(ByteBuffer src) throws IOException {
+        if (src.hasArray()) {
+            //堆缓冲，直接引用数组写入
+            target.write(src.array(), src.arrayOffset() + src.position(), src.remaining());
+        } else {
+            //映射或直接缓冲，分块写入（避免整块复制到堆）
+            ByteBuffer dup = src.duplicate();
+            byte[] chunk = new byte[Math.min(CHUNK_SIZE, dup.remaining())];
+            while (dup.hasRemaining()) {
+                int len = Math.min(chunk.length, dup.remaining());
+                dup.get(chunk, 0, len);
+                target.write(chunk, 0, len);
+            }
+        }
+    }
+
     @Override
     public void putInt(int val) throws IOException {
         target.writeInt(val);
@@ -33,6 +61,8 @@ public class TcpAioBufferWriter implements CodecWriter {
 
     @Override
     public void flush() throws IOException {
-        target.flush();
+        if (autoFlush) {
+            target.flush();
+        }
     }
 }
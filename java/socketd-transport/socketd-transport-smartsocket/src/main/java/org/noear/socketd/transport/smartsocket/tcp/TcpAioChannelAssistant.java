@@ -21,7 +21,34 @@ public class TcpAioChannelAssistant implements ChannelAssistant<AioSession> {
 
     @Override
     public void write(AioSession source, Frame frame) throws IOException {
-        config.getCodec().write(frame, i -> new TcpAioBufferWriter(source.writeBuffer()));
+        write(source, frame, null);
+    }
+
+    @Override
+    public void write(AioSession source, Frame frame, ChannelInternal channel) throws IOException {
+        //延后冲刷时，只写入缓冲（缓冲满了，smartsocket 会自动写出）
+        boolean autoFlush = channel == null || channel.getConfig().getFlushPolicy().isImmediate();
+        config.getCodec().write(channel, frame, i -> new TcpAioBufferWriter(source.writeBuffer(), autoFlush));
+    }
+
+    @Override
+    public boolean isFlushDeferrable() {
+        return true;
+    }
+
+    @Override
+    public void flush(AioSession target, ChannelInternal channel) throws IOException {
+        target.writeBuffer().flush();
+    }
+
+    @Override
+    public boolean isCodecStateful() {
+        return true;
+    }
+
+    @Override
+    public boolean isFragmentWindowable() {
+        return true;
     }
 
     @Override
@@ -2,7 +2,6 @@ package org.noear.socketd.transport.smartsocket.tcp.impl;
 
 import org.noear.socketd.transport.core.ChannelSupporter;
 import org.noear.socketd.transport.core.internal.ChannelDefault;
-import org.smartboot.socket.extension.decoder.FixedLengthFrameDecoder;
 import org.smartboot.socket.transport.AioSession;
 
 /**
@@ -18,20 +17,26 @@ public class ChannelDefaultEx<S> extends ChannelDefault<S> {
     }
 
 
-    private FixedLengthFrameDecoder decoder;
+    private FrameDecoder decoder;
 
     /**
-     * 获取固定帧解码器
+     * 获取帧解码器（可续接，跨多次读取）
      */
-    public FixedLengthFrameDecoder getDecoder() {
+    public FrameDecoder getDecoder() {
+        if (decoder == null) {
+            decoder = new FrameDecoder(getConfig());
+        }
+
         return decoder;
     }
 
     /**
-     * 设置固定帧解码器
+     * 释放帧解码器（会话关闭后）
      */
-    public void setDecoder(FixedLengthFrameDecoder decoder) {
-        this.decoder = decoder;
+    public void releaseDecoder() {
+        if (decoder != null) {
+            decoder.release();
+        }
     }
 
 
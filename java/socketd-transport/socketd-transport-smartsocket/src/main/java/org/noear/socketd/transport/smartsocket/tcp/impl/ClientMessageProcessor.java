@@ -78,6 +78,7 @@ public class ClientMessageProcessor extends AbstractMessageProcessor<Frame> {
             break;
 
             case SESSION_CLOSED:
+                getChannel(s).releaseDecoder();
                 client.getProcessor().onClose(getChannel(s));
                 break;
 
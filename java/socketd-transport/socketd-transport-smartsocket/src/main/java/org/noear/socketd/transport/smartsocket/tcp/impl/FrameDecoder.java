@@ -0,0 +1,191 @@
+package org.noear.socketd.transport.smartsocket.tcp.impl;
+
+import org.noear.socketd.exception.SocketdCodecException;
+import org.noear.socketd.transport.core.CodecReader;
+import org.noear.socketd.transport.core.Config;
+import org.noear.socketd.transport.core.Constants;
+import org.noear.socketd.transport.core.codec.ByteBufferCodecReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 帧解码器（可续接的状态机；每个连接一个）
+ *
+ * <pre>
+ * 1.读取帧长度（可能跨多次读取）
+ * 2.按帧长度分配最终缓冲，收到的字节直接写入（帧独占，实体数据为其切片，不再复制）
+ * 3.大帧（超过解码转存阈值）边收边写入临时文件，完成后映射为实体数据（内存只占用读缓冲）
+ *   映射后立即关闭并删除临时文件（映射仍然有效，由 gc 解除）；不是每个实体都有释放时机（比如答复，或者没有切片解码）
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class FrameDecoder {
+    private final Config config;
+
+    //帧长度缓冲
+    private final ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+    //帧长度（-1 表示未知）
+    private int frameSize = -1;
+
+    //内存接收（普通帧）
+    private ByteBuffer frameBuffer;
+
+    //临时文件接收（大帧）
+    private File tmpfile;
+    private RandomAccessFile tmpfileRaf;
+    private int tmpfileSize;
+
+    public FrameDecoder(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * 解码（消费缓冲中可用的字节）
+     *
+     * @param buffer 读缓冲
+     * @return 完整帧的读取器（不完整时为 null）
+     */
+    public CodecReader decode(ByteBuffer buffer) throws IOException {
+        if (frameSize < 0) {
+            //1.帧长度
+            while (lengthBuffer.hasRemaining() && buffer.hasRemaining()) {
+                lengthBuffer.put(buffer.get());
+            }
+
+            if (lengthBuffer.hasRemaining()) {
+                return null;
+            }
+
+            lengthBuffer.flip();
+            frameSize = lengthBuffer.getInt();
+            lengthBuffer.clear();
+
+            if (frameSize < Integer.BYTES * 2 || frameSize > Constants.MAX_SIZE_FRAME) {
+                throw new SocketdCodecException("Invalid frame size: " + frameSize);
+            }
+
+            int threshold = config.getDecodeTempfileThreshold();
+            if (threshold > 0 && frameSize > threshold) {
+                openTempfile();
+            } else {
+                frameBuffer = ByteBuffer.allocate(frameSize);
+                frameBuffer.putInt(frameSize);
+            }
+        }
+
+        if (frameBuffer != null) {
+            //2.内存接收
+            transfer(buffer, frameBuffer.remaining(), frameBuffer);
+
+            if (frameBuffer.hasRemaining()) {
+                return null;
+            }
+
+            ByteBuffer tmp = frameBuffer;
+            tmp.flip();
+            reset();
+
+            return new ByteBufferCodecReader(tmp, null);
+        } else {
+            //3.临时文件接收
+            ByteBuffer src = slice(buffer, frameSize - tmpfileSize);
+            while (src.hasRemaining()) {
+                tmpfileSize += tmpfileRaf.getChannel().write(src);
+            }
+
+            if (tmpfileSize < frameSize) {
+                return null;
+            }
+
+            return closeTempfile();
+        }
+    }
+
+    /**
+     * 释放（连接关闭时）
+     */
+    public void release() {
+        if (tmpfileRaf != null) {
+            try {
+                tmpfileRaf.close();
+            } catch (IOException ignore) {
+            }
+
+            tmpfile.delete();
+        }
+
+        reset();
+    }
+
+    private void openTempfile() throws IOException {
+        tmpfile = File.createTempFile("socketd-", ".tmp");
+        tmpfileRaf = new RandomAccessFile(tmpfile, "rw");
+
+        ByteBuffer head = ByteBuffer.allocate(Integer.BYTES);
+        head.putInt(frameSize);
+        head.flip();
+        while (head.hasRemaining()) {
+            tmpfileSize += tmpfileRaf.getChannel().write(head);
+        }
+    }
+
+    private CodecReader closeTempfile() throws IOException {
+        File file = tmpfile;
+        RandomAccessFile fileRaf = tmpfileRaf;
+        MappedByteBuffer mapped;
+
+        try {
+            mapped = fileRaf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, frameSize);
+        } catch (IOException e) {
+            fileRaf.close();
+            file.delete();
+            reset();
+            throw e;
+        }
+
+        reset();
+
+        //映射后就不需要文件了（不占用文件句柄与文件名）
+        fileRaf.close();
+        if (file.delete()) {
+            return new ByteBufferCodecReader(mapped, null);
+        }
+
+        //有些系统不能删除已映射的文件：实体释放时再删，否则退出时删
+        file.deleteOnExit();
+        return new ByteBufferCodecReader(mapped, file::delete);
+    }
+
+    private void reset() {
+        frameSize = -1;
+        frameBuffer = null;
+        tmpfile = null;
+        tmpfileRaf = null;
+        tmpfileSize = 0;
+    }
+
+    /**
+     * 转移（最多 length 个字节）
+     */
+    private static void transfer(ByteBuffer src, int length, ByteBuffer dst) {
+        dst.put(slice(src, length));
+    }
+
+    /**
+     * 切出（最多 length 个字节；源缓冲的位置随之前移）
+     */
+    private static ByteBuffer slice(ByteBuffer src, int length) {
+        int len = Math.min(length, src.remaining());
+        ByteBuffer tmp = src.duplicate();
+        tmp.limit(tmp.position() + len);
+        src.position(src.position() + len);
+        return tmp;
+    }
+}
@@ -1,12 +1,13 @@
 package org.noear.socketd.transport.smartsocket.tcp.impl;
 
+import org.noear.socketd.exception.SocketdCodecException;
 import org.noear.socketd.transport.core.ChannelSupporter;
+import org.noear.socketd.transport.core.CodecReader;
 import org.noear.socketd.transport.core.Frame;
-import org.noear.socketd.transport.core.codec.ByteBufferCodecReader;
 import org.smartboot.socket.Protocol;
-import org.smartboot.socket.extension.decoder.FixedLengthFrameDecoder;
 import org.smartboot.socket.transport.AioSession;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 
 /**
@@ -25,27 +26,20 @@ public class FrameProtocol implements Protocol<Frame> {
     }
 
     @Override
-    public Frame decode(ByteBuffer buffer, AioSession aioSession){
-        FixedLengthFrameDecoder decoder = getChannel(aioSession).getDecoder();
-
-        if (decoder == null) {
-            if (buffer.remaining() < Integer.BYTES) {
-                return null;
-            } else {
-                buffer.mark();
-                decoder = new FixedLengthFrameDecoder(buffer.getInt());
-                buffer.reset();
-                getChannel(aioSession).setDecoder(decoder);
-            }
+    public Frame decode(ByteBuffer buffer, AioSession aioSession) {
+        ChannelDefaultEx channel = getChannel(aioSession);
+
+        CodecReader reader;
+        try {
+            reader = channel.getDecoder().decode(buffer);
+        } catch (IOException e) {
+            throw new SocketdCodecException("Frame decode failed: " + e.getMessage());
         }
 
-        if (decoder.decode(buffer) == false) {
+        if (reader == null) {
             return null;
         } else {
-            getChannel(aioSession).setDecoder(null);
-            buffer = decoder.getBuffer();
+            return channelSupporter.getConfig().getCodec().read(channel, reader);
         }
-
-        return channelSupporter.getConfig().getCodec().read(new ByteBufferCodecReader(buffer));
     }
 }
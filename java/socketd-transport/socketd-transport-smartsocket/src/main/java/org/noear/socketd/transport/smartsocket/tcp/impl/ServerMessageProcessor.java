@@ -52,6 +52,7 @@ public class ServerMessageProcessor extends AbstractMessageProcessor<Frame> {
                 break;
 
             case SESSION_CLOSED:
+                getChannel(s).releaseDecoder();
                 server.getProcessor().onClose(getChannel(s));
                 break;
 
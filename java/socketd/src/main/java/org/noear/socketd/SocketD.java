@@ -3,12 +3,15 @@ package org.noear.socketd;
 import org.noear.socketd.cluster.ClusterClient;
 import org.noear.socketd.transport.client.ClientProvider;
 import org.noear.socketd.transport.core.Asserts;
+import org.noear.socketd.transport.core.Compressor;
 import org.noear.socketd.transport.server.ServerProvider;
 import org.noear.socketd.transport.client.Client;
 import org.noear.socketd.transport.client.ClientConfig;
 import org.noear.socketd.transport.server.Server;
 import org.noear.socketd.transport.server.ServerConfig;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,7 +34,7 @@ public class SocketD {
      * 协议版本号
      */
     public static String protocolVersion() {
-        return "1.0";
+        return "1.1";
     }
 
     /**
@@ -44,12 +47,18 @@ public class SocketD {
      */
     static Map<String, ServerProvider> serverProviderMap;
 
+    /**
+     * 压缩器（spi 扩展的，例如 lz4, zstd）
+     */
+    static List<Compressor> compressorList;
+
     /**
      * 加载 spi
      * */
     static {
         clientProviderMap = new HashMap<>();
         serverProviderMap = new HashMap<>();
+        compressorList = new ArrayList<>();
 
         ServiceLoader.load(ClientProvider.class).iterator().forEachRemaining(factory -> {
             for (String s : factory.schemas()) {
@@ -62,6 +71,17 @@ public class SocketD {
                 serverProviderMap.put(s, factory);
             }
         });
+
+        ServiceLoader.load(Compressor.class).iterator().forEachRemaining(compressorList::add);
+    }
+
+    /**
+     * 获取 spi 扩展的压缩器
+     *
+     * @since 2.2.3
+     */
+    public static List<Compressor> compressors() {
+        return Collections.unmodifiableList(compressorList);
     }
 
     /**
@@ -1,16 +1,20 @@
 package org.noear.socketd.cluster;
 
+import org.noear.socketd.exception.SocketdAlarmException;
 import org.noear.socketd.exception.SocketdException;
 import org.noear.socketd.transport.core.Entity;
 import org.noear.socketd.transport.client.ClientSession;
 import org.noear.socketd.transport.core.Reply;
 import org.noear.socketd.transport.core.Stream;
+import org.noear.socketd.transport.core.flow.Publisher;
 import org.noear.socketd.utils.IoConsumer;
 import org.noear.socketd.utils.RunUtils;
 import org.noear.socketd.utils.StrUtils;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -76,6 +80,19 @@ public class ClusterClientSession implements ClientSession {
         }
     }
 
+    /**
+     * 获取另一个会话（过载重试时用；排除已试过的，没有则为 null）
+     */
+    private ClientSession getSessionOther(List<ClientSession> tried) {
+        for (ClientSession session : sessionSet) {
+            if (session.isValid() && tried.contains(session) == false) {
+                return session;
+            }
+        }
+
+        return null;
+    }
+
     @Override
     public boolean isValid() {
         for (ClientSession session : sessionSet) {
@@ -87,6 +104,17 @@ public class ClusterClientSession implements ClientSession {
         return false;
     }
 
+    @Override
+    public boolean isWritable() {
+        for (ClientSession session : sessionSet) {
+            if (session.isValid() && session.isWritable()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     @Override
     public String sessionId() {
         return sessionId;
@@ -120,9 +148,7 @@ public class ClusterClientSession implements ClientSession {
      * @param content 内容
      */
     public Reply sendAndRequest(String event, Entity content) throws IOException {
-        ClientSession sender = getSessionOne();
-
-        return sender.sendAndRequest(event, content);
+        return sendAndRequest(event, content, 0);
     }
 
     /**
@@ -134,8 +160,32 @@ public class ClusterClientSession implements ClientSession {
      */
     public Reply sendAndRequest(String event, Entity content, long timeout) throws IOException {
         ClientSession sender = getSessionOne();
+        List<ClientSession> tried = null;
+        int dataPosition = content.data().position();
+
+        while (true) {
+            try {
+                return sender.sendAndRequest(event, content, timeout);
+            } catch (SocketdAlarmException e) {
+                //对方过载时（没有处理），换个会话重试
+                if (e.isOverloaded() == false) {
+                    throw e;
+                }
+
+                if (tried == null) {
+                    tried = new ArrayList<>();
+                }
+                tried.add(sender);
 
-        return sender.sendAndRequest(event, content, timeout);
+                sender = getSessionOther(tried);
+                if (sender == null) {
+                    throw e;
+                }
+
+                //分片发送时数据会被读走，重发前还原
+                content.data().position(dataPosition);
+            }
+        }
     }
 
     /**
@@ -166,6 +216,82 @@ public class ClusterClientSession implements ClientSession {
         return sender.sendAndSubscribe(event, content, consumer, timeout);
     }
 
+    /**
+     * 订阅（流控；每次订阅时，才选择会话）
+     *
+     * @param event   事件
+     * @param content 内容
+     * @param timeout 超时（毫秒）
+     */
+    @Override
+    public Publisher<Reply> subscribe(String event, Entity content, long timeout) {
+        return subscriber -> getSessionOne().subscribe(event, content, timeout).subscribe(subscriber);
+    }
+
+    /**
+     * 异步发送
+     *
+     * @param event   事件
+     * @param content 内容
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(String event, Entity content) {
+        ClientSession sender = getSessionOne();
+
+        return sender.sendAsync(event, content);
+    }
+
+    /**
+     * 异步请求（限为一次答复；指定超时）
+     *
+     * @param event   事件
+     * @param content 内容
+     * @param timeout 超时（毫秒）
+     */
+    @Override
+    public CompletableFuture<Reply> requestAsync(String event, Entity content, long timeout) {
+        CompletableFuture<Reply> future = new CompletableFuture<>();
+        ClientSession sender;
+
+        try {
+            sender = getSessionOne();
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        requestAsyncDo(sender, event, content, timeout, content.data().position(), new ArrayList<>(), future);
+        return future;
+    }
+
+    /**
+     * 异步请求（对方过载时，换个会话重试）
+     */
+    private void requestAsyncDo(ClientSession sender, String event, Entity content, long timeout, int dataPosition, List<ClientSession> tried, CompletableFuture<Reply> future) {
+        sender.requestAsync(event, content, timeout).whenComplete((r, e) -> {
+            if (e == null) {
+                future.complete(r);
+                return;
+            }
+
+            Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+
+            if (cause instanceof SocketdAlarmException && ((SocketdAlarmException) cause).isOverloaded()) {
+                tried.add(sender);
+                ClientSession other = getSessionOther(tried);
+
+                if (other != null) {
+                    //分片发送时数据会被读走，重发前还原
+                    content.data().position(dataPosition);
+                    requestAsyncDo(other, event, content, timeout, dataPosition, tried, future);
+                    return;
+                }
+            }
+
+            future.completeExceptionally(cause);
+        });
+    }
+
     /**
      * 关闭
      */
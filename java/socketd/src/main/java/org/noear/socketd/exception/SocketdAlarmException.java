@@ -1,5 +1,7 @@
 package org.noear.socketd.exception;
 
+import org.noear.socketd.transport.core.Constants;
+import org.noear.socketd.transport.core.EntityMetas;
 import org.noear.socketd.transport.core.Message;
 
 /**
@@ -18,6 +20,43 @@ public class SocketdAlarmException extends SocketdException {
         return alarm;
     }
 
+    /**
+     * 获取告警码（见 Constants.ALARM*；没有则为 0）
+     *
+     * @since 2.2.3
+     */
+    public int getCode() {
+        String code = alarm.meta(EntityMetas.META_ALARM_CODE);
+
+        if (code == null) {
+            return 0;
+        }
+
+        try {
+            return Integer.parseInt(code);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 是否因过载被拒绝（没有处理，可以换个节点重试）
+     *
+     * @since 2.2.3
+     */
+    public boolean isOverloaded() {
+        return getCode() == Constants.ALARM1_OVERLOADED;
+    }
+
+    /**
+     * 是否因数据超过接收方的聚合上限被拒绝
+     *
+     * @since 2.2.3
+     */
+    public boolean isSizeLimit() {
+        return getCode() == Constants.ALARM2_SIZE_LIMIT;
+    }
+
     public SocketdAlarmException(Message alarm) {
         super(alarm.dataAsString());
         this.alarm = alarm;
@@ -0,0 +1,13 @@
+package org.noear.socketd.exception;
+
+/**
+ * 写溢出异常（通道的待写数据超过高水位）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class SocketdOverflowException extends SocketdException {
+    public SocketdOverflowException(String message) {
+        super(message);
+    }
+}
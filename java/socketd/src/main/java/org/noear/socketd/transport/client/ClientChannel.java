@@ -3,15 +3,18 @@ package org.noear.socketd.transport.client;
 import org.noear.socketd.exception.SocketdChannelException;
 import org.noear.socketd.exception.SocketdException;
 import org.noear.socketd.transport.core.*;
+import org.noear.socketd.transport.core.compressor.CompressStats;
 import org.noear.socketd.transport.core.internal.ChannelBase;
 import org.noear.socketd.transport.core.internal.HeartbeatHandlerDefault;
+import org.noear.socketd.transport.core.stream.StreamMangerDefault;
 import org.noear.socketd.utils.RunUtils;
+import org.noear.socketd.utils.TimingWheel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 客户端通道
@@ -26,15 +29,18 @@ public class ClientChannel extends ChannelBase implements Channel {
     private final ClientConnector connector;
     //真实通道
     private Channel real;
+    //没有真实通道时（断开了）用的流管理器（不会有流）
+    private final StreamManger idleStreamManger;
     //心跳处理
     private HeartbeatHandler heartbeatHandler;
     //心跳调度
-    private ScheduledFuture<?> heartbeatScheduledFuture;
+    private TimingWheel.Timeout heartbeatTimeout;
 
     public ClientChannel(Channel real, ClientConnector connector) {
         super(real.getConfig());
         this.connector = connector;
         this.real = real;
+        this.idleStreamManger = new StreamMangerDefault(real.getConfig());
         this.heartbeatHandler = connector.getHeartbeatHandler();
 
         if (heartbeatHandler == null) {
@@ -48,12 +54,12 @@ public class ClientChannel extends ChannelBase implements Channel {
      * 初始化心跳（关闭后，手动重链时也会用到）
      */
     private void initHeartbeat() {
-        if (heartbeatScheduledFuture != null) {
-            heartbeatScheduledFuture.cancel(false);
+        if (heartbeatTimeout != null) {
+            heartbeatTimeout.cancel();
         }
 
         if (connector.autoReconnect()) {
-            heartbeatScheduledFuture = RunUtils.delayAndRepeat(() -> {
+            heartbeatTimeout = RunUtils.timeoutAndRepeat(() -> {
                 try {
                     heartbeatHandle();
                 } catch (Exception e) {
@@ -77,6 +83,18 @@ public class ClientChannel extends ChannelBase implements Channel {
         }
     }
 
+    /**
+     * 是否可写（没有连接时，发送会先连接，视为可写）
+     */
+    @Override
+    public boolean isWritable() {
+        if (real == null) {
+            return true;
+        } else {
+            return real.isWritable();
+        }
+    }
+
     /**
      * 是否已关闭
      */
@@ -89,6 +107,42 @@ public class ClientChannel extends ChannelBase implements Channel {
         }
     }
 
+    /**
+     * 获取压缩统计（重连后重新统计）
+     */
+    @Override
+    public CompressStats getCompressStats() {
+        if (real == null) {
+            return super.getCompressStats();
+        } else {
+            return real.getCompressStats();
+        }
+    }
+
+    /**
+     * 获取流管理器
+     */
+    @Override
+    public StreamManger getStreamManger() {
+        if (real == null) {
+            return idleStreamManger;
+        } else {
+            return real.getStreamManger();
+        }
+    }
+
+    /**
+     * 生成流Id
+     */
+    @Override
+    public String generateSid() {
+        if (real == null) {
+            return super.generateSid();
+        } else {
+            return real.generateSid();
+        }
+    }
+
     /**
      * 获取远程地址
      */
@@ -173,6 +227,32 @@ public class ClientChannel extends ChannelBase implements Channel {
         }
     }
 
+    /**
+     * 异步发送（需要连接或重连时，连接也是异步的）
+     *
+     * @param frame  帧
+     * @param stream 流（没有则为 null）
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(Frame frame, StreamInternal stream) {
+        Channel tmp = real;
+
+        if (tmp != null && tmp.isValid()) {
+            return tmp.sendAsync(frame, stream);
+        } else {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            RunUtils.async(() -> {
+                try {
+                    send(frame, stream);
+                    future.complete(null);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return future;
+        }
+    }
+
     /**
      * 接收（接收答复帧）
      *
@@ -214,7 +294,7 @@ public class ClientChannel extends ChannelBase implements Channel {
      */
     @Override
     public void close(int code) {
-        RunUtils.runAndTry(() -> heartbeatScheduledFuture.cancel(true));
+        RunUtils.runAndTry(() -> heartbeatTimeout.cancel());
         RunUtils.runAndTry(() -> connector.close());
         RunUtils.runAndTry(() -> real.close(code));
     }
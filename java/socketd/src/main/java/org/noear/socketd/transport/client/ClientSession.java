@@ -3,10 +3,13 @@ package org.noear.socketd.transport.client;
 import org.noear.socketd.transport.core.Entity;
 import org.noear.socketd.transport.core.Reply;
 import org.noear.socketd.transport.core.Stream;
+import org.noear.socketd.transport.core.flow.Publisher;
+import org.noear.socketd.transport.core.flow.Subscription;
 import org.noear.socketd.utils.IoConsumer;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 客户会话
@@ -19,6 +22,15 @@ public interface ClientSession extends Closeable {
      */
     boolean isValid();
 
+    /**
+     * 是否可写（待写数据没有超过高水位；默认总是可写）
+     *
+     * @since 2.2.3
+     */
+    default boolean isWritable() {
+        return true;
+    }
+
     /**
      * 获取会话Id
      */
@@ -101,4 +113,101 @@ public interface ClientSession extends Closeable {
      * @return 流
      */
     Stream sendAndSubscribe(String event, Entity content, IoConsumer<Reply> consumer, long timeout) throws IOException;
+
+    /**
+     * 订阅（流控；订阅者请求多少，答复方最多答复多少。第一次请求时才发出订阅）
+     *
+     * @param event   事件
+     * @param content 内容
+     * @since 2.2.3
+     */
+    default Publisher<Reply> subscribe(String event, Entity content) {
+        return subscribe(event, content, 0);
+    }
+
+    /**
+     * 订阅（流控；订阅者请求多少，答复方最多答复多少。第一次请求时才发出订阅）
+     *
+     * <p>默认不支持（订阅者会收到 UnsupportedOperationException 异常）</p>
+     *
+     * @param event   事件
+     * @param content 内容
+     * @param timeout 超时（毫秒）
+     * @since 2.2.3
+     */
+    default Publisher<Reply> subscribe(String event, Entity content, long timeout) {
+        return subscriber -> {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+
+                }
+
+                @Override
+                public void cancel() {
+
+                }
+            });
+
+            subscriber.onError(new UnsupportedOperationException("Subscribe is not supported: " + getClass().getName()));
+        };
+    }
+
+    /**
+     * 异步发送（排队写入，不阻塞调用方；写入后完成）
+     *
+     * <p>写入在通道执行器的线程上进行；执行器拒绝时异常完成</p>
+     *
+     * <p>默认为同步发送，发送后返回已完成的结果</p>
+     *
+     * @param event   事件
+     * @param content 内容
+     * @since 2.2.3
+     */
+    default CompletableFuture<Void> sendAsync(String event, Entity content) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        try {
+            send(event, content);
+            future.complete(null);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * 异步请求（限为一次答复；收到答复后完成）
+     *
+     * @param event   事件
+     * @param content 内容
+     * @since 2.2.3
+     */
+    default CompletableFuture<Reply> requestAsync(String event, Entity content) {
+        return requestAsync(event, content, 0);
+    }
+
+    /**
+     * 异步请求（限为一次答复；收到答复后完成，超时则异常完成）
+     *
+     * <p>默认基于回调模式的 sendAndRequest</p>
+     *
+     * @param event   事件
+     * @param content 内容
+     * @param timeout 超时（毫秒）
+     * @since 2.2.3
+     */
+    default CompletableFuture<Reply> requestAsync(String event, Entity content, long timeout) {
+        CompletableFuture<Reply> future = new CompletableFuture<>();
+
+        try {
+            sendAndRequest(event, content, future::complete, timeout)
+                    .thenError(future::completeExceptionally);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
 }
@@ -0,0 +1,78 @@
+package org.noear.socketd.transport.core;
+
+/**
+ * 背压策略（通道的待写数据超过高水位时，发送怎么办）
+ *
+ * <pre>
+ * 通知：照常发送，只是 isWritable 为 false 并触发 onWritabilityChanged（默认，由应用自己控制节奏）
+ * 快速失败：直接抛出 SocketdOverflowException
+ * 等待：等到降回低水位（可写）后再发送；超时则抛出 SocketdOverflowException
+ * 异步发送不阻塞调用方，通知之外的策略都直接失败
+ * 握手、心跳、关闭等控制帧，不受限制
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class BackpressurePolicy {
+    /**
+     * 通知
+     */
+    public static final BackpressurePolicy NOTIFY = new BackpressurePolicy(false, 0L);
+
+    /**
+     * 快速失败
+     */
+    public static final BackpressurePolicy FAIL_FAST = new BackpressurePolicy(true, 0L);
+
+    /**
+     * 等待
+     *
+     * @param timeoutMillis 最长等待（毫秒）
+     */
+    public static BackpressurePolicy await(long timeoutMillis) {
+        if (timeoutMillis <= 0L) {
+            throw new IllegalArgumentException("The backpressure await timeout must be greater than 0");
+        }
+
+        return new BackpressurePolicy(true, timeoutMillis);
+    }
+
+
+    private final boolean rejectable;
+    private final long timeoutMillis;
+
+    private BackpressurePolicy(boolean rejectable, long timeoutMillis) {
+        this.rejectable = rejectable;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 是否只是通知
+     */
+    public boolean isNotify() {
+        return rejectable == false;
+    }
+
+    /**
+     * 是否等待
+     */
+    public boolean isAwait() {
+        return timeoutMillis > 0L;
+    }
+
+    /**
+     * 最长等待（毫秒）
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BackpressurePolicy{" +
+                "rejectable=" + rejectable +
+                ", timeoutMillis=" + timeoutMillis +
+                '}';
+    }
+}
@@ -1,7 +1,10 @@
 package org.noear.socketd.transport.core;
 
+import org.noear.socketd.transport.core.compressor.CompressStats;
+
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 通道
@@ -25,6 +28,15 @@ public interface Channel {
      */
     boolean isValid();
 
+    /**
+     * 是否可写（待写数据没有超过高水位；默认总是可写）
+     *
+     * @since 2.2.3
+     */
+    default boolean isWritable() {
+        return true;
+    }
+
     /**
      * 是否已关闭
      */
@@ -52,6 +64,36 @@ public interface Channel {
      */
     HandshakeInternal getHandshake();
 
+    /**
+     * 获取压缩统计（默认为空的统计，即没有压缩过）
+     *
+     * @since 2.2.3
+     */
+    default CompressStats getCompressStats() {
+        return new CompressStats();
+    }
+
+    /**
+     * 获取流管理器（每个连接一个，连接关闭时结束其所有的流）
+     *
+     * <p>默认为配置的流管理器（兼容之前的实现；框架的通道都有自己的流管理器）</p>
+     *
+     * @since 2.2.3
+     */
+    @SuppressWarnings("deprecation")
+    default StreamManger getStreamManger() {
+        return getConfig().getStreamManger();
+    }
+
+    /**
+     * 生成流Id（协商为紧凑流Id时，为连接内计数；否则由 IdGenerator 生成）
+     *
+     * @since 2.2.3
+     */
+    default String generateSid() {
+        return getConfig().getIdGenerator().generate();
+    }
+
     /**
      * 获取远程地址
      */
@@ -104,6 +146,30 @@ public interface Channel {
      */
     void send(Frame frame, StreamInternal stream) throws IOException;
 
+    /**
+     * 异步发送（排队写入，不阻塞调用方；写入传输后完成）
+     *
+     * <p>写入仍在通道执行器的线程上进行（写阻塞、等授信、等水位时占用该线程）；执行器拒绝时异常完成</p>
+     *
+     * <p>默认为同步发送，发送后返回已完成的结果</p>
+     *
+     * @param frame  帧
+     * @param stream 流（没有则为 null）
+     * @since 2.2.3
+     */
+    default CompletableFuture<Void> sendAsync(Frame frame, StreamInternal stream) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        try {
+            send(frame, stream);
+            future.complete(null);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
     /**
      * 接收（接收答复帧）
      *
@@ -18,6 +18,73 @@ public interface ChannelAssistant<T> {
      */
     void write(T target, Frame frame) throws IOException;
 
+    /**
+     * 写入（带通道，可使用连接级的编解码状态）
+     *
+     * @param target  目标
+     * @param frame   帧
+     * @param channel 通道
+     * @since 2.2.3
+     */
+    default void write(T target, Frame frame, ChannelInternal channel) throws IOException {
+        write(target, frame);
+    }
+
+    /**
+     * 写入（写完时回调，用于待写数据的计量；异步写的传输，要在真正写出后再回调）
+     *
+     * @param target    目标
+     * @param frame     帧
+     * @param channel   通道
+     * @param onWritten 写完时
+     * @since 2.2.3
+     */
+    default void write(T target, Frame frame, ChannelInternal channel, Runnable onWritten) throws IOException {
+        try {
+            write(target, frame, channel);
+        } finally {
+            onWritten.run();
+        }
+    }
+
+    /**
+     * 是否支持连接级的编解码状态（要求读写都带通道，且传输可靠有序。例如头部字典）
+     *
+     * @since 2.2.3
+     */
+    default boolean isCodecStateful() {
+        return false;
+    }
+
+    /**
+     * 是否支持分片窗口（要求传输可靠有序；授信帧丢了，窗口就无法恢复）
+     *
+     * @since 2.2.3
+     */
+    default boolean isFragmentWindowable() {
+        return false;
+    }
+
+    /**
+     * 是否支持延后冲刷（冲刷策略不是立即时，写入只进缓冲，由 flush 统一写出）
+     *
+     * @since 2.2.3
+     */
+    default boolean isFlushDeferrable() {
+        return false;
+    }
+
+    /**
+     * 冲刷（把延后的写入一次写出）
+     *
+     * @param target  目标
+     * @param channel 通道
+     * @since 2.2.3
+     */
+    default void flush(T target, ChannelInternal channel) throws IOException {
+
+    }
+
     /**
      * 是否有效
      */
@@ -1,5 +1,10 @@
 package org.noear.socketd.transport.core;
 
+import org.noear.socketd.transport.core.codec.HeaderTable;
+import org.noear.socketd.transport.core.fragment.FragmentWindowManager;
+import org.noear.socketd.transport.core.internal.OrderedDispatcher;
+import org.noear.socketd.transport.core.stream.ReplyFlowManager;
+
 import java.util.function.BiConsumer;
 
 /**
@@ -23,4 +28,53 @@ public interface ChannelInternal extends Channel {
      * 执行打开时
      */
     void doOpenFuture(boolean isOk, Throwable error);
+
+    /**
+     * 获取头部字典（编码用；握手协商启用后才有）
+     *
+     * @since 2.2.3
+     */
+    HeaderTable getEncodeHeaderTable();
+
+    /**
+     * 获取头部字典（解码用；握手协商启用后才有）
+     *
+     * @since 2.2.3
+     */
+    HeaderTable getDecodeHeaderTable();
+
+    /**
+     * 获取编解码器（握手协商确定；握手前为 null）
+     *
+     * @since 2.2.3
+     */
+    Codec getCodec();
+
+    /**
+     * 获取有序派发器（派发策略为有序时才有；懒加载）
+     *
+     * @since 2.2.3
+     */
+    OrderedDispatcher getDispatcher();
+
+    /**
+     * 结束还没完成的流（异常通知，不用再等超时）
+     *
+     * @since 2.2.3
+     */
+    void closeStreams();
+
+    /**
+     * 获取答复流控管理器（答复方用）
+     *
+     * @since 2.2.3
+     */
+    ReplyFlowManager getReplyFlowManager();
+
+    /**
+     * 获取分片窗口管理器（发送分片时用窗口，接收分片时授信）
+     *
+     * @since 2.2.3
+     */
+    FragmentWindowManager getFragmentWindowManager();
 }
@@ -17,6 +17,17 @@ public interface Codec {
      */
     Frame read(CodecReader buffer);
 
+    /**
+     * 编码读取（带通道，可使用连接级的编解码状态）
+     *
+     * @param channel 通道
+     * @param buffer  缓冲
+     * @since 2.2.3
+     */
+    default Frame read(ChannelInternal channel, CodecReader buffer) {
+        return read(buffer);
+    }
+
     /**
      * 解码写入
      *
@@ -24,4 +35,16 @@ public interface Codec {
      * @param targetFactory 目标工厂
      */
     <T extends CodecWriter> T write(Frame frame, Function<Integer, T> targetFactory) throws IOException;
+
+    /**
+     * 解码写入（带通道，可使用连接级的编解码状态）
+     *
+     * @param channel       通道
+     * @param frame         帧
+     * @param targetFactory 目标工厂
+     * @since 2.2.3
+     */
+    default <T extends CodecWriter> T write(ChannelInternal channel, Frame frame, Function<Integer, T> targetFactory) throws IOException {
+        return write(frame, targetFactory);
+    }
 }
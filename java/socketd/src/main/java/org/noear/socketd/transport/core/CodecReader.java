@@ -1,5 +1,11 @@
 package org.noear.socketd.transport.core;
 
+import org.noear.socketd.utils.RunnableEx;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
 /**
  * 编解码缓冲读
  *
@@ -18,6 +24,111 @@ public interface CodecReader {
      */
     void getBytes(byte[] dst, int offset, int length);
 
+    /**
+     * 获取字符串
+     *
+     * <pre>
+     * 默认按 getBytes 读取后解码（实现方可以覆盖，避免复制）
+     * </pre>
+     *
+     * @param length  长度
+     * @param charset 字符集
+     * @since 2.2.3
+     */
+    default String getString(int length, Charset charset) {
+        byte[] bytes = new byte[length];
+        getBytes(bytes, 0, length);
+        return new String(bytes, charset);
+    }
+
+    /**
+     * 是否支持查找（peekByte、indexOf；不支持时，编解码器按 byte 逐个读取）
+     *
+     * @since 2.2.3
+     */
+    default boolean isSearchable() {
+        return false;
+    }
+
+    /**
+     * 查看 byte（不移动位置；isSearchable 为 true 时才可用）
+     *
+     * @param offset 相对当前位置的偏移
+     * @since 2.2.3
+     */
+    default byte peekByte(int offset) {
+        throw new UnsupportedOperationException("This reader is not searchable: " + getClass().getName());
+    }
+
+    /**
+     * 查找 byte（从当前位置开始，批量扫描；isSearchable 为 true 时才可用）
+     *
+     * @param value 值
+     * @return 相对当前位置的偏移（没有时为 -1）
+     * @since 2.2.3
+     */
+    default int indexOf(byte value) {
+        throw new UnsupportedOperationException("This reader is not searchable: " + getClass().getName());
+    }
+
+    /**
+     * 跳过一组 byte
+     *
+     * <pre>
+     * 默认按 getBytes 分段读掉（实现方可以覆盖，直接移动位置）
+     * </pre>
+     *
+     * @param length 长度
+     * @since 2.2.3
+     */
+    default void skipBytes(int length) {
+        byte[] tmp = new byte[Math.min(length, 512)];
+        while (length > 0) {
+            int size = Math.min(length, tmp.length);
+            getBytes(tmp, 0, size);
+            length -= size;
+        }
+    }
+
+    /**
+     * 获取一段只读切片（共享内容，不复制）
+     *
+     * <pre>
+     * 默认复制到堆缓冲（实现方可以覆盖，共享内容）
+     * </pre>
+     *
+     * @param length 长度
+     * @since 2.2.3
+     */
+    default ByteBuffer getSlice(int length) {
+        byte[] bytes = new byte[length];
+        getBytes(bytes, 0, length);
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * 保留缓冲（切片在使用期间，需保留底层缓冲）
+     *
+     * <pre>
+     * 默认不需要释放（getSlice 默认是复制的）
+     * </pre>
+     *
+     * @return 释放器（不需要释放时为 null）
+     * @since 2.2.3
+     */
+    default RunnableEx<IOException> retainBuffer() {
+        return null;
+    }
+
+    /**
+     * 是否为帧独占（独占时，数据总是切片，不再复制）
+     *
+     * @since 2.2.3
+     */
+    default boolean isExclusive() {
+        return false;
+    }
+
     /**
      * 获取 int
      */
@@ -1,6 +1,7 @@
 package org.noear.socketd.transport.core;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * 编解码缓冲写
@@ -14,6 +15,25 @@ public interface CodecWriter {
      */
     void putBytes(byte[] bytes) throws IOException;
 
+    /**
+     * 推入一组 byte（不改变 src 的位置；可直接引用 src，避免复制）
+     *
+     * <pre>
+     * 默认复制为数组后推入（实现方可以覆盖，直接引用）
+     * </pre>
+     *
+     * @since 2.2.3
+     */
+    default void putBytes(ByteBuffer src) throws IOException {
+        if (src.hasArray() && src.arrayOffset() == 0 && src.position() == 0 && src.remaining() == src.array().length) {
+            putBytes(src.array());
+        } else {
+            byte[] bytes = new byte[src.remaining()];
+            src.duplicate().get(bytes);
+            putBytes(bytes);
+        }
+    }
+
     /**
      * 推入 int
      */
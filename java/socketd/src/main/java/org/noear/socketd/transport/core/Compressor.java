@@ -0,0 +1,31 @@
+package org.noear.socketd.transport.core;
+
+import java.io.IOException;
+
+/**
+ * 压缩器（可通过 spi 扩展，例如 lz4, zstd；握手时按名字协商）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public interface Compressor {
+    /**
+     * 名字（双方名字相同，才表示算法与字典都相同）
+     */
+    String name();
+
+    /**
+     * 压缩
+     *
+     * @param data 原始数据
+     */
+    byte[] compress(byte[] data) throws IOException;
+
+    /**
+     * 解压
+     *
+     * @param data         压缩数据
+     * @param originalSize 原始大小
+     */
+    byte[] decompress(byte[] data, int originalSize) throws IOException;
+}
@@ -2,6 +2,7 @@ package org.noear.socketd.transport.core;
 
 import javax.net.ssl.SSLContext;
 import java.nio.charset.Charset;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -18,7 +19,10 @@ public interface Config {
 
     /**
      * 获取流管理器
+     *
+     * @deprecated 2.2.3 框架不再使用（每个连接有自己的流管理器，见 Channel::getStreamManger）
      */
+    @Deprecated
     StreamManger getStreamManger();
 
     /**
@@ -36,6 +40,21 @@ public interface Config {
      */
     Codec getCodec();
 
+    /**
+     * 获取编解码器（取不高于协议版本的最高注册版本）
+     *
+     * @param protocolVersion 协议版本
+     * @since 2.2.3
+     */
+    Codec getCodec(String protocolVersion);
+
+    /**
+     * 获取协议版本（本地支持的最高版本；注册了更高版本的编解码器时，取其版本）
+     *
+     * @since 2.2.3
+     */
+    String getProtocolVersion();
+
     /**
      * 获取Id生成器
      */
@@ -51,6 +70,112 @@ public interface Config {
      */
     int getFragmentSize();
 
+    /**
+     * 获取分片窗口策略（分片发送时，按接收方的授信发送）
+     *
+     * @since 2.2.3
+     */
+    FragmentWindowPolicy getFragmentWindowPolicy();
+
+    /**
+     * 是否切片解码（零拷贝；消息在 onMessage 之后自动释放）
+     *
+     * @since 2.2.3
+     */
+    boolean isSliceDecode();
+
+    /**
+     * 获取头部字典大小（0 表示不启用）
+     *
+     * @since 2.2.3
+     */
+    int getHeaderTableSize();
+
+    /**
+     * 获取压缩阈值（数据达到此大小才压缩；0 表示不压缩）
+     *
+     * @since 2.2.3
+     */
+    int getCompressThreshold();
+
+    /**
+     * 是否启用紧凑流Id（握手时协商，双方都启用才生效）
+     *
+     * @since 2.2.3
+     */
+    boolean isSidCompact();
+
+    /**
+     * 获取解码转存临时文件的阈值（帧大于此值时，边收边写入临时文件；0 表示不启用）
+     *
+     * @since 2.2.3
+     */
+    int getDecodeTempfileThreshold();
+
+    /**
+     * 获取冲刷策略（写入帧后，何时写出到网络）
+     *
+     * @since 2.2.3
+     */
+    FlushPolicy getFlushPolicy();
+
+    /**
+     * 获取写缓冲低水位（待写数据降到此值时，恢复为可写）
+     *
+     * @since 2.2.3
+     */
+    int getWriteBufferLowWaterMark();
+
+    /**
+     * 获取写缓冲高水位（待写数据超过此值时，变为不可写；0 表示不限制）
+     *
+     * @since 2.2.3
+     */
+    int getWriteBufferHighWaterMark();
+
+    /**
+     * 获取背压策略（超过高水位时，发送怎么办）
+     *
+     * @since 2.2.3
+     */
+    BackpressurePolicy getBackpressurePolicy();
+
+    /**
+     * 获取派发策略（收到的消息，怎么交给执行器处理）
+     *
+     * @since 2.2.3
+     */
+    DispatchPolicy getDispatchPolicy();
+
+    /**
+     * 获取削峰策略（派发队列过载时拒绝新消息）
+     *
+     * @since 2.2.3
+     */
+    SheddingPolicy getSheddingPolicy();
+
+    /**
+     * 获取派发统计
+     *
+     * @since 2.2.3
+     */
+    DispatchStats getDispatchStats();
+
+    /**
+     * 获取压缩器（按优先顺序）
+     *
+     * @since 2.2.3
+     */
+    List<Compressor> getCompressors();
+
+    /**
+     * 获取压缩器
+     *
+     * @param name 名字
+     * @since 2.2.3
+     */
+    Compressor getCompressor(String name);
+
     /**
      * 获取 ssl 上下文
      */
@@ -61,6 +186,13 @@ public interface Config {
      */
     ExecutorService getChannelExecutor();
 
+    /**
+     * 是否使用虚拟线程（JDK 21+ 有效）
+     *
+     * @since 2.2.3
+     */
+    boolean isVirtualThreads();
+
     /**
      * 核心线程数（第二优先）
      */
@@ -44,6 +44,15 @@ public interface Constants {
      */
     int CLOSE4_USER = 4;
 
+    /**
+     * 告警码：因过载拒绝（没有处理，可以换个节点重试）
+     */
+    int ALARM1_OVERLOADED = 1;
+    /**
+     * 告警码：因数据超过接收方的聚合上限拒绝（分片已丢弃）
+     */
+    int ALARM2_SIZE_LIMIT = 2;
+
 
     /**
      * 流ID长度最大限制
@@ -0,0 +1,139 @@
+package org.noear.socketd.transport.core;
+
+/**
+ * 派发策略（收到的消息，怎么交给执行器处理）
+ *
+ * <pre>
+ * 并发：每条消息单独提交到通道执行器（默认；同一会话的消息可能并发、乱序）
+ * 会话有序：同一会话的消息依次处理，不同会话并行
+ * 流有序：同一个流（sid）的消息依次处理，不同的流并行（按 sid 分条）
+ * 有序时，每个会话（或分条）最多占用一个线程，处理完一个时间片（条数）就排到执行器队尾，让其它会话轮转
+ * 内联：直接在传输层的 I/O 线程上处理（少一次线程切换；处理不能阻塞，超过阻塞阈值会告警；onOpen 也内联，不会晚于之后的消息）
+ * 也可以用 EventListener::doOnInline 只让某些事件内联
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class DispatchPolicy {
+    /**
+     * 默认内联阻塞阈值（毫秒）
+     */
+    public static final long DEFAULT_BLOCK_THRESHOLD = 100;
+
+    /**
+     * 并发
+     */
+    public static final DispatchPolicy CONCURRENT = new DispatchPolicy(false, false, false, 0, DEFAULT_BLOCK_THRESHOLD);
+
+    /**
+     * 会话有序
+     */
+    public static final DispatchPolicy SESSION_ORDERED = new DispatchPolicy(false, true, false, 16, DEFAULT_BLOCK_THRESHOLD);
+
+    /**
+     * 流有序
+     */
+    public static final DispatchPolicy STREAM_ORDERED = new DispatchPolicy(false, true, true, 16, DEFAULT_BLOCK_THRESHOLD);
+
+    /**
+     * 内联
+     */
+    public static final DispatchPolicy INLINE = new DispatchPolicy(true, false, false, 0, DEFAULT_BLOCK_THRESHOLD);
+
+    /**
+     * 会话有序
+     *
+     * @param quantum 时间片（每轮最多处理的消息数）
+     */
+    public static DispatchPolicy sessionOrdered(int quantum) {
+        return new DispatchPolicy(false, true, false, quantum, DEFAULT_BLOCK_THRESHOLD);
+    }
+
+    /**
+     * 流有序
+     *
+     * @param quantum 时间片（每轮最多处理的消息数）
+     */
+    public static DispatchPolicy streamOrdered(int quantum) {
+        return new DispatchPolicy(false, true, true, quantum, DEFAULT_BLOCK_THRESHOLD);
+    }
+
+    /**
+     * 内联
+     *
+     * @param blockThreshold 阻塞阈值（毫秒；内联处理超过它会告警，0 表示不检测）
+     */
+    public static DispatchPolicy inline(long blockThreshold) {
+        return new DispatchPolicy(true, false, false, 0, blockThreshold);
+    }
+
+
+    private final boolean inline;
+    private final boolean ordered;
+    private final boolean streamOrdered;
+    private final int quantum;
+    private final long blockThreshold;
+
+    private DispatchPolicy(boolean inline, boolean ordered, boolean streamOrdered, int quantum, long blockThreshold) {
+        if (ordered && quantum < 1) {
+            throw new IllegalArgumentException("The dispatch quantum must be greater than 0");
+        }
+
+        if (blockThreshold < 0) {
+            throw new IllegalArgumentException("The dispatch blockThreshold cannot be less than 0");
+        }
+
+        this.inline = inline;
+        this.ordered = ordered;
+        this.streamOrdered = streamOrdered;
+        this.quantum = quantum;
+        this.blockThreshold = blockThreshold;
+    }
+
+    /**
+     * 是否内联（在 I/O 线程上处理）
+     */
+    public boolean isInline() {
+        return inline;
+    }
+
+    /**
+     * 是否有序
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * 是否按流有序（否则按会话）
+     */
+    public boolean isStreamOrdered() {
+        return streamOrdered;
+    }
+
+    /**
+     * 时间片（每轮最多处理的消息数）
+     */
+    public int getQuantum() {
+        return quantum;
+    }
+
+    /**
+     * 内联阻塞阈值（毫秒）
+     */
+    public long getBlockThreshold() {
+        return blockThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return "DispatchPolicy{" +
+                "inline=" + inline +
+                ", ordered=" + ordered +
+                ", streamOrdered=" + streamOrdered +
+                ", quantum=" + quantum +
+                ", blockThreshold=" + blockThreshold +
+                '}';
+    }
+}
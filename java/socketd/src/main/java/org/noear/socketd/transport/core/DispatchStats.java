@@ -0,0 +1,96 @@
+package org.noear.socketd.transport.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 派发统计（每个服务端或客户端一个；收到的消息交给执行器处理的情况）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class DispatchStats {
+    //排队的消息数
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    //接纳的消息数
+    private final LongAdder admitted = new LongAdder();
+    //拒绝的消息数
+    private final LongAdder rejected = new LongAdder();
+    //是否过载
+    private volatile boolean overloaded;
+
+    /**
+     * 记录入队
+     *
+     * @return 入队后的排队数
+     */
+    public int recordQueued() {
+        return queueDepth.incrementAndGet();
+    }
+
+    /**
+     * 记录出队
+     */
+    public void recordDequeued() {
+        queueDepth.decrementAndGet();
+    }
+
+    /**
+     * 记录接纳
+     */
+    public void recordAdmitted() {
+        admitted.increment();
+    }
+
+    /**
+     * 记录拒绝
+     */
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    /**
+     * 配置过载状态
+     */
+    public void overloadedSet(boolean overloaded) {
+        this.overloaded = overloaded;
+    }
+
+    /**
+     * 排队的消息数（已收到还没开始处理）
+     */
+    public int queueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * 接纳的消息数
+     */
+    public long admitted() {
+        return admitted.sum();
+    }
+
+    /**
+     * 拒绝的消息数
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * 是否过载（按逗留时间判断）
+     */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    @Override
+    public String toString() {
+        return "DispatchStats{" +
+                "queueDepth=" + queueDepth() +
+                ", admitted=" + admitted() +
+                ", rejected=" + rejected() +
+                ", overloaded=" + overloaded +
+                '}';
+    }
+}
@@ -94,7 +94,17 @@ public interface Entity {
     int dataSize();
 
     /**
-     * 释放资源
+     * 保留（引用计数加一；在 onMessage 之外继续使用时，需先保留，用完再释放）
+     * <p>自定义实体如果在 release 时释放资源，需同时实现计数（或直接扩展 EntityDefault）</p>
+     *
+     * @since 2.2.3
+     */
+    default Entity retain() {
+        return this;
+    }
+
+    /**
+     * 释放资源（引用计数减一，归零时释放）
      */
     void release() throws IOException;
 }
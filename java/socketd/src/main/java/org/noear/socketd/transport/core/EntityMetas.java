@@ -11,6 +11,22 @@ public interface EntityMetas {
      * 框架版本号
      */
     String META_SOCKETD_VERSION = "SocketD";
+    /**
+     * 框架头部字典大小（握手时协商）
+     */
+    String META_SOCKETD_HEADER_TABLE_SIZE = "SocketD-Header-Table-Size";
+    /**
+     * 框架支持的压缩算法（握手时协商；多个以逗号隔开，按优先顺序）
+     */
+    String META_SOCKETD_COMPRESS = "SocketD-Compress";
+    /**
+     * 框架紧凑流Id（握手时协商）
+     */
+    String META_SOCKETD_SID_COMPACT = "SocketD-Sid-Compact";
+    /**
+     * 框架分片窗口（握手时协商；有则表示会授信，为 1 时表示本方发送用窗口）
+     */
+    String META_SOCKETD_FRAGMENT_WINDOW = "SocketD-Fragment-Window";
     /**
      * 数据长度
      */
@@ -23,6 +39,14 @@ public interface EntityMetas {
      * 数据分片索引
      */
     String META_DATA_FRAGMENT_IDX = "Data-Fragment-Idx";
+    /**
+     * 数据分片授信（接收方已聚合或落盘的字节数）
+     */
+    String META_DATA_FRAGMENT_CREDIT = "Data-Fragment-Credit";
+    /**
+     * 数据分片授信的是答复（与对方发起的流区分）
+     */
+    String META_DATA_FRAGMENT_REPLY = "Data-Fragment-Reply";
     /**
      * 数据描述之文件名
      */
@@ -36,4 +60,23 @@ public interface EntityMetas {
      * 数据范围长度
      */
     String META_RANGE_SIZE = "Data-Range-Size";
+
+    /**
+     * 数据压缩算法
+     */
+    String META_DATA_COMPRESS = "Data-Compress";
+    /**
+     * 数据压缩前的长度
+     */
+    String META_DATA_ORIGINAL_LENGTH = "Data-Original-Length";
+
+    /**
+     * 告警码（见 Constants.ALARM*）
+     */
+    String META_ALARM_CODE = "Alarm-Code";
+
+    /**
+     * 流授信（订阅方请求的答复数；订阅时带上，表示启用流控）
+     */
+    String META_STREAM_CREDIT = "Stream-Credit";
 }
@@ -0,0 +1,85 @@
+package org.noear.socketd.transport.core;
+
+import org.noear.socketd.SocketD;
+
+/**
+ * 帧特性（握手时根据协议版本协商；编码时放在 flag 的高16位，使帧可自描述）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public interface Features {
+    /**
+     * 无
+     */
+    int None = 0;
+    /**
+     * 元信息二进制编码（协议 1.1+）
+     */
+    int MetaBinary = 1 << 16;
+    /**
+     * 头部字典（事件与元信息以字典序号代替；需要 MetaBinary，且双方配置了字典大小）
+     */
+    int HeaderIndexed = 1 << 17;
+    /**
+     * 紧凑流Id（连接内计数，varint 编码；需要 MetaBinary，且双方都启用）
+     */
+    int SidCompact = 1 << 18;
+
+    /**
+     * 标志掩码（低16位为标志，高16位为特性）
+     */
+    int FLAG_MASK = 0xFFFF;
+
+    /**
+     * 协商（取双方协议版本的低者）
+     *
+     * @param peerVersion 对端协议版本
+     */
+    static int negotiate(String peerVersion) {
+        String version = compareVersion(peerVersion, SocketD.protocolVersion()) < 0 ? peerVersion : SocketD.protocolVersion();
+
+        int features = None;
+        if (compareVersion(version, "1.1") >= 0) {
+            features |= MetaBinary;
+        }
+
+        return features;
+    }
+
+    /**
+     * 比较版本号（例：1.0 < 1.1 < 1.10；空的当作最低版本）
+     */
+    static int compareVersion(String v1, String v2) {
+        if (v1 == null || v1.length() == 0) {
+            return (v2 == null || v2.length() == 0) ? 0 : -1;
+        }
+
+        if (v2 == null || v2.length() == 0) {
+            return 1;
+        }
+
+        String[] ss1 = v1.split("\\.");
+        String[] ss2 = v2.split("\\.");
+        int len = Math.max(ss1.length, ss2.length);
+
+        for (int i = 0; i < len; i++) {
+            int n1 = i < ss1.length ? parseVersionPart(ss1[i]) : 0;
+            int n2 = i < ss2.length ? parseVersionPart(ss2[i]) : 0;
+
+            if (n1 != n2) {
+                return Integer.compare(n1, n2);
+            }
+        }
+
+        return 0;
+    }
+
+    static int parseVersionPart(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
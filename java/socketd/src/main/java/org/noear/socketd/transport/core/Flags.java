@@ -35,6 +35,18 @@ public interface Flags {
      * 告警
      */
     int Alarm = 31;
+    /**
+     * 授信（订阅方请求更多的答复；流控）
+     *
+     * @since 2.2.3
+     */
+    int Credit = 32;
+    /**
+     * 取消（订阅方取消了流，答复方停止答复）
+     *
+     * @since 2.2.3
+     */
+    int Cancel = 33;
     /**
      * 消息
      */
@@ -70,6 +82,10 @@ public interface Flags {
                 return Close;
             case 31:
                 return Alarm;
+            case 32:
+                return Credit;
+            case 33:
+                return Cancel;
             case 40:
                 return Message;
             case 41:
@@ -99,6 +115,10 @@ public interface Flags {
                 return "Close";
             case Alarm:
                 return "Alarm";
+            case Credit:
+                return "Credit";
+            case Cancel:
+                return "Cancel";
             case Message:
                 return "Message";
             case Request:
@@ -0,0 +1,105 @@
+package org.noear.socketd.transport.core;
+
+/**
+ * 冲刷策略（写入帧后，何时把缓冲写出到网络）
+ *
+ * <pre>
+ * 立即：每帧冲刷一次（默认）
+ * 批量：攒够帧数或字节数，或者没有后续等待写的帧时冲刷
+ * 定时：攒够帧数或字节数，或者首个未冲刷的帧等待超过延时时冲刷
+ * 握手、心跳、关闭等控制帧，总是立即冲刷
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class FlushPolicy {
+    /**
+     * 立即
+     */
+    public static final FlushPolicy IMMEDIATE = new FlushPolicy(1, 0, 0L);
+
+    /**
+     * 批量
+     *
+     * @param maxFrames 最多攒的帧数
+     * @param maxBytes  最多攒的数据字节数
+     */
+    public static FlushPolicy batched(int maxFrames, int maxBytes) {
+        return new FlushPolicy(maxFrames, maxBytes, 0L);
+    }
+
+    /**
+     * 定时
+     *
+     * @param delayMillis 最长延时（毫秒）
+     * @param maxFrames   最多攒的帧数
+     * @param maxBytes    最多攒的数据字节数
+     */
+    public static FlushPolicy timed(long delayMillis, int maxFrames, int maxBytes) {
+        if (delayMillis <= 0L) {
+            throw new IllegalArgumentException("The flush delay must be greater than 0");
+        }
+
+        return new FlushPolicy(maxFrames, maxBytes, delayMillis);
+    }
+
+
+    private final int maxFrames;
+    private final int maxBytes;
+    private final long delayMillis;
+
+    private FlushPolicy(int maxFrames, int maxBytes, long delayMillis) {
+        if (maxFrames < 1) {
+            throw new IllegalArgumentException("The flush max frames must be greater than 0");
+        }
+
+        this.maxFrames = maxFrames;
+        this.maxBytes = maxBytes > 0 ? maxBytes : Integer.MAX_VALUE;
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * 是否立即
+     */
+    public boolean isImmediate() {
+        return maxFrames == 1;
+    }
+
+    /**
+     * 是否定时
+     */
+    public boolean isTimed() {
+        return delayMillis > 0L;
+    }
+
+    /**
+     * 最多攒的帧数
+     */
+    public int getMaxFrames() {
+        return maxFrames;
+    }
+
+    /**
+     * 最多攒的数据字节数
+     */
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 最长延时（毫秒）
+     */
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "FlushPolicy{" +
+                "maxFrames=" + maxFrames +
+                ", maxBytes=" + maxBytes +
+                ", delayMillis=" + delayMillis +
+                '}';
+    }
+}
@@ -0,0 +1,127 @@
+package org.noear.socketd.transport.core;
+
+/**
+ * 分片窗口策略（大数据分片发送时，按接收方的授信发送）
+ *
+ * <pre>
+ * 不启用：分片按通道可写的速度一直发（默认）
+ * 启用：接收方每聚合（或落盘）一个分片，就授信同样的字节数；在途字节达到窗口时，发送方等待授信；超时则抛出 SocketdTimeoutException
+ * 窗口只限制在途的，不限制接收方已聚合的内存：内存聚合的由 FragmentHandlerDefault 的聚合上限限制（超过的丢弃并告警），更大的用 FragmentHandlerTempfile
+ * 自动调整：最大窗口大于初始窗口时，按观测到的往返时间（及授信速率）把窗口调到两倍的带宽时延积，不超过最大窗口
+ * 需要双方都支持（握手时协商），对方不支持时照常发送
+ * 只用于可靠有序的传输（tcp、ws、kcp 等）；udp 等授信帧可能丢失的，不启用（照常发送）
+ * 同步发送时由发送线程等待；异步发送时由通道的发送任务等待（会推迟之后排队的异步发送）
+ * 内联处理（在 I/O 线程上）发送的不用窗口（授信帧要由这个线程读取，等待会卡死）
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class FragmentWindowPolicy {
+    /**
+     * 默认的授信等待（毫秒）
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000L;
+
+    /**
+     * 不启用
+     */
+    public static final FragmentWindowPolicy NONE = new FragmentWindowPolicy(0, 0, 0L);
+
+    /**
+     * 固定窗口
+     *
+     * @param window 窗口（字节数）
+     */
+    public static FragmentWindowPolicy fixed(int window) {
+        return of(window, window, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * 自动调整的窗口
+     *
+     * @param initialWindow 初始窗口（字节数）
+     * @param maxWindow     最大窗口（字节数）
+     */
+    public static FragmentWindowPolicy auto(int initialWindow, int maxWindow) {
+        return of(initialWindow, maxWindow, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * 窗口
+     *
+     * @param initialWindow 初始窗口（字节数）
+     * @param maxWindow     最大窗口（字节数；大于初始窗口时自动调整）
+     * @param timeoutMillis 授信的最长等待（毫秒）
+     */
+    public static FragmentWindowPolicy of(int initialWindow, int maxWindow, long timeoutMillis) {
+        if (initialWindow < Constants.MIN_FRAGMENT_SIZE) {
+            throw new IllegalArgumentException("The fragment initialWindow cannot < 1k");
+        }
+
+        if (maxWindow < initialWindow) {
+            throw new IllegalArgumentException("The fragment maxWindow cannot < initialWindow");
+        }
+
+        if (timeoutMillis <= 0L) {
+            throw new IllegalArgumentException("The fragment window timeout must be greater than 0");
+        }
+
+        return new FragmentWindowPolicy(initialWindow, maxWindow, timeoutMillis);
+    }
+
+
+    private final int initialWindow;
+    private final int maxWindow;
+    private final long timeoutMillis;
+
+    private FragmentWindowPolicy(int initialWindow, int maxWindow, long timeoutMillis) {
+        this.initialWindow = initialWindow;
+        this.maxWindow = maxWindow;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 是否启用
+     */
+    public boolean isEnabled() {
+        return initialWindow > 0;
+    }
+
+    /**
+     * 是否自动调整
+     */
+    public boolean isAutoTune() {
+        return maxWindow > initialWindow;
+    }
+
+    /**
+     * 初始窗口（字节数）
+     */
+    public int getInitialWindow() {
+        return initialWindow;
+    }
+
+    /**
+     * 最大窗口（字节数）
+     */
+    public int getMaxWindow() {
+        return maxWindow;
+    }
+
+    /**
+     * 授信的最长等待（毫秒）
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "FragmentWindowPolicy{" +
+                "initialWindow=" + initialWindow +
+                ", maxWindow=" + maxWindow +
+                ", timeoutMillis=" + timeoutMillis +
+                '}';
+    }
+}
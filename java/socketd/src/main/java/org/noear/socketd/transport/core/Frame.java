@@ -9,10 +9,20 @@ package org.noear.socketd.transport.core;
 public class Frame {
     private int flag;
     private MessageInternal message;
+    private int features;
 
     public Frame(int flag, MessageInternal message) {
+        this(flag, message, Features.None);
+    }
+
+    /**
+     * @param features 帧特性（由通道根据握手协商结果设定）
+     * @since 2.2.3
+     */
+    public Frame(int flag, MessageInternal message, int features) {
         this.flag = flag;
         this.message = message;
+        this.features = features;
     }
 
     /**
@@ -29,6 +39,15 @@ public class Frame {
         return message;
     }
 
+    /**
+     * 特性
+     *
+     * @since 2.2.3
+     * */
+    public int features() {
+        return features;
+    }
+
     @Override
     public String toString() {
         return "Frame{" +
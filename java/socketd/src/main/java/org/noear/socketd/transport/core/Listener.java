@@ -38,4 +38,26 @@ public interface Listener {
      * @param error   错误信息
      */
     void onError(Session session, Throwable error);
+
+    /**
+     * 可写状态变化时（待写数据超过高水位，或降回低水位；以 session.isWritable() 为准）
+     *
+     * @param session  会话
+     * @param writable 是否可写
+     * @since 2.2.3
+     */
+    default void onWritabilityChanged(Session session, boolean writable) {
+
+    }
+
+    /**
+     * 是否内联处理（直接在 I/O 线程上调用 onMessage，不能阻塞）
+     *
+     * @param session 会话
+     * @param message 消息
+     * @since 2.2.3
+     */
+    default boolean isInline(Session session, Message message) {
+        return false;
+    }
 }
@@ -33,4 +33,32 @@ public interface Message extends Entity{
      * 获取消息实体（有时需要获取实体）
      */
     Entity entity();
+
+    /**
+     * 获取订阅方还需要的答复数（订阅方启用流控时才有限制，否则为 Long.MAX_VALUE）
+     *
+     * @since 2.2.3
+     */
+    default long demand() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * 是否已取消（订阅方取消了订阅，或者连接断开了；之后的答复会被丢弃）
+     *
+     * @since 2.2.3
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * 取消时（订阅方取消了订阅，或者连接断开了；已取消的，立即异步执行）
+     *
+     * @param handler 处理
+     * @since 2.2.3
+     */
+    default void onCancel(Runnable handler) {
+
+    }
 }
@@ -1,5 +1,7 @@
 package org.noear.socketd.transport.core;
 
+import org.noear.socketd.transport.core.stream.ReplyFlow;
+
 /**
  * 消息内部接口
  *
@@ -11,4 +13,29 @@ public interface MessageInternal extends Message, Reply {
      * 获取标记
      */
     int flag();
-}
\ No newline at end of file
+
+    /**
+     * 获取紧凑流Id（流Id不是紧凑格式时为 -1）
+     *
+     * @since 2.2.3
+     */
+    long sidCompact();
+
+    /**
+     * 获取答复流控（订阅方启用流控时才有）
+     *
+     * @since 2.2.3
+     */
+    default ReplyFlow getReplyFlow() {
+        return null;
+    }
+
+    /**
+     * 设置答复流控
+     *
+     * @since 2.2.3
+     */
+    default void setReplyFlow(ReplyFlow replyFlow) {
+
+    }
+}
@@ -46,4 +46,15 @@ public interface Processor {
      * @param error   错误信息
      */
     void onError(ChannelInternal channel, Throwable error);
+
+    /**
+     * 可写状态变化时
+     *
+     * @param channel  通道
+     * @param writable 是否可写
+     * @since 2.2.3
+     */
+    default void onWritabilityChanged(ChannelInternal channel, boolean writable) {
+
+    }
 }
\ No newline at end of file
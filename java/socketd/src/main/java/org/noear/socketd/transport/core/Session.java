@@ -1,12 +1,14 @@
 package org.noear.socketd.transport.core;
 
 import org.noear.socketd.transport.client.ClientSession;
+import org.noear.socketd.transport.core.compressor.CompressStats;
 import org.noear.socketd.utils.IoConsumer;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 会话
@@ -30,6 +32,15 @@ public interface Session extends ClientSession, Closeable {
      */
     Handshake handshake();
 
+    /**
+     * 获取压缩统计（发送方向；默认为空的统计，即没有压缩过）
+     *
+     * @since 2.2.3
+     */
+    default CompressStats compressStats() {
+        return new CompressStats();
+    }
+
     /**
      * broker player name
      *
@@ -104,6 +115,15 @@ public interface Session extends ClientSession, Closeable {
      */
     boolean isValid();
 
+    /**
+     * 是否可写（待写数据没有超过高水位；不可写时，应暂缓发送。默认总是可写）
+     *
+     * @since 2.2.3
+     */
+    default boolean isWritable() {
+        return true;
+    }
+
     /**
      * 获取会话Id
      */
@@ -200,16 +220,65 @@ public interface Session extends ClientSession, Closeable {
     /**
      * 答复
      *
+     * <pre>
+     * 订阅方启用流控时，授信用完会等待（直到订阅方请求更多、取消或者连接关闭）
+     * 内联处理（在 I/O 线程上）时不等待：授信帧要由这个线程读取，所以改为排队，有授信后再发（发送失败交给通道的异常处理）
+     * </pre>
+     *
      * @param from    来源消息
      * @param content 内容
      */
     void reply(Message from, Entity content) throws IOException;
 
     /**
-     * 答复并结束（即最后一次答复）
+     * 答复并结束（即最后一次答复；内联处理时，与 reply 一样不等待授信）
      *
      * @param from    来源消息
      * @param content 内容
      */
     void replyEnd(Message from, Entity content) throws IOException;
-}
\ No newline at end of file
+
+    /**
+     * 异步答复（排队写入，不阻塞调用方；写入后完成）
+     *
+     * <p>默认为同步答复，答复后返回已完成的结果</p>
+     *
+     * @param from    来源消息
+     * @param content 内容
+     * @since 2.2.3
+     */
+    default CompletableFuture<Void> replyAsync(Message from, Entity content) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        try {
+            reply(from, content);
+            future.complete(null);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * 异步答复并结束（即最后一次答复）
+     *
+     * <p>默认为同步答复，答复后返回已完成的结果</p>
+     *
+     * @param from    来源消息
+     * @param content 内容
+     * @since 2.2.3
+     */
+    default CompletableFuture<Void> replyEndAsync(Message from, Entity content) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        try {
+            replyEnd(from, content);
+            future.complete(null);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+}
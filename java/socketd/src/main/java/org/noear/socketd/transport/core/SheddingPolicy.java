@@ -0,0 +1,123 @@
+package org.noear.socketd.transport.core;
+
+/**
+ * 削峰策略（派发队列过载时，拒绝新收到的消息；请求与订阅会立即答复 "过载" 告警，方便客户端换个节点重试）
+ *
+ * <pre>
+ * 容量：排队（已收到还没开始处理）的消息数达到容量，直接拒绝（0 表示不限）
+ * 逗留时间（CoDel）：按排队时间判断，而不只看队列长度
+ * 一个间隔内的最小逗留时间都超过目标延时，说明队列是积压而不是突发，进入过载状态
+ * 过载时，逗留超过目标延时的消息出队时直接拒绝；不过载时，逗留超过一个间隔才拒绝
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class SheddingPolicy {
+    /**
+     * 不削峰（默认；队列不限长度）
+     */
+    public static final SheddingPolicy NONE = new SheddingPolicy(0, 0, 0);
+
+    /**
+     * 逗留时间削峰（目标延时 5ms，间隔 100ms）
+     */
+    public static final SheddingPolicy CODEL = new SheddingPolicy(0, 5, 100);
+
+    /**
+     * 按容量削峰
+     *
+     * @param capacity 容量（排队的消息数）
+     */
+    public static SheddingPolicy bounded(int capacity) {
+        return new SheddingPolicy(capacity, 0, 0);
+    }
+
+    /**
+     * 按逗留时间削峰
+     *
+     * @param targetDelay 目标延时（毫秒）
+     * @param interval    间隔（毫秒）
+     */
+    public static SheddingPolicy codel(long targetDelay, long interval) {
+        return new SheddingPolicy(0, targetDelay, interval);
+    }
+
+    /**
+     * 按容量及逗留时间削峰
+     *
+     * @param capacity    容量（排队的消息数）
+     * @param targetDelay 目标延时（毫秒）
+     * @param interval    间隔（毫秒）
+     */
+    public static SheddingPolicy of(int capacity, long targetDelay, long interval) {
+        return new SheddingPolicy(capacity, targetDelay, interval);
+    }
+
+
+    private final int capacity;
+    private final long targetDelay;
+    private final long interval;
+
+    private SheddingPolicy(int capacity, long targetDelay, long interval) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The shedding capacity cannot be less than 0");
+        }
+
+        if (targetDelay < 0 || interval < 0) {
+            throw new IllegalArgumentException("The shedding targetDelay and interval cannot be less than 0");
+        }
+
+        if (targetDelay > 0 && interval < targetDelay) {
+            throw new IllegalArgumentException("The shedding interval cannot be less than targetDelay");
+        }
+
+        this.capacity = capacity;
+        this.targetDelay = targetDelay;
+        this.interval = interval;
+    }
+
+    /**
+     * 是否启用
+     */
+    public boolean isEnabled() {
+        return capacity > 0 || isCodel();
+    }
+
+    /**
+     * 是否按逗留时间削峰
+     */
+    public boolean isCodel() {
+        return targetDelay > 0;
+    }
+
+    /**
+     * 容量（0 表示不限）
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 目标延时（毫秒）
+     */
+    public long getTargetDelay() {
+        return targetDelay;
+    }
+
+    /**
+     * 间隔（毫秒）
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    @Override
+    public String toString() {
+        return "SheddingPolicy{" +
+                "capacity=" + capacity +
+                ", targetDelay=" + targetDelay +
+                ", interval=" + interval +
+                '}';
+    }
+}
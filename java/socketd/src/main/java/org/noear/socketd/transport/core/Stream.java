@@ -33,4 +33,13 @@ public interface Stream {
      * 异常发生时
      */
     Stream thenError(Consumer<Throwable> onError);
+
+    /**
+     * 取消（不再接收答复，并通知答复方停止答复；默认不支持取消，什么也不做）
+     *
+     * @since 2.2.3
+     */
+    default void cancel() {
+
+    }
 }
@@ -1,5 +1,7 @@
 package org.noear.socketd.transport.core;
 
+import java.util.concurrent.Executor;
+
 /**
  * 流内部接口
  *
@@ -7,6 +9,16 @@ package org.noear.socketd.transport.core;
  * @since 2.1
  */
 public interface StreamInternal extends Stream {
+    /**
+     * 设置通道（注册时；取消时，通过它通知答复方。默认不需要）
+     *
+     * @param channel 通道
+     * @since 2.2.3
+     */
+    default void setChannel(Channel channel) {
+
+    }
+
     /**
      * 保险开始（避免永久没有回调，造成内存不能释放）
      *
@@ -28,6 +40,20 @@ public interface StreamInternal extends Stream {
      */
     void onAccept(MessageInternal reply, Channel channel);
 
+    /**
+     * 异步接收时（按到达顺序排队，由一个任务把排队的答复依次交付）
+     *
+     * <p>默认每个答复提交一个任务（与之前一样，不保证顺序）</p>
+     *
+     * @param reply    答复
+     * @param channel  通道
+     * @param executor 执行器
+     * @since 2.2.3
+     */
+    default void onAcceptAsync(MessageInternal reply, Channel channel, Executor executor) {
+        executor.execute(() -> onAccept(reply, channel));
+    }
+
     /**
      * 异常时
      *
@@ -28,4 +28,45 @@ public interface StreamManger {
      * @param sid 流Id
      */
     void removeStream(String sid);
+
+    /**
+     * 添加流（按消息）
+     *
+     * @param message 消息
+     * @param stream  流
+     * @since 2.2.3
+     */
+    default void addStream(MessageInternal message, StreamInternal stream) {
+        addStream(message.sid(), stream);
+    }
+
+    /**
+     * 获取流（按消息）
+     *
+     * @param message 消息
+     * @since 2.2.3
+     */
+    default StreamInternal getStream(MessageInternal message) {
+        return getStream(message.sid());
+    }
+
+    /**
+     * 移除流（按消息）
+     *
+     * @param message 消息
+     * @since 2.2.3
+     */
+    default void removeStream(MessageInternal message) {
+        removeStream(message.sid());
+    }
+
+    /**
+     * 关闭（移除所有的流，并异常通知；之后添加的流也直接异常通知）
+     *
+     * @param error 异常
+     * @since 2.2.3
+     */
+    default void close(Throwable error) {
+
+    }
 }
@@ -1,8 +1,11 @@
 package org.noear.socketd.transport.core.codec;
 
 import org.noear.socketd.transport.core.CodecReader;
+import org.noear.socketd.utils.RunnableEx;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 /**
  * 缓冲读 ByteBuffer 适配
@@ -12,9 +15,36 @@ import java.nio.ByteBuffer;
  */
 public class ByteBufferCodecReader implements CodecReader {
     private ByteBuffer buffer;
+    //是否为帧独占
+    private final boolean exclusive;
+    //缓冲释放器（独占时）
+    private final RunnableEx<IOException> bufferReleaser;
 
     public ByteBufferCodecReader(ByteBuffer buffer) {
         this.buffer = buffer;
+        this.exclusive = false;
+        this.bufferReleaser = null;
+    }
+
+    /**
+     * 帧独占的缓冲（数据总是切片，即缓冲直接作为实体数据）
+     *
+     * @param buffer         缓冲
+     * @param bufferReleaser 缓冲释放器（实体释放时执行；没有则为 null）
+     * @since 2.2.3
+     */
+    public ByteBufferCodecReader(ByteBuffer buffer, RunnableEx<IOException> bufferReleaser) {
+        this.buffer = buffer;
+        this.exclusive = true;
+        this.bufferReleaser = bufferReleaser;
+    }
+
+    /**
+     * 是否为帧独占
+     */
+    @Override
+    public boolean isExclusive() {
+        return exclusive;
     }
 
     /**
@@ -33,6 +63,96 @@ public class ByteBufferCodecReader implements CodecReader {
         buffer.get(dst, offset, length);
     }
 
+    /**
+     * 获取字符串
+     */
+    @Override
+    public String getString(int length, Charset charset) {
+        String str;
+        if (buffer.hasArray()) {
+            str = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, charset);
+        } else {
+            byte[] tmp = new byte[length];
+            buffer.duplicate().get(tmp);
+            str = new String(tmp, charset);
+        }
+
+        buffer.position(buffer.position() + length);
+        return str;
+    }
+
+    /**
+     * 是否支持查找
+     */
+    @Override
+    public boolean isSearchable() {
+        return true;
+    }
+
+    /**
+     * 查看 byte（不移动位置）
+     */
+    @Override
+    public byte peekByte(int offset) {
+        return buffer.get(buffer.position() + offset);
+    }
+
+    /**
+     * 查找 byte（从当前位置开始，批量扫描）
+     */
+    @Override
+    public int indexOf(byte value) {
+        int start = buffer.position();
+        int end = buffer.limit();
+
+        if (buffer.hasArray()) {
+            //堆缓冲，直接扫描数组
+            byte[] array = buffer.array();
+            int offset = buffer.arrayOffset();
+            for (int i = start + offset, e = end + offset; i < e; i++) {
+                if (array[i] == value) {
+                    return i - offset - start;
+                }
+            }
+        } else {
+            //直接缓冲，绝对位置读取（不移动位置）
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) == value) {
+                    return i - start;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * 跳过一组 byte
+     */
+    @Override
+    public void skipBytes(int length) {
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * 获取一段只读切片（共享内容，不复制）
+     */
+    @Override
+    public ByteBuffer getSlice(int length) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice.asReadOnlyBuffer();
+    }
+
+    /**
+     * 保留缓冲（堆缓冲由 gc 回收，不需要释放；独占时，由释放器处理）
+     */
+    @Override
+    public RunnableEx<IOException> retainBuffer() {
+        return bufferReleaser;
+    }
+
     /**
      * 获取 int
      */
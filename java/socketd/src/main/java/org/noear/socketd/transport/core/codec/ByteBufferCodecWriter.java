@@ -26,6 +26,14 @@ public class ByteBufferCodecWriter implements CodecWriter {
         target.put(src);
     }
 
+    /**
+     * 推入一组 byte
+     */
+    @Override
+    public void putBytes(ByteBuffer src) {
+        target.put(src.duplicate());
+    }
+
     /**
      * 推入 int
      */
@@ -1,11 +1,16 @@
 package org.noear.socketd.transport.core.codec;
 
+import org.noear.socketd.exception.SocketdCodecException;
 import org.noear.socketd.transport.core.*;
 import org.noear.socketd.transport.core.entity.EntityDefault;
 import org.noear.socketd.transport.core.internal.MessageBuilder;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -26,6 +31,25 @@ public class CodecDefault implements Codec {
      */
     @Override
     public <T extends CodecWriter> T write(Frame frame, Function<Integer, T> targetFactory) throws IOException {
+        return write(null, frame, targetFactory);
+    }
+
+    /**
+     * 编码（带通道）
+     */
+    @Override
+    public <T extends CodecWriter> T write(ChannelInternal channel, Frame frame, Function<Integer, T> targetFactory) throws IOException {
+        int features = frame.features();
+        HeaderTable headerTable = null;
+        if ((features & Features.HeaderIndexed) != 0) {
+            headerTable = (channel == null ? null : channel.getEncodeHeaderTable());
+
+            if (headerTable == null) {
+                //没有字典时，不用字典（帧是自描述的）
+                features &= ~Features.HeaderIndexed;
+            }
+        }
+
         if (frame.message() == null) {
             //length (len[int] + flag[int])
             int frameSize = Integer.BYTES + Integer.BYTES;
@@ -35,48 +59,83 @@ public class CodecDefault implements Codec {
             target.putInt(frameSize);
 
             //flag
-            target.putInt(frame.flag());
+            target.putInt(frame.flag() | features);
             target.flush();
 
             return target;
         } else {
-            //sid
-            byte[] sidB = frame.message().sid().getBytes(config.getCharset());
+            //sid（紧凑流Id时，为 varint(sid + 1)；不是紧凑格式的，为 varint(0) + 字符串）
+            boolean sidCompact = (features & Features.SidCompact) != 0;
+            long sidNum = sidCompact ? frame.message().sidCompact() : -1;
+            byte[] sidB;
+            if (sidNum >= 0) {
+                sidB = varLongBytes(sidNum + 1);
+            } else if (sidCompact) {
+                byte[] tmp = frame.message().sid().getBytes(config.getCharset());
+                sidB = new byte[tmp.length + 1];
+                System.arraycopy(tmp, 0, sidB, 1, tmp.length);
+            } else {
+                sidB = frame.message().sid().getBytes(config.getCharset());
+            }
             //event
             byte[] eventB = frame.message().event().getBytes(config.getCharset());
-            //metaString
-            byte[] metaStringB = frame.message().metaString().getBytes(config.getCharset());
-
-            //length (len[int] + flag[int] + sid + event + metaString + data + \n*3)
-            int frameSize = Integer.BYTES + Integer.BYTES + sidB.length + eventB.length + metaStringB.length + frame.message().dataSize() + Short.BYTES * 3;
 
             Asserts.assertSize("sid", sidB.length, Constants.MAX_SIZE_SID);
             Asserts.assertSize("event", eventB.length, Constants.MAX_SIZE_EVENT);
-            Asserts.assertSize("metaString", metaStringB.length, Constants.MAX_SIZE_META_STRING);
             Asserts.assertSize("data", frame.message().dataSize(), Constants.MAX_SIZE_DATA);
 
+            if (headerTable != null) {
+                //先检查元信息大小（确保超界异常时，字典还未修改）
+                assertMetaBinarySize(frame.message().metaMap());
+
+                //event（字典编码，不需要换行符）
+                ByteArrayOutputStream eventOut = new ByteArrayOutputStream(eventB.length + 1);
+                writeString(eventOut, frame.message().event(), eventB, headerTable);
+                eventB = eventOut.toByteArray();
+            }
+
+            //metaString（协商了二进制元信息时，为 varint 长度前缀的键值对）
+            byte[] metaStringB;
+            boolean metaBinary = (features & Features.MetaBinary) != 0;
+            if (metaBinary) {
+                metaStringB = encodeMetaBinary(frame.message(), headerTable);
+            } else {
+                metaStringB = frame.message().metaString().getBytes(config.getCharset());
+                Asserts.assertSize("metaString", metaStringB.length, Constants.MAX_SIZE_META_STRING);
+            }
+
+            //length (len[int] + flag[int] + sid + event + metaString + data + \n*3)
+            int delimiters = (sidNum >= 0 ? 0 : 1) + (headerTable == null ? 1 : 0) + (metaBinary ? 0 : 1);
+            int frameSize = Integer.BYTES + Integer.BYTES + sidB.length + eventB.length + metaStringB.length + frame.message().dataSize() + Short.BYTES * delimiters;
+
             T target = targetFactory.apply(frameSize);
 
             //长度
             target.putInt(frameSize);
 
             //flag
-            target.putInt(frame.flag());
+            target.putInt(frame.flag() | features);
 
             //sid
             target.putBytes(sidB);
-            target.putChar('\n');
+            if (sidNum < 0) {
+                target.putChar('\n');
+            }
 
             //event
             target.putBytes(eventB);
-            target.putChar('\n');
+            if (headerTable == null) {
+                target.putChar('\n');
+            }
 
             //metaString
             target.putBytes(metaStringB);
-            target.putChar('\n');
+            if (metaBinary == false) {
+                target.putChar('\n');
+            }
 
-            //data
-            target.putBytes(frame.message().dataAsBytes());
+            //data（直接传递数据缓冲，由 writer 决定复制或聚合发送）
+            target.putBytes(dataBuffer(frame.message()));
 
             target.flush();
 
@@ -84,76 +143,194 @@ public class CodecDefault implements Codec {
         }
     }
 
+    /**
+     * 获取数据缓冲（共享内容的视图，不影响实体数据的位置）
+     */
+    protected ByteBuffer dataBuffer(Message message) {
+        ByteBuffer data = message.data().duplicate();
+        data.position(0);
+        data.limit(message.dataSize());
+        return data;
+    }
+
     /**
      * 解码
      */
     @Override
     public Frame read(CodecReader buffer) {
+        return read(null, buffer);
+    }
+
+    /**
+     * 解码（带通道）
+     */
+    @Override
+    public Frame read(ChannelInternal channel, CodecReader buffer) {
         int frameSize = buffer.getInt();
 
         if (frameSize > (buffer.remaining() + Integer.BYTES)) {
             return null;
         }
 
-        int flag = buffer.getInt();
+        int flagAndFeatures = buffer.getInt();
+        int flag = flagAndFeatures & Features.FLAG_MASK;
+        int features = flagAndFeatures & ~Features.FLAG_MASK;
 
         if (frameSize == 8) {
             //len[int] + flag[int]
-            return new Frame(Flags.of(flag), null);
+            return new Frame(Flags.of(flag), null, features);
         } else {
-
-            int metaBufSize = Math.min(Constants.MAX_SIZE_META_STRING, buffer.remaining());
-
             //1.解码 sid and event
-            ByteBuffer buf = ByteBuffer.allocate(metaBufSize);
-
             //sid
-            String sid = decodeString(buffer, buf, Constants.MAX_SIZE_SID);
+            String sid = null;
+            long sidNum = -1;
+            if ((features & Features.SidCompact) != 0) {
+                sidNum = readVarLong(buffer) - 1;
+            }
+
+            if (sidNum < 0) {
+                sid = decodeString(buffer, Constants.MAX_SIZE_SID);
+            }
 
             //event
-            String event = decodeString(buffer, buf, Constants.MAX_SIZE_EVENT);
+            String event;
+            HeaderTable headerTable = null;
+            if ((features & Features.HeaderIndexed) != 0) {
+                headerTable = (channel == null ? null : channel.getDecodeHeaderTable());
+
+                if (headerTable == null) {
+                    throw new SocketdCodecException("Header table is not negotiated, the frame cannot be decoded");
+                }
+
+                event = readString(buffer, headerTable);
+            } else {
+                event = decodeString(buffer, Constants.MAX_SIZE_EVENT);
+            }
 
             //metaString
-            String metaString = decodeString(buffer, buf, Constants.MAX_SIZE_META_STRING);
+            String metaString = null;
+            Map<String, String> metaMap = null;
+            if ((features & Features.MetaBinary) != 0) {
+                metaMap = decodeMetaBinary(buffer, headerTable);
+            } else {
+                metaString = decodeString(buffer, Constants.MAX_SIZE_META_STRING);
+            }
 
             //2.解码 body
             int dataRealSize = frameSize - buffer.position();
-            byte[] data;
-            if (dataRealSize > Constants.MAX_SIZE_DATA) {
-                //超界了，空读。必须读，不然协议流会坏掉
-                data = new byte[Constants.MAX_SIZE_DATA];
-                buffer.getBytes(data, 0, Constants.MAX_SIZE_DATA);
-                for (int i = dataRealSize - Constants.MAX_SIZE_DATA; i > 0; i--) {
-                    buffer.getByte();
-                }
+            EntityDefault entity = new EntityDefault();
+            if (dataRealSize <= Constants.MAX_SIZE_DATA && (buffer.isExclusive() || isSliceable(flag))) {
+                //切片（只读视图，不复制；实体释放时，释放底层缓冲）
+                entity.dataSet(buffer.getSlice(dataRealSize), buffer.retainBuffer());
             } else {
-                data = new byte[dataRealSize];
-                if (dataRealSize > 0) {
-                    buffer.getBytes(data, 0, dataRealSize);
-                }
+                entity.dataSet(decodeData(buffer, dataRealSize));
             }
 
             //先 data , 后 metaString (避免 data 时修改元信息)
-            MessageInternal message = new MessageBuilder()
+            if (metaMap != null) {
+                entity.metaMapSet(metaMap);
+            } else {
+                entity.metaStringSet(metaString);
+            }
+
+            MessageBuilder messageBuilder = new MessageBuilder()
                     .flag(Flags.of(flag))
-                    .sid(sid)
                     .event(event)
-                    .entity(new EntityDefault().dataSet(data).metaStringSet(metaString))
-                    .build();
+                    .entity(entity);
 
-            return new Frame(message.flag(), message);
+            if (sid == null) {
+                messageBuilder.sid(sidNum);
+            } else {
+                messageBuilder.sid(sid);
+            }
+
+            MessageInternal message = messageBuilder.build();
+
+            return new Frame(message.flag(), message, features);
         }
     }
 
+    /**
+     * 是否可切片解码（只有交给 onMessage 的消息，才有确定的释放时机）
+     */
+    protected boolean isSliceable(int flag) {
+        if (config.isSliceDecode()) {
+            return flag == Flags.Message || flag == Flags.Request || flag == Flags.Subscribe;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * 解码数据（复制）
+     */
+    protected byte[] decodeData(CodecReader buffer, int dataRealSize) {
+        byte[] data;
+        if (dataRealSize > Constants.MAX_SIZE_DATA) {
+            //超界了，空读。必须读，不然协议流会坏掉
+            data = new byte[Constants.MAX_SIZE_DATA];
+            buffer.getBytes(data, 0, Constants.MAX_SIZE_DATA);
+            buffer.skipBytes(dataRealSize - Constants.MAX_SIZE_DATA);
+        } else {
+            data = new byte[dataRealSize];
+            if (dataRealSize > 0) {
+                buffer.getBytes(data, 0, dataRealSize);
+            }
+        }
+
+        return data;
+    }
+
     /**
      * 解码时，以换行符为间隔
      *
      * @param reader 读取器
-     * @param buf    复用缓冲
      * @param maxLen 最大长度
      */
-    protected String decodeString(CodecReader reader, ByteBuffer buf, int maxLen) {
-        buf.clear();
+    protected String decodeString(CodecReader reader, int maxLen) {
+        if (reader.isSearchable() == false) {
+            return decodeStringByByte(reader, maxLen);
+        }
+
+        //批量查找换行符（10:'\n'）
+        int idx = reader.indexOf((byte) 10);
+
+        if (idx < 0) {
+            throw new SocketdCodecException("Missing delimiter, the frame is incomplete");
+        }
+
+        //换行是以 char 写入的（0,10），去掉前面的 0
+        int len = idx;
+        if (len > 0 && reader.peekByte(len - 1) == 0) {
+            len--;
+        }
+
+        if (maxLen > 0 && maxLen < len) {
+            //超界了，空读。必须读，不然协议流会坏掉
+            len = maxLen;
+        }
+
+        String str;
+        if (len < 1) {
+            str = "";
+        } else {
+            str = reader.getString(len, config.getCharset());
+        }
+
+        //跳过剩余部分与换行符
+        reader.skipBytes(idx + 1 - len);
+
+        return str;
+    }
+
+    /**
+     * 解码时，以换行符为间隔（按 byte 逐个读取；用于不支持查找的读取器）
+     *
+     * @param reader 读取器
+     * @param maxLen 最大长度
+     */
+    protected String decodeStringByByte(CodecReader reader, int maxLen) {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(64);
 
         while (true) {
             byte c = reader.getByte();
@@ -162,20 +339,307 @@ public class CodecDefault implements Codec {
                 break;
             }
 
-            if (maxLen > 0 && maxLen <= buf.position()) {
+            if (maxLen > 0 && maxLen <= buf.size()) {
                 //超界了，空读。必须读，不然协议流会坏掉
             } else {
-                if (c != 0) { //32:' '
-                    buf.put(c);
+                if (c != 0) {
+                    buf.write(c);
                 }
             }
         }
 
-        buf.flip();
-        if (buf.limit() < 1) {
+        if (buf.size() < 1) {
             return "";
         }
 
-        return new String(buf.array(), 0, buf.limit(), config.getCharset());
+        return new String(buf.toByteArray(), config.getCharset());
+    }
+
+    /**
+     * 元信息常用名（二进制编码时以序号代替；只能追加，不能调整顺序）
+     */
+    private static final String[] META_KEYS = {
+            null,
+            EntityMetas.META_SOCKETD_VERSION,
+            EntityMetas.META_DATA_LENGTH,
+            EntityMetas.META_DATA_TYPE,
+            EntityMetas.META_DATA_FRAGMENT_IDX,
+            EntityMetas.META_DATA_DISPOSITION_FILENAME,
+            EntityMetas.META_RANGE_START,
+            EntityMetas.META_RANGE_SIZE,
+            "@",
+            EntityMetas.META_DATA_COMPRESS,
+            EntityMetas.META_DATA_ORIGINAL_LENGTH};
+
+    private static final Map<String, Integer> META_KEY_INDEXES = new HashMap<>();
+
+    static {
+        for (int i = 1; i < META_KEYS.length; i++) {
+            META_KEY_INDEXES.put(META_KEYS[i], i);
+        }
+    }
+
+    /**
+     * 编码二进制元信息
+     *
+     * <pre>
+     * varint(size) + [varint(keyIdx << 1 | isNumber) + key? + value]*
+     * key:   keyIdx 为 0 时，为字符串
+     * value: isNumber 时，为 varint；否则为字符串
+     * 字符串：varint(len) + bytes；有头部字典时，见 writeString
+     * </pre>
+     *
+     * @param headerTable 头部字典（可为 null）
+     */
+    protected byte[] encodeMetaBinary(Message message, HeaderTable headerTable) throws IOException {
+        Map<String, String> metaMap = message.metaMap();
+        if (metaMap.size() == 0) {
+            return new byte[]{0};
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(metaMap.size() * 16);
+        for (Map.Entry<String, String> kv : metaMap.entrySet()) {
+            Integer keyIdx = META_KEY_INDEXES.get(kv.getKey());
+            long number = parseNumber(kv.getValue());
+            int isNumber = number < 0 ? 0 : 1;
+
+            if (keyIdx == null) {
+                writeVarLong(body, isNumber);
+                writeString(body, kv.getKey(), null, headerTable);
+            } else {
+                writeVarLong(body, (keyIdx << 1) | isNumber);
+            }
+
+            if (isNumber > 0) {
+                writeVarLong(body, number);
+            } else {
+                writeString(body, kv.getValue(), null, headerTable);
+            }
+        }
+
+        Asserts.assertSize("metaString", body.size(), Constants.MAX_SIZE_META_STRING);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.size() + 2);
+        writeVarLong(out, body.size());
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 检查二进制元信息大小（按不用字典时的大小，即上限）
+     */
+    protected void assertMetaBinarySize(Map<String, String> metaMap) {
+        //先粗估（每字符最多4字节），超了再精确计算
+        int size = 0;
+        for (Map.Entry<String, String> kv : metaMap.entrySet()) {
+            size += (kv.getKey().length() + kv.getValue().length()) * 4 + 20;
+        }
+
+        if (size <= Constants.MAX_SIZE_META_STRING) {
+            return;
+        }
+
+        size = 0;
+        for (Map.Entry<String, String> kv : metaMap.entrySet()) {
+            int keyLen = kv.getKey().getBytes(config.getCharset()).length;
+            int valLen = kv.getValue().getBytes(config.getCharset()).length;
+            size += keyLen + valLen + 12;
+        }
+
+        Asserts.assertSize("metaString", size, Constants.MAX_SIZE_META_STRING);
+    }
+
+    /**
+     * 解码二进制元信息
+     *
+     * @param headerTable 头部字典（可为 null）
+     */
+    protected Map<String, String> decodeMetaBinary(CodecReader buffer, HeaderTable headerTable) {
+        int size = (int) readVarLong(buffer);
+        Map<String, String> metaMap = new ConcurrentHashMap<>();
+
+        if (size > Constants.MAX_SIZE_META_STRING) {
+            if (headerTable != null) {
+                //跳过会导致字典不同步
+                throw new SocketdCodecException("Meta binary is too large: " + size);
+            }
+
+            //超界了，空读。必须读，不然协议流会坏掉
+            buffer.skipBytes(size);
+            return metaMap;
+        }
+
+        int end = buffer.position() + size;
+        while (buffer.position() < end) {
+            int head = (int) readVarLong(buffer);
+            int keyIdx = head >>> 1;
+
+            String key;
+            if (keyIdx == 0) {
+                key = readString(buffer, headerTable);
+            } else if (keyIdx < META_KEYS.length) {
+                key = META_KEYS[keyIdx];
+            } else {
+                throw new SocketdCodecException("Unknown meta key index: " + keyIdx);
+            }
+
+            String val;
+            if ((head & 1) == 1) {
+                val = Long.toString(readVarLong(buffer));
+            } else {
+                val = readString(buffer, headerTable);
+            }
+
+            metaMap.put(key, val);
+        }
+
+        if (buffer.position() != end) {
+            throw new SocketdCodecException("Invalid meta binary, the frame is corrupted");
+        }
+
+        return metaMap;
+    }
+
+    /**
+     * 写入字符串
+     *
+     * <pre>
+     * 无字典：varint(len) + bytes
+     * 有字典：varint(idx << 2 | 1)，已在字典中
+     *        varint(len << 2 | 2) + bytes，添加到字典
+     *        varint(len << 2) + bytes，不添加
+     * </pre>
+     *
+     * @param strB 字符串字节（可为 null）
+     */
+    protected void writeString(ByteArrayOutputStream out, String str, byte[] strB, HeaderTable headerTable) {
+        if (headerTable == null) {
+            if (strB == null) {
+                strB = str.getBytes(config.getCharset());
+            }
+
+            writeVarLong(out, strB.length);
+            out.write(strB, 0, strB.length);
+            return;
+        }
+
+        int idx = headerTable.find(str);
+        if (idx >= 0) {
+            writeVarLong(out, ((long) idx << 2) | 1);
+            return;
+        }
+
+        if (strB == null) {
+            strB = str.getBytes(config.getCharset());
+        }
+
+        if (headerTable.isAddable(str)) {
+            writeVarLong(out, ((long) strB.length << 2) | 2);
+            headerTable.add(str);
+        } else {
+            writeVarLong(out, (long) strB.length << 2);
+        }
+
+        out.write(strB, 0, strB.length);
+    }
+
+    /**
+     * 读取字符串（与 writeString 对应）
+     */
+    protected String readString(CodecReader buffer, HeaderTable headerTable) {
+        long head = readVarLong(buffer);
+
+        if (headerTable == null) {
+            return readStringBytes(buffer, head);
+        }
+
+        switch ((int) (head & 3)) {
+            case 1:
+                return headerTable.get((int) (head >>> 2));
+            case 2: {
+                String str = readStringBytes(buffer, head >>> 2);
+                headerTable.add(str);
+                return str;
+            }
+            case 0:
+                return readStringBytes(buffer, head >>> 2);
+            default:
+                throw new SocketdCodecException("Invalid header string, the frame is corrupted");
+        }
+    }
+
+    private String readStringBytes(CodecReader buffer, long len) {
+        if (len < 0 || len > buffer.remaining()) {
+            throw new SocketdCodecException("Invalid meta binary, the frame is corrupted");
+        }
+
+        return len == 0 ? "" : buffer.getString((int) len, config.getCharset());
+    }
+
+    /**
+     * 解析为数字（只接受无前导零的非负整数，以保证还原后一致；否则返回 -1）
+     */
+    protected static long parseNumber(String val) {
+        int len = val.length();
+        if (len == 0 || len > 18 || (len > 1 && val.charAt(0) == '0')) {
+            return -1;
+        }
+
+        long num = 0;
+        for (int i = 0; i < len; i++) {
+            char c = val.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            num = num * 10 + (c - '0');
+        }
+
+        return num;
+    }
+
+    /**
+     * 写入 varint（无符号，每字节7位，高位为继续标记）
+     */
+    protected static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * 转为 varint 字节
+     */
+    protected static byte[] varLongBytes(long value) {
+        int size = 1;
+        for (long tmp = value >>> 7; tmp != 0; tmp >>>= 7) {
+            size++;
+        }
+
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size - 1; i++) {
+            bytes[i] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size - 1] = (byte) value;
+
+        return bytes;
+    }
+
+    /**
+     * 读取 varint
+     */
+    protected static long readVarLong(CodecReader buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.getByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new SocketdCodecException("Invalid varint, the frame is corrupted");
     }
-}
\ No newline at end of file
+}
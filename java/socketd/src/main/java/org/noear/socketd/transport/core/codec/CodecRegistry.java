@@ -0,0 +1,97 @@
+package org.noear.socketd.transport.core.codec;
+
+import org.noear.socketd.transport.core.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 编解码器注册表（按协议版本注册；握手协商版本后，每个通道用各自的编解码器）
+ *
+ * <pre>
+ * 握手帧（Connect, Connack）、握手之前的帧、没有通道的传输（例如 udp），都用基础编解码器（兼容 1.0 文本格式）
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class CodecRegistry implements Codec {
+    //基础编解码器
+    private final Codec base;
+    //编解码器字典（按协议版本排序）
+    private final TreeMap<String, Codec> codecs = new TreeMap<>(Features::compareVersion);
+
+    public CodecRegistry(Codec base, String baseVersion) {
+        this.base = base;
+        this.codecs.put(baseVersion, base);
+    }
+
+    /**
+     * 注册
+     *
+     * @param protocolVersion 协议版本
+     * @param codec           编解码器
+     */
+    public synchronized void register(String protocolVersion, Codec codec) {
+        codecs.put(protocolVersion, codec);
+    }
+
+    /**
+     * 获取（取不高于协议版本的最高注册版本；都高时，用基础编解码器）
+     *
+     * @param protocolVersion 协议版本
+     */
+    public synchronized Codec get(String protocolVersion) {
+        Map.Entry<String, Codec> entry = codecs.floorEntry(protocolVersion);
+        if (entry == null) {
+            return base;
+        } else {
+            return entry.getValue();
+        }
+    }
+
+    /**
+     * 最高协议版本
+     */
+    public synchronized String maxVersion() {
+        return codecs.lastKey();
+    }
+
+    /**
+     * 选择（握手帧或者握手之前，用基础编解码器）
+     */
+    protected Codec select(ChannelInternal channel, int flag) {
+        if (channel == null || flag == Flags.Connect || flag == Flags.Connack) {
+            return base;
+        }
+
+        Codec codec = channel.getCodec();
+        if (codec == null) {
+            return base;
+        } else {
+            return codec;
+        }
+    }
+
+    @Override
+    public Frame read(CodecReader buffer) {
+        return base.read(buffer);
+    }
+
+    @Override
+    public Frame read(ChannelInternal channel, CodecReader buffer) {
+        return select(channel, Flags.Unknown).read(channel, buffer);
+    }
+
+    @Override
+    public <T extends CodecWriter> T write(Frame frame, Function<Integer, T> targetFactory) throws IOException {
+        return base.write(frame, targetFactory);
+    }
+
+    @Override
+    public <T extends CodecWriter> T write(ChannelInternal channel, Frame frame, Function<Integer, T> targetFactory) throws IOException {
+        return select(channel, frame.flag()).write(channel, frame, targetFactory);
+    }
+}
@@ -0,0 +1,146 @@
+package org.noear.socketd.transport.core.codec;
+
+import org.noear.socketd.exception.SocketdCodecException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 头部字典（参考 HPACK 动态表；每个连接每个方向一个，编解码两端按相同顺序增删）
+ *
+ * <pre>
+ * 条目大小 = 字符数 + 32；超出容量时，先淘汰最旧的条目
+ * 相对序号：0 为最新的条目
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class HeaderTable {
+    /**
+     * 条目额外开销
+     */
+    public static final int ENTRY_OVERHEAD = 32;
+
+    //最大容量
+    private final int maxSize;
+    //条目环（oldest -> newest）
+    private String[] entries = new String[16];
+    private int head;
+    private int count;
+    //当前大小
+    private int size;
+    //累计插入数（用于计算绝对序号）
+    private long insertCount;
+    //查找索引（只有编码端需要）
+    private final Map<String, Long> indexMap;
+
+    /**
+     * @param maxSize   最大容量
+     * @param forEncode 是否为编码端
+     */
+    public HeaderTable(int maxSize, boolean forEncode) {
+        this.maxSize = maxSize;
+        this.indexMap = forEncode ? new HashMap<>() : null;
+    }
+
+    /**
+     * 最大容量
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 当前大小
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 条目数
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * 是否可添加（太大的值会冲掉整个字典，不值得添加）
+     */
+    public boolean isAddable(String str) {
+        return str.length() + ENTRY_OVERHEAD <= maxSize / 4;
+    }
+
+    /**
+     * 查找相对序号（编码端用；没有时为 -1）
+     */
+    public int find(String str) {
+        Long absIdx = indexMap.get(str);
+        if (absIdx == null) {
+            return -1;
+        } else {
+            return (int) (insertCount - 1 - absIdx);
+        }
+    }
+
+    /**
+     * 根据相对序号获取（解码端用）
+     */
+    public String get(int relIdx) {
+        if (relIdx < 0 || relIdx >= count) {
+            throw new SocketdCodecException("Invalid header index: " + relIdx);
+        }
+
+        return entries[(head + count - 1 - relIdx) % entries.length];
+    }
+
+    /**
+     * 添加
+     */
+    public void add(String str) {
+        int entrySize = str.length() + ENTRY_OVERHEAD;
+        if (entrySize > maxSize) {
+            throw new SocketdCodecException("Header entry is too large: " + entrySize);
+        }
+
+        while (size + entrySize > maxSize) {
+            evict();
+        }
+
+        if (count == entries.length) {
+            String[] tmp = new String[entries.length * 2];
+            for (int i = 0; i < count; i++) {
+                tmp[i] = entries[(head + i) % entries.length];
+            }
+            entries = tmp;
+            head = 0;
+        }
+
+        entries[(head + count) % entries.length] = str;
+        count++;
+        size += entrySize;
+
+        if (indexMap != null) {
+            indexMap.put(str, insertCount);
+        }
+        insertCount++;
+    }
+
+    /**
+     * 淘汰最旧的条目
+     */
+    private void evict() {
+        String str = entries[head];
+        long absIdx = insertCount - count;
+
+        entries[head] = null;
+        head = (head + 1) % entries.length;
+        count--;
+        size -= str.length() + ENTRY_OVERHEAD;
+
+        if (indexMap != null) {
+            indexMap.remove(str, absIdx);
+        }
+    }
+}
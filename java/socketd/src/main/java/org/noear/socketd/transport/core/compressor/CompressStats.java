@@ -0,0 +1,73 @@
+package org.noear.socketd.transport.core.compressor;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压缩统计（每个通道一个；发送方向）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class CompressStats {
+    //压缩的消息数
+    private final LongAdder messages = new LongAdder();
+    //压缩前的字节数
+    private final LongAdder originalBytes = new LongAdder();
+    //压缩后的字节数
+    private final LongAdder compressedBytes = new LongAdder();
+
+    /**
+     * 记录
+     *
+     * @param originalSize   压缩前大小
+     * @param compressedSize 压缩后大小
+     */
+    public void record(int originalSize, int compressedSize) {
+        messages.increment();
+        originalBytes.add(originalSize);
+        compressedBytes.add(compressedSize);
+    }
+
+    /**
+     * 压缩的消息数
+     */
+    public long messages() {
+        return messages.sum();
+    }
+
+    /**
+     * 压缩前的字节数
+     */
+    public long originalBytes() {
+        return originalBytes.sum();
+    }
+
+    /**
+     * 压缩后的字节数
+     */
+    public long compressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    /**
+     * 压缩率（压缩后 / 压缩前；没有压缩过时为 1）
+     */
+    public double ratio() {
+        long original = originalBytes.sum();
+        if (original == 0) {
+            return 1D;
+        } else {
+            return (double) compressedBytes.sum() / original;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompressStats{" +
+                "messages=" + messages() +
+                ", originalBytes=" + originalBytes() +
+                ", compressedBytes=" + compressedBytes() +
+                ", ratio=" + ratio() +
+                '}';
+    }
+}
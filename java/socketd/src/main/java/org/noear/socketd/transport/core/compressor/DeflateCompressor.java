@@ -0,0 +1,127 @@
+package org.noear.socketd.transport.core.compressor;
+
+import org.noear.socketd.exception.SocketdCodecException;
+import org.noear.socketd.transport.core.Compressor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate 压缩器（基于 jdk；可使用共享字典，对小的 json 效果明显）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class DeflateCompressor implements Compressor {
+    public static final String NAME = "deflate";
+
+    private final String name;
+    private final int level;
+    private final byte[] dictionary;
+
+    //复用（Deflater 与 Inflater 创建成本较高）
+    private final ThreadLocal<Deflater> deflaterLocal;
+    private final ThreadLocal<Inflater> inflaterLocal;
+
+    public DeflateCompressor() {
+        this(Deflater.DEFAULT_COMPRESSION, null);
+    }
+
+    /**
+     * @param dictionary 共享字典（双方要相同；可用 DictionaryTrainer 训练）
+     */
+    public DeflateCompressor(byte[] dictionary) {
+        this(Deflater.DEFAULT_COMPRESSION, dictionary);
+    }
+
+    /**
+     * @param level      压缩级别（0-9）
+     * @param dictionary 共享字典
+     */
+    public DeflateCompressor(int level, byte[] dictionary) {
+        this.level = level;
+        this.dictionary = dictionary;
+        this.deflaterLocal = ThreadLocal.withInitial(() -> new Deflater(this.level));
+        this.inflaterLocal = ThreadLocal.withInitial(Inflater::new);
+
+        if (dictionary == null) {
+            this.name = NAME;
+        } else {
+            //带上字典校验码，字典不同时协商不上
+            Adler32 adler32 = new Adler32();
+            adler32.update(dictionary);
+            this.name = NAME + "-" + Long.toHexString(adler32.getValue());
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+        Deflater deflater = deflaterLocal.get();
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+
+            deflater.setInput(data);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+            byte[] buf = new byte[Math.min(data.length + 16, 8192)];
+            while (deflater.finished() == false) {
+                int len = deflater.deflate(buf);
+                out.write(buf, 0, len);
+            }
+
+            return out.toByteArray();
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int originalSize) throws IOException {
+        Inflater inflater = inflaterLocal.get();
+        try {
+            inflater.setInput(data);
+
+            byte[] out = new byte[originalSize];
+            int size = 0;
+            while (inflater.finished() == false) {
+                int len = inflater.inflate(out, size, out.length - size);
+
+                if (len == 0) {
+                    if (inflater.needsDictionary()) {
+                        if (dictionary == null) {
+                            throw new SocketdCodecException("Missing deflate dictionary");
+                        }
+
+                        inflater.setDictionary(dictionary);
+                    } else if (inflater.needsInput() || size == out.length) {
+                        break;
+                    }
+                }
+
+                size += len;
+            }
+
+            if (inflater.finished() == false || size != originalSize) {
+                throw new SocketdCodecException("Invalid deflate data, expected size: " + originalSize);
+            }
+
+            return out;
+        } catch (DataFormatException | IllegalArgumentException e) {
+            throw new SocketdCodecException("Invalid deflate data: " + e.getMessage());
+        } finally {
+            inflater.reset();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.noear.socketd.transport.core.compressor;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 共享字典训练器（用样本训练出 deflate 预置字典；适合结构相近的小 json）
+ *
+ * <pre>
+ * 1.统计每个 8 字节片段在多少个样本中出现
+ * 2.样本评分 = 与其它样本共有的片段数 / 样本长度
+ * 3.按评分选取样本（去重），评分高的放在字典尾部（距离越近，编码越短）
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class DictionaryTrainer {
+    /**
+     * 最大字典大小（deflate 窗口为 32k）
+     */
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int GRAM_SIZE = 8;
+
+    /**
+     * 训练
+     *
+     * @param samples 样本
+     * @param maxSize 字典最大大小
+     */
+    public static byte[] train(Collection<byte[]> samples, int maxSize) {
+        maxSize = Math.min(maxSize, MAX_DICTIONARY_SIZE);
+
+        //1.统计片段的样本频次
+        List<byte[]> sampleList = new ArrayList<>(samples);
+        List<Set<Long>> gramsList = new ArrayList<>(sampleList.size());
+        Map<Long, Integer> frequencyMap = new HashMap<>();
+
+        for (byte[] sample : sampleList) {
+            Set<Long> grams = grams(sample);
+            gramsList.add(grams);
+
+            for (Long gram : grams) {
+                frequencyMap.merge(gram, 1, Integer::sum);
+            }
+        }
+
+        //2.样本评分
+        double[] scores = new double[sampleList.size()];
+        List<Integer> indexes = new ArrayList<>(sampleList.size());
+        for (int i = 0; i < sampleList.size(); i++) {
+            int shared = 0;
+            for (Long gram : gramsList.get(i)) {
+                shared += frequencyMap.get(gram) - 1;
+            }
+
+            if (shared > 0) {
+                scores[i] = (double) shared / sampleList.get(i).length;
+                indexes.add(i);
+            }
+        }
+
+        indexes.sort((a, b) -> Double.compare(scores[b], scores[a]));
+
+        //3.选取样本（评分高的在后）
+        List<byte[]> selected = new ArrayList<>();
+        Set<ByteBuffer> selectedSet = new HashSet<>();
+        int size = 0;
+        for (int i : indexes) {
+            byte[] sample = sampleList.get(i);
+            if (size + sample.length > maxSize) {
+                continue;
+            }
+
+            if (selectedSet.add(ByteBuffer.wrap(sample))) {
+                selected.add(sample);
+                size += sample.length;
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        for (int i = selected.size() - 1; i >= 0; i--) {
+            byte[] sample = selected.get(i);
+            out.write(sample, 0, sample.length);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * 获取样本的所有片段（8 字节刚好放进一个 long）
+     */
+    private static Set<Long> grams(byte[] sample) {
+        Set<Long> grams = new HashSet<>();
+
+        long gram = 0;
+        for (int i = 0; i < sample.length; i++) {
+            gram = (gram << 8) | (sample[i] & 0xFF);
+
+            if (i >= GRAM_SIZE - 1) {
+                grams.add(gram);
+            }
+        }
+
+        return grams;
+    }
+}
@@ -2,16 +2,17 @@ package org.noear.socketd.transport.core.entity;
 
 import org.noear.socketd.transport.core.Constants;
 import org.noear.socketd.transport.core.Entity;
+import org.noear.socketd.utils.RunnableEx;
 import org.noear.socketd.utils.StrUtils;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.MappedByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * 实体默认实现
@@ -20,12 +21,18 @@ import java.util.concurrent.ConcurrentHashMap;
  * @since 2.0
  */
 public class EntityDefault implements Entity {
+    private static final AtomicIntegerFieldUpdater<EntityDefault> REF_CNT_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(EntityDefault.class, "refCnt");
 
     private Map<String, String> metaMap;
     private String metaString = Constants.DEF_META_STRING;
     private boolean metaStringChanged = false;
     private ByteBuffer data = Constants.DEF_DATA;
     private int dataSize = 0;
+    //数据释放器（切片数据时，用于释放底层缓冲）
+    private RunnableEx<IOException> dataReleaser;
+    //引用计数
+    private volatile int refCnt = 1;
 
     /**
      * At
@@ -45,6 +52,17 @@ public class EntityDefault implements Entity {
         return this;
     }
 
+    /**
+     * 设置元信息字典（直接引用，不复制；元信息字符串需要时再生成）
+     *
+     * @since 2.2.3
+     */
+    public EntityDefault metaMapSet(Map<String, String> metaMap) {
+        this.metaMap = metaMap;
+        this.metaStringChanged = true;
+        return this;
+    }
+
     /**
      * 获取元信息字符串（queryString style）
      */
@@ -171,6 +189,18 @@ public class EntityDefault implements Entity {
         return this;
     }
 
+    /**
+     * 设置数据（切片）
+     *
+     * @param data         数据
+     * @param dataReleaser 数据释放器（引用计数归零时执行）
+     */
+    public EntityDefault dataSet(ByteBuffer data, RunnableEx<IOException> dataReleaser) {
+        dataSet(data);
+        this.dataReleaser = dataReleaser;
+        return this;
+    }
+
     /**
      * 获取数据（若多次复用，需要reset）
      */
@@ -195,14 +225,15 @@ public class EntityDefault implements Entity {
 
     @Override
     public byte[] dataAsBytes() {
-        if (data instanceof MappedByteBuffer) {
+        if (data.hasArray() && data.arrayOffset() == 0 && data.array().length == dataSize) {
+            return data.array();
+        } else {
+            //映射、直接或切片缓冲（需要复制）
             byte[] tmp = new byte[dataSize];
-            data.mark();
-            data.get(tmp);
-            data.reset();
+            ByteBuffer dup = data.duplicate();
+            dup.position(0);
+            dup.get(tmp);
             return tmp;
-        } else {
-            return data.array();
         }
     }
 
@@ -215,11 +246,39 @@ public class EntityDefault implements Entity {
     }
 
     /**
-     * 释放资源
+     * 保留（引用计数加一）
+     */
+    @Override
+    public EntityDefault retain() {
+        while (true) {
+            int cnt = refCnt;
+            if (cnt < 1) {
+                throw new IllegalStateException("The entity has been released");
+            }
+
+            if (REF_CNT_UPDATER.compareAndSet(this, cnt, cnt + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * 释放资源（引用计数减一，归零时释放）
      */
     @Override
     public void release() throws IOException {
+        if (REF_CNT_UPDATER.decrementAndGet(this) == 0) {
+            onRelease();
+        }
+    }
 
+    /**
+     * 释放时（引用计数归零）
+     */
+    protected void onRelease() throws IOException {
+        if (dataReleaser != null) {
+            dataReleaser.run();
+        }
     }
 
     @Override
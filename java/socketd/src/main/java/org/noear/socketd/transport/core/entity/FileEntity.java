@@ -29,7 +29,7 @@ public class FileEntity extends EntityDefault {
     }
 
     @Override
-    public void release() throws IOException {
+    protected void onRelease() throws IOException {
         fileRaf.close();
     }
 }
@@ -40,7 +40,7 @@ public class TempfileEntity extends EntityDefault {
     }
 
     @Override
-    public void release() throws IOException {
+    protected void onRelease() throws IOException {
         if (fileRaf != null) {
             fileRaf.close();
         }
@@ -0,0 +1,16 @@
+package org.noear.socketd.transport.core.flow;
+
+/**
+ * 发布者（与 Reactive Streams、java.util.concurrent.Flow 的同名接口一致；Java 8 没有 Flow）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public interface Publisher<T> {
+    /**
+     * 订阅（每次订阅，都是一个新的流）
+     *
+     * @param subscriber 订阅者
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+}
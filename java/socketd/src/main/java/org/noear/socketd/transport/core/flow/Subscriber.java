@@ -0,0 +1,35 @@
+package org.noear.socketd.transport.core.flow;
+
+/**
+ * 订阅者（与 Reactive Streams、java.util.concurrent.Flow 的同名接口一致）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public interface Subscriber<T> {
+    /**
+     * 订阅时（通过订阅关系请求数据）
+     *
+     * @param subscription 订阅关系
+     */
+    void onSubscribe(Subscription subscription);
+
+    /**
+     * 下一个数据时（不会超过请求的数量）
+     *
+     * @param item 数据
+     */
+    void onNext(T item);
+
+    /**
+     * 出错时（之后不会再有通知）
+     *
+     * @param error 异常
+     */
+    void onError(Throwable error);
+
+    /**
+     * 完成时（之后不会再有通知）
+     */
+    void onComplete();
+}
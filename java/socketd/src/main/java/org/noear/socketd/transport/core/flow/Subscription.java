@@ -0,0 +1,21 @@
+package org.noear.socketd.transport.core.flow;
+
+/**
+ * 订阅关系（与 Reactive Streams、java.util.concurrent.Flow 的同名接口一致）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public interface Subscription {
+    /**
+     * 请求（再要 n 个数据）
+     *
+     * @param n 数量（必须大于 0；Long.MAX_VALUE 表示不限）
+     */
+    void request(long n);
+
+    /**
+     * 取消（之后不再通知）
+     */
+    void cancel();
+}
@@ -4,6 +4,7 @@ import org.noear.socketd.transport.core.EntityMetas;
 import org.noear.socketd.transport.core.FragmentAggregator;
 import org.noear.socketd.transport.core.Frame;
 import org.noear.socketd.exception.SocketdCodecException;
+import org.noear.socketd.exception.SocketdSizeLimitException;
 import org.noear.socketd.transport.core.MessageInternal;
 import org.noear.socketd.transport.core.entity.EntityDefault;
 import org.noear.socketd.transport.core.internal.MessageBuilder;
@@ -29,9 +30,21 @@ public class FragmentAggregatorDefault implements FragmentAggregator {
     private int dataStreamSize;
     //数据总长度
     private int dataLength;
+    //聚合上限（超过的，分片数据直接丢弃）
+    private final int maxSize;
 
     public FragmentAggregatorDefault(MessageInternal main) {
+        this(main, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param main    主导消息
+     * @param maxSize 聚合上限（字节数）
+     * @since 2.2.3
+     */
+    public FragmentAggregatorDefault(MessageInternal main, int maxSize) {
         this.main = main;
+        this.maxSize = maxSize;
         String dataLengthStr = main.meta(EntityMetas.META_DATA_LENGTH);
 
         if (StrUtils.isEmpty(dataLengthStr)) {
@@ -65,15 +78,37 @@ public class FragmentAggregatorDefault implements FragmentAggregator {
         return dataLength;
     }
 
+    /**
+     * 是否超过聚合上限（超过的不占内存，聚合完成时抛出 SocketdSizeLimitException）
+     *
+     * @since 2.2.3
+     */
+    public boolean isOversize() {
+        return dataLength > maxSize;
+    }
+
     /**
      * 添加帧
      */
     @Override
     public void add(int index, MessageInternal message) throws IOException {
-        //添加分片
-        fragmentHolders.add(new FragmentHolder(index, message));
+        int fragmentSize = message.dataSize();
+
+        if (dataStreamSize + fragmentSize > dataLength) {
+            message.release();
+            throw new SocketdCodecException("The fragment data exceeds the '" + EntityMetas.META_DATA_LENGTH + "' meta, sid=" + main.sid());
+        }
+
+        if (isOversize()) {
+            //超过上限，不聚合（只计数，以便知道何时结束）
+            message.release();
+        } else {
+            //添加分片
+            fragmentHolders.add(new FragmentHolder(index, message));
+        }
+
         //添加计数
-        dataStreamSize = dataStreamSize + message.dataSize();
+        dataStreamSize = dataStreamSize + fragmentSize;
     }
 
     /**
@@ -81,6 +116,10 @@ public class FragmentAggregatorDefault implements FragmentAggregator {
      */
     @Override
     public Frame get() throws IOException {
+        if (isOversize()) {
+            throw new SocketdSizeLimitException("The aggregated data size exceeds the limit: " + dataLength + " > " + maxSize + ", sid=" + main.sid());
+        }
+
         //排序
         fragmentHolders.sort(Comparator.comparing(fh -> fh.getIndex()));
 
@@ -89,7 +128,11 @@ public class FragmentAggregatorDefault implements FragmentAggregator {
 
         //添加分片数据
         for (FragmentHolder fh : fragmentHolders) {
-            dataBuffer.put(fh.getMessage().data().array());
+            ByteBuffer fragmentData = fh.getMessage().data().duplicate();
+            fragmentData.position(0);
+            dataBuffer.put(fragmentData);
+            //分片数据已复制，可以释放了
+            fh.getMessage().release();
         }
 
         //索引番转
@@ -76,7 +76,12 @@ public class FragmentAggregatorTempfile implements FragmentAggregator {
     @Override
     public void add(int index, MessageInternal message) throws IOException {
         //添加分片
-        tmpfileChannel.write(message.data());
+        try {
+            tmpfileChannel.write(message.data());
+        } finally {
+            //分片数据已写入临时文件，可以释放了
+            message.release();
+        }
         //添加计数
         dataStreamSize = dataStreamSize + message.dataSize();
     }
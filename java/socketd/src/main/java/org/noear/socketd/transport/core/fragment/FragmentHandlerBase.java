@@ -32,13 +32,19 @@ public abstract class FragmentHandlerBase implements FragmentHandler {
                     return;
                 }
 
-                EntityDefault fragmentEntity = new EntityDefault().dataSet(dataBuffer);
+                //分片是原数据的切片，分片在使用期间需保留原消息（分片释放时，再释放原消息）
+                message.retain();
+                EntityDefault fragmentEntity = new EntityDefault().dataSet(dataBuffer, message::release);
                 if (fragmentIndex == 1) {
                     fragmentEntity.metaMapPut(message.metaMap());
                 }
                 fragmentEntity.metaPut(EntityMetas.META_DATA_FRAGMENT_IDX, String.valueOf(fragmentIndex));
 
-                consumer.accept(fragmentEntity);
+                try {
+                    consumer.accept(fragmentEntity);
+                } finally {
+                    fragmentEntity.release();
+                }
             }
         } else {
             consumer.accept(message);
@@ -56,7 +62,7 @@ public abstract class FragmentHandlerBase implements FragmentHandler {
     public Frame aggrFragment(Channel channel, int fragmentIndex, MessageInternal message) throws IOException {
         FragmentAggregator aggregator = channel.getAttachment(message.sid());
         if (aggregator == null) {
-            aggregator = new FragmentAggregatorDefault(message);
+            aggregator = createFragmentAggregator(message);
             channel.putAttachment(aggregator.getSid(), aggregator);
         }
 
@@ -92,9 +98,11 @@ public abstract class FragmentHandlerBase implements FragmentHandler {
             return null;
         }
 
-        byte[] bytes = new byte[size];
-        ins.get(bytes);
+        //切片（共享内容，不复制）
+        ByteBuffer slice = ins.slice();
+        slice.limit(size);
+        ins.position(ins.position() + size);
 
-        return ByteBuffer.wrap(bytes);
+        return slice;
     }
 }
@@ -11,12 +11,44 @@ import java.io.IOException;
  * @since 2.0
  */
 public class FragmentHandlerDefault extends FragmentHandlerBase {
+    /**
+     * 默认的聚合上限（内存聚合时单个消息的数据上限；更大的，用 FragmentHandlerTempfile）
+     */
+    public static final int DEFAULT_MAX_AGGR_SIZE = 256 * 1024 * 1024;
+
+    private final int maxAggrSize;
+
+    public FragmentHandlerDefault() {
+        this(DEFAULT_MAX_AGGR_SIZE);
+    }
+
+    /**
+     * @param maxAggrSize 聚合上限（字节数；超过的分片不聚合，直接丢弃，并告警给发送方）
+     * @since 2.2.3
+     */
+    public FragmentHandlerDefault(int maxAggrSize) {
+        if (maxAggrSize < Constants.MIN_FRAGMENT_SIZE) {
+            throw new IllegalArgumentException("The fragment maxAggrSize cannot < 1k");
+        }
+
+        this.maxAggrSize = maxAggrSize;
+    }
+
+    /**
+     * 获取聚合上限
+     *
+     * @since 2.2.3
+     */
+    public int getMaxAggrSize() {
+        return maxAggrSize;
+    }
+
     /**
      * 创建分片聚合器
      */
     @Override
     protected FragmentAggregator createFragmentAggregator(MessageInternal message) throws IOException {
-        return new FragmentAggregatorDefault(message);
+        return new FragmentAggregatorDefault(message, maxAggrSize);
     }
 
     @Override
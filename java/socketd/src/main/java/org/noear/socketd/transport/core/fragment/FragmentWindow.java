@@ -0,0 +1,127 @@
+package org.noear.socketd.transport.core.fragment;
+
+import org.noear.socketd.exception.SocketdTimeoutException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片窗口（发送方用；每个分片发送一个）
+ *
+ * <pre>
+ * 发送分片前占用窗口（在途字节数），接收方授信后释放；窗口满时等待授信
+ * 窗口内没有在途分片时，总是可以发一个（窗口比分片小也不会卡住）
+ * 同时记录分片的发出时间，收到授信时采样往返时间（交给管理器调整窗口）
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class FragmentWindow {
+    private final FragmentWindowManager manager;
+    private final String key;
+    private final long timeoutMillis;
+    //在途字节数（已发出，还没授信的）
+    private long inFlight;
+    //在途分片的发出时间（按分片索引）
+    private final Map<Integer, Long> sendNanosMap = new HashMap<>();
+    //关闭异常（连接关闭时才有）
+    private RuntimeException closedError;
+
+    public FragmentWindow(FragmentWindowManager manager, String key, long timeoutMillis) {
+        this.manager = manager;
+        this.key = key;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 键（流Id；答复的加上后缀）
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * 在途字节数
+     */
+    public synchronized long inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 占用窗口（窗口满时等待授信；超时抛出 SocketdTimeoutException）
+     *
+     * @param fragmentIndex 分片索引
+     * @param size          分片大小
+     */
+    public void acquire(int fragmentIndex, int size) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        synchronized (this) {
+            while (closedError == null && inFlight > 0 && inFlight + size > manager.getWindow()) {
+                long waitNanos = deadline - System.nanoTime();
+                if (waitNanos <= 0) {
+                    throw new SocketdTimeoutException("Fragment window credit timeout: inFlight=" + inFlight +
+                            ", window=" + manager.getWindow() + ", key=" + key);
+                }
+
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Awaiting fragment window credit interrupted, key=" + key);
+                }
+            }
+
+            if (closedError != null) {
+                throw closedError;
+            }
+
+            inFlight += size;
+            sendNanosMap.put(fragmentIndex, System.nanoTime());
+        }
+    }
+
+    /**
+     * 授信（接收方已聚合或落盘了这个分片）
+     *
+     * @param fragmentIndex 分片索引
+     * @param size          授信字节数
+     */
+    public void grant(int fragmentIndex, int size) {
+        long rttNanos = 0L;
+
+        synchronized (this) {
+            inFlight = Math.max(inFlight - size, 0L);
+
+            Long sendNanos = sendNanosMap.remove(fragmentIndex);
+            if (sendNanos != null) {
+                rttNanos = System.nanoTime() - sendNanos;
+            }
+
+            notifyAll();
+        }
+
+        manager.onGrant(size, rttNanos);
+    }
+
+    /**
+     * 释放（发送结束后，从管理器移除）
+     */
+    public void release() {
+        manager.removeWindow(this);
+    }
+
+    /**
+     * 关闭（连接关闭了；唤醒等待的发送，让其失败）
+     *
+     * @param error 异常
+     */
+    public synchronized void close(RuntimeException error) {
+        closedError = error;
+        notifyAll();
+    }
+}
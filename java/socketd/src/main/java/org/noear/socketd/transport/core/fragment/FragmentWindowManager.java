@@ -0,0 +1,199 @@
+package org.noear.socketd.transport.core.fragment;
+
+import org.noear.socketd.transport.core.FragmentWindowPolicy;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分片窗口管理器（每个连接一个；按流Id接收授信，并按往返时间调整窗口）
+ *
+ * <pre>
+ * 握手时协商：本方启用了窗口且对方支持时，发送分片才用窗口；对方启用了窗口时，本方接收分片要授信
+ * 自动调整（参考接收缓冲的动态调整）：每个往返时间统计一次授信量（约等于带宽时延积），窗口调到它的两倍；只增不减，不超过最大窗口
+ * 调整后的窗口与往返时间按连接保留，之后的分片发送直接使用
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class FragmentWindowManager {
+    private final FragmentWindowPolicy policy;
+    //分片窗口字典（正在发送的分片）
+    private final Map<String, FragmentWindow> windowMap = new ConcurrentHashMap<>();
+    //本方发送是否用窗口（协商确定）
+    private volatile boolean windowed;
+    //本方接收是否要授信（协商确定）
+    private volatile boolean crediting;
+    //当前窗口（字节数）
+    private volatile long window;
+    //平滑往返时间（纳秒）
+    private long srttNanos;
+    //统计周期（一个往返时间）的开始与授信量
+    private long periodStartNanos;
+    private long periodBytes;
+    //关闭异常（已关闭时才有）
+    private volatile RuntimeException closedError;
+
+    public FragmentWindowManager(FragmentWindowPolicy policy) {
+        this.policy = policy;
+        this.window = policy.getInitialWindow();
+    }
+
+    /**
+     * 协商（握手时）
+     *
+     * @param peerSupported 对方是否支持（会授信）
+     * @param peerWindowed  对方是否启用了窗口（要本方授信）
+     */
+    public void negotiate(boolean peerSupported, boolean peerWindowed) {
+        this.windowed = policy.isEnabled() && peerSupported;
+        this.crediting = peerWindowed;
+    }
+
+    /**
+     * 本方发送是否用窗口
+     */
+    public boolean isWindowed() {
+        return windowed;
+    }
+
+    /**
+     * 本方接收是否要授信
+     */
+    public boolean isCrediting() {
+        return crediting;
+    }
+
+    /**
+     * 当前窗口（字节数）
+     */
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * 平滑往返时间（毫秒；还没有采样时为 0）
+     */
+    public synchronized double getRttMillis() {
+        return srttNanos / 1_000_000.0D;
+    }
+
+    /**
+     * 打开分片窗口（发送分片前；不用窗口时为 null）
+     *
+     * @param sid     流Id
+     * @param isReply 是否为答复
+     */
+    public FragmentWindow openWindow(String sid, boolean isReply) {
+        if (windowed == false) {
+            return null;
+        }
+
+        FragmentWindow fragmentWindow = new FragmentWindow(this, key(sid, isReply), policy.getTimeoutMillis());
+
+        synchronized (this) {
+            if (windowMap.isEmpty()) {
+                //空闲之后，重新开始统计
+                periodStartNanos = System.nanoTime();
+                periodBytes = 0L;
+            }
+
+            windowMap.put(fragmentWindow.key(), fragmentWindow);
+        }
+
+        //打开时正好关闭了
+        if (closedError != null) {
+            removeWindow(fragmentWindow);
+            fragmentWindow.close(closedError);
+        }
+
+        return fragmentWindow;
+    }
+
+    /**
+     * 授信（收到接收方的授信帧）
+     *
+     * @param sid           流Id
+     * @param isReply       是否为答复
+     * @param fragmentIndex 分片索引
+     * @param size          授信字节数
+     */
+    public void grant(String sid, boolean isReply, int fragmentIndex, int size) {
+        FragmentWindow fragmentWindow = windowMap.get(key(sid, isReply));
+
+        if (fragmentWindow != null) {
+            fragmentWindow.grant(fragmentIndex, size);
+        }
+    }
+
+    /**
+     * 授信时（采样往返时间，并调整窗口）
+     *
+     * @param size     授信字节数
+     * @param rttNanos 往返时间（纳秒；没有采样时为 0）
+     */
+    protected synchronized void onGrant(int size, long rttNanos) {
+        if (rttNanos > 0L) {
+            srttNanos = (srttNanos == 0L) ? rttNanos : srttNanos + (rttNanos - srttNanos) / 8;
+        }
+
+        if (policy.isAutoTune() == false || srttNanos == 0L) {
+            return;
+        }
+
+        periodBytes += size;
+        long now = System.nanoTime();
+        long elapsedNanos = now - periodStartNanos;
+
+        if (elapsedNanos >= srttNanos) {
+            //一个往返时间内的授信量（约等于带宽时延积）
+            double bdp = (double) periodBytes * srttNanos / elapsedNanos;
+            long target = (long) Math.min(bdp * 2, policy.getMaxWindow());
+
+            if (target > window) {
+                window = target;
+            }
+
+            periodStartNanos = now;
+            periodBytes = 0L;
+        }
+    }
+
+    /**
+     * 移除分片窗口
+     */
+    protected void removeWindow(FragmentWindow fragmentWindow) {
+        windowMap.remove(fragmentWindow.key(), fragmentWindow);
+    }
+
+    /**
+     * 关闭（唤醒所有等待授信的发送，让其失败）
+     *
+     * @param error 异常
+     */
+    public void close(RuntimeException error) {
+        closedError = error;
+
+        for (String key : windowMap.keySet()) {
+            FragmentWindow fragmentWindow = windowMap.remove(key);
+            if (fragmentWindow != null) {
+                fragmentWindow.close(error);
+            }
+        }
+    }
+
+    private static String key(String sid, boolean isReply) {
+        return isReply ? sid + "#r" : sid;
+    }
+
+    @Override
+    public String toString() {
+        return "FragmentWindowManager{" +
+                "windowed=" + windowed +
+                ", crediting=" + crediting +
+                ", window=" + window +
+                ", rttMillis=" + getRttMillis() +
+                '}';
+    }
+}
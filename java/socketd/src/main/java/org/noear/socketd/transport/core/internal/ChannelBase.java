@@ -2,8 +2,14 @@ package org.noear.socketd.transport.core.internal;
 
 import org.noear.socketd.transport.core.Channel;
 import org.noear.socketd.transport.core.Config;
+import org.noear.socketd.transport.core.EntityMetas;
+import org.noear.socketd.transport.core.Features;
+import org.noear.socketd.transport.core.Frame;
 import org.noear.socketd.transport.core.HandshakeInternal;
 import org.noear.socketd.transport.core.Message;
+import org.noear.socketd.transport.core.MessageInternal;
+import org.noear.socketd.transport.core.StreamManger;
+import org.noear.socketd.transport.core.compressor.CompressStats;
 import org.noear.socketd.transport.core.internal.Frames;
 
 import java.io.IOException;
@@ -22,6 +28,10 @@ public abstract class ChannelBase implements Channel {
 
     private final Map<String, Object> attachments = new ConcurrentHashMap<>();
     private HandshakeInternal handshake;
+    //帧特性（握手后协商确定）
+    private int features;
+    //压缩统计
+    private final CompressStats compressStats = new CompressStats();
     //是否已关闭（用于做关闭异常提醒）//可能协议关；可能用户关
     private int isClosed;
 
@@ -65,22 +75,73 @@ public abstract class ChannelBase implements Channel {
     @Override
     public void setHandshake(HandshakeInternal handshake) {
         this.handshake = handshake;
+
+        if (handshake != null) {
+            this.features = negotiateFeatures(handshake);
+        }
+    }
+
+    /**
+     * 协商帧特性
+     *
+     * @param handshake 对端的握手信息
+     */
+    protected int negotiateFeatures(HandshakeInternal handshake) {
+        return Features.negotiate(handshake.version());
+    }
+
+    /**
+     * 放置握手元信息（用于特性协商）
+     *
+     * @param message 连接或连接确认消息
+     */
+    protected void putHandshakeMeta(MessageInternal message) {
+
+    }
+
+
+    @Override
+    public CompressStats getCompressStats() {
+        return compressStats;
     }
 
+    /**
+     * 获取流管理器（每个通道必须有自己的；不能用配置共享的，否则不同连接的流会混在一起）
+     */
+    @Override
+    public abstract StreamManger getStreamManger();
+
+    @Override
+    public String generateSid() {
+        return config.getIdGenerator().generate();
+    }
 
     @Override
     public HandshakeInternal getHandshake() {
         return handshake;
     }
 
+    /**
+     * 获取帧特性（握手前为 None）
+     */
+    protected int getFeatures() {
+        return features;
+    }
+
     @Override
     public void sendConnect(String uri) throws IOException {
-        send(Frames.connectFrame(getConfig().getIdGenerator().generate(), uri), null);
+        Frame frame = Frames.connectFrame(getConfig().getIdGenerator().generate(), uri);
+        frame.message().putMeta(EntityMetas.META_SOCKETD_VERSION, getConfig().getProtocolVersion());
+        putHandshakeMeta(frame.message());
+        send(frame, null);
     }
 
     @Override
     public void sendConnack(Message connectMessage) throws IOException {
-        send(Frames.connackFrame(connectMessage), null);
+        Frame frame = Frames.connackFrame(connectMessage);
+        frame.message().putMeta(EntityMetas.META_SOCKETD_VERSION, getConfig().getProtocolVersion());
+        putHandshakeMeta(frame.message());
+        send(frame, null);
     }
 
     @Override
@@ -100,6 +161,13 @@ public abstract class ChannelBase implements Channel {
 
     @Override
     public void sendAlarm(Message from, String alarm) throws IOException {
-        send(Frames.alarmFrame(from, alarm), null);
+        try {
+            send(Frames.alarmFrame(from, alarm), null);
+        } finally {
+            //告警后，不会再答复了（结束答复流控）
+            if (from instanceof MessageInternal && ((MessageInternal) from).getReplyFlow() != null) {
+                ((MessageInternal) from).getReplyFlow().end();
+            }
+        }
     }
 }
@@ -1,12 +1,30 @@
 package org.noear.socketd.transport.core.internal;
 
+import org.noear.socketd.exception.SocketdChannelException;
+import org.noear.socketd.exception.SocketdOverflowException;
 import org.noear.socketd.transport.core.*;
+import org.noear.socketd.transport.core.codec.HeaderTable;
+import org.noear.socketd.transport.core.entity.EntityDefault;
+import org.noear.socketd.transport.core.fragment.FragmentWindow;
+import org.noear.socketd.transport.core.fragment.FragmentWindowManager;
+import org.noear.socketd.transport.core.stream.ReplyFlowManager;
+import org.noear.socketd.transport.core.stream.StreamMangerCompact;
+import org.noear.socketd.transport.core.stream.StreamMangerDefault;
+import org.noear.socketd.utils.RunUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 
 /**
@@ -17,6 +35,8 @@ import java.util.function.BiConsumer;
  */
 public class ChannelDefault<S> extends ChannelBase implements ChannelInternal {
     private static Logger log = LoggerFactory.getLogger(ChannelDefault.class);
+    //帧头的估算大小（用于待写数据计量）
+    private static final int FRAME_HEAD_SIZE = 64;
 
     private final S source;
 
@@ -24,19 +44,39 @@ public class ChannelDefault<S> extends ChannelBase implements ChannelInternal {
     private final Processor processor;
     //助理
     private final ChannelAssistant<S> assistant;
-    //流管理器
-    private final StreamManger streamManger;
+    //流管理器（每个连接一个；协商为紧凑流Id时，换成紧凑实现）
+    private StreamManger streamManger;
+    //答复流控管理器
+    private final ReplyFlowManager replyFlowManager = new ReplyFlowManager();
+    //分片窗口管理器（握手协商后生效）
+    private final FragmentWindowManager fragmentWindowManager;
     //会话（懒加载）
     private Session session;
     //打开前景（用于构建 onOpen 异步处理）
     private final CompletableFuture<Boolean> onOpenFuture = new CompletableFuture<>();
+    //头部字典（握手协商启用后才有）
+    private HeaderTable encodeHeaderTable;
+    private HeaderTable decodeHeaderTable;
+    //编解码器（握手协商确定）
+    private Codec codec;
+    //压缩器（握手协商确定；没有则不压缩）
+    private Compressor compressor;
+    //有序派发器（懒加载）
+    private volatile OrderedDispatcher dispatcher;
 
     public ChannelDefault(S source, ChannelSupporter<S> supporter) {
         super(supporter.getConfig());
         this.source = source;
         this.processor = supporter.getProcessor();
         this.assistant = supporter.getAssistant();
-        this.streamManger = supporter.getConfig().getStreamManger();
+        this.streamManger = new StreamMangerDefault(supporter.getConfig());
+        this.fragmentWindowManager = new FragmentWindowManager(supporter.getConfig().getFragmentWindowPolicy());
+
+        if (assistant.isFlushDeferrable() && supporter.getConfig().getFlushPolicy().isImmediate() == false) {
+            this.flushPolicy = supporter.getConfig().getFlushPolicy();
+        } else {
+            this.flushPolicy = null;
+        }
     }
 
     /**
@@ -63,7 +103,21 @@ public class ChannelDefault<S> extends ChannelBase implements ChannelInternal {
         return assistant.getLocalAddress(source);
     }
 
-    private Object SEND_LOCK = new Object();
+    //发送调度器（以帧为单位排队，由一个线程代写；大数据的分片之间可以插入其它帧；控制帧优先）
+    private final SendScheduler sendScheduler = new SendScheduler();
+    //冲刷策略（传输不支持延后冲刷时，为 null）
+    private final FlushPolicy flushPolicy;
+    //未冲刷的帧数与字节数（在调度器内访问）
+    private int flushPendingFrames;
+    private long flushPendingBytes;
+    private ScheduledFuture<?> flushFuture;
+    //异步发送队列
+    private final Queue<AsyncFrame> asyncQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean asyncDraining = new AtomicBoolean();
+    //待写数据（估算的字节数，含排队等待通道的）与可写状态（高水位为 0 时不计量）
+    private final AtomicLong writePendingBytes = new AtomicLong();
+    private final Object writableLock = new Object();
+    private volatile boolean writable = true;
 
     /**
      * 发送
@@ -72,6 +126,20 @@ public class ChannelDefault<S> extends ChannelBase implements ChannelInternal {
     public void send(Frame frame, StreamInternal stream) throws IOException {
         Asserts.assertClosed(this);
 
+        //背压（控制帧不受限制）
+        if (isDataFrame(frame.flag())) {
+            awaitWritable();
+        }
+
+        sendDo(frame, stream);
+    }
+
+    /**
+     * 发送（不检查背压）
+     */
+    private void sendDo(Frame frame, StreamInternal stream) throws IOException {
+        Asserts.assertClosed(this);
+
         if (log.isDebugEnabled()) {
             if (getConfig().clientMode()) {
                 log.debug("C-SEN:{}", frame);
@@ -80,48 +148,605 @@ public class ChannelDefault<S> extends ChannelBase implements ChannelInternal {
             }
         }
 
-        synchronized (SEND_LOCK) {
-            if (frame.message() != null) {
-                MessageInternal message = frame.message();
+        //压缩（在锁外进行，减少锁占用）
+        frame = compress(frame);
 
-                //注册流接收器
-                if (stream != null) {
-                    streamManger.addStream(message.sid(), stream);
-                }
+        //按握手协商的特性编码（握手帧固定为 1.0 的文本格式）
+        final int features = (frame.flag() == Flags.Connect || frame.flag() == Flags.Connack) ? Features.None : getFeatures();
 
-                //如果有实体（尝试分片）
-                if (message.entity() != null) {
-                    //确保用完自动关闭
+        if (frame.message() != null) {
+            MessageInternal message = frame.message();
 
-                    if (message.dataSize() > getConfig().getFragmentSize()) {
-                        message.putMeta(EntityMetas.META_DATA_LENGTH, String.valueOf(message.dataSize()));
+            //注册流接收器
+            if (stream != null) {
+                stream.setChannel(this);
+                streamManger.addStream(message, stream);
+            }
+
+            //如果有实体（尝试分片）
+            if (message.entity() != null) {
+                //确保用完自动关闭
+                boolean fragmenting = message.dataSize() > getConfig().getFragmentSize();
+                FragmentWindow fragmentWindow = null;
+
+                if (fragmenting) {
+                    message.putMeta(EntityMetas.META_DATA_LENGTH, String.valueOf(message.dataSize()));
+                    sendScheduler.beginFragments(message.sid());
+                    //分片窗口（协商启用时才有；内联时在 I/O 线程上，不能等待要由这个线程读取的授信，不用窗口）
+                    if (InlineWatchdog.isInline() == false) {
+                        fragmentWindow = fragmentWindowManager.openWindow(message.sid(), isReplyFrame(frame.flag()));
                     }
+                }
 
+                try {
+                    final int flag = frame.flag();
+                    final FragmentWindow fragmentWindowF = fragmentWindow;
                     getConfig().getFragmentHandler().spliFragment(this, message, fragmentEntity -> {
                         //主要是 sid 和 entity
                         Frame fragmentFrame;
                         if (fragmentEntity instanceof MessageInternal) {
-                            fragmentFrame = new Frame(frame.flag(), (MessageInternal) fragmentEntity);
+                            fragmentFrame = new Frame(flag, (MessageInternal) fragmentEntity, features);
                         } else {
-                            fragmentFrame = new Frame(frame.flag(), new MessageBuilder()
-                                    .flag(frame.flag())
+                            fragmentFrame = new Frame(flag, new MessageBuilder()
+                                    .flag(flag)
                                     .sid(message.sid())
                                     .event(message.event())
                                     .entity(fragmentEntity)
-                                    .build());
+                                    .build(), features);
+                        }
+
+                        //按窗口发送（窗口满时，等待接收方授信）
+                        if (fragmentWindowF != null) {
+                            fragmentWindowF.acquire(Integer.parseInt(fragmentEntity.meta(EntityMetas.META_DATA_FRAGMENT_IDX)),
+                                    fragmentFrame.message().dataSize());
                         }
 
-                        assistant.write(source, fragmentFrame);
+                        //每个分片单独排队（让出通道）
+                        write(fragmentFrame);
                     });
+                } finally {
+                    if (fragmenting) {
+                        sendScheduler.endFragments(message.sid());
+                    }
+
+                    if (fragmentWindow != null) {
+                        fragmentWindow.release();
+                    }
+                }
+                return;
+            }
+        }
+
+        //不满足分片条件，直接发
+        if (features != frame.features()) {
+            frame = new Frame(frame.flag(), frame.message(), features);
+        }
+
+        write(frame);
+    }
+
+    /**
+     * 异步发送（排队，由一个任务依次写出；调用方不等待通道与网络）
+     *
+     * <p>写出任务在通道执行器上运行，会占用一个执行器线程：socket 写入、分片窗口等授信、背压等水位回落时，都阻塞在这个线程上（不是调用方）</p>
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(Frame frame, StreamInternal stream) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        //背压（异步不等待，超过高水位时除通知外直接失败）
+        if (writable == false && isDataFrame(frame.flag()) && getConfig().getBackpressurePolicy().isNotify() == false) {
+            future.completeExceptionally(newOverflowException());
+            return future;
+        }
+
+        //排队中的也计入待写数据
+        int size = writeSize(frame);
+        writePendingAdd(size);
+        asyncQueue.add(new AsyncFrame(frame, stream, future, size));
+
+        asyncSubmit();
+
+        return future;
+    }
+
+    /**
+     * 异步发送提交写出任务（同时只有一个）
+     */
+    private void asyncSubmit() {
+        while (asyncDraining.compareAndSet(false, true)) {
+            try {
+                getConfig().getChannelExecutor().submit(this::asyncDrain);
+                return;
+            } catch (Throwable e) {
+                //提交失败（执行器满了或已关闭）：排队的都失败，并复位标记（否则之后的都不会完成）
+                asyncFail(e);
+                asyncDraining.set(false);
+
+                //复位前又有入队的，再试一次
+                if (asyncQueue.isEmpty()) {
                     return;
                 }
             }
+        }
+    }
+
+    /**
+     * 异步发送队列全部失败
+     */
+    private void asyncFail(Throwable e) {
+        AsyncFrame item;
+        while ((item = asyncQueue.poll()) != null) {
+            try {
+                item.future.completeExceptionally(e);
+            } finally {
+                writePendingRelease(item.size);
+            }
+        }
+    }
+
+    /**
+     * 异步发送队列排空
+     */
+    private void asyncDrain() {
+        while (true) {
+            AsyncFrame item;
+            while ((item = asyncQueue.poll()) != null) {
+                try {
+                    sendDo(item.frame, item.stream);
+                    item.future.complete(null);
+                } catch (Throwable e) {
+                    item.future.completeExceptionally(e);
+                } finally {
+                    writePendingRelease(item.size);
+                }
+            }
+
+            asyncDraining.set(false);
+
+            //释放标记后，再确认一下（避免刚入队的没人处理）
+            if (asyncQueue.isEmpty() || asyncDraining.compareAndSet(false, true) == false) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 写一帧（头部字典等连接级编码状态，需与写出顺序一致，所以在调度器内编码）
+     */
+    private void write(Frame frame) throws IOException {
+        //等待通道的也计入待写数据（写出后释放）
+        final int size = writeSize(frame);
+        writePendingAdd(size);
+
+        if (isDataFrame(frame.flag())) {
+            sendScheduler.write(() -> writeDo(frame, size));
+        } else {
+            //控制帧走优先通道（心跳等不会被大数据卡住）
+            sendScheduler.writeUrgent(() -> writeDo(frame, size));
+        }
+    }
+
+    /**
+     * 写一帧（在调度器内调用）
+     */
+    private void writeDo(Frame frame, int size) throws IOException {
+        if (size > 0) {
+            assistant.write(source, frame, this, () -> writePendingRelease(size));
+        } else {
+            assistant.write(source, frame, this);
+        }
+
+        if (flushPolicy != null) {
+            flushPendingFrames++;
+            if (frame.message() != null) {
+                flushPendingBytes += frame.message().dataSize();
+            }
+
+            if (isFlushRequired(frame)) {
+                flush();
+            } else if (flushPolicy.isTimed() && flushFuture == null) {
+                flushFuture = scheduleFlush();
+            }
+        }
+    }
+
+    /**
+     * 是否需要冲刷（控制帧总是立即冲刷）
+     */
+    private boolean isFlushRequired(Frame frame) {
+        if (isDataFrame(frame.flag()) == false) {
+            return true;
+        }
+
+        if (flushPendingFrames >= flushPolicy.getMaxFrames() || flushPendingBytes >= flushPolicy.getMaxBytes()) {
+            return true;
+        }
+
+        //批量时，没有后续等待写的帧就冲刷（定时的，由计时冲刷）
+        return flushPolicy.isTimed() == false && sendScheduler.hasQueuedWriters() == false;
+    }
+
+    /**
+     * 冲刷（在调度器内调用）
+     */
+    private void flush() throws IOException {
+        if (flushFuture != null) {
+            flushFuture.cancel(false);
+            flushFuture = null;
+        }
+
+        flushPendingFrames = 0;
+        flushPendingBytes = 0;
+        assistant.flush(source, this);
+    }
+
+    /**
+     * 安排定时冲刷（冲刷可能阻塞，不占用调度线程）
+     */
+    private ScheduledFuture<?> scheduleFlush() {
+        return RunUtils.delay(() -> RunUtils.async(this::flushOnTime), flushPolicy.getDelayMillis());
+    }
+
+    /**
+     * 定时冲刷（投递到调度器，排在已排队的帧后面）
+     */
+    private void flushOnTime() {
+        sendScheduler.post(() -> {
+            try {
+                flushFuture = null;
+
+                if (flushPendingFrames > 0) {
+                    flush();
+                }
+            } catch (Throwable e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("{} channel flush error, sessionId={}",
+                            getConfig().getRoleName(), getSession().sessionId(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 是否为数据帧（否则为握手、心跳、关闭等控制帧）
+     */
+    private static boolean isDataFrame(int flag) {
+        switch (flag) {
+            case Flags.Message:
+            case Flags.Request:
+            case Flags.Subscribe:
+            case Flags.Reply:
+            case Flags.ReplyEnd:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 是否为答复帧
+     */
+    private static boolean isReplyFrame(int flag) {
+        return flag == Flags.Reply || flag == Flags.ReplyEnd;
+    }
+
+    /**
+     * 是否可写
+     */
+    @Override
+    public boolean isWritable() {
+        return writable;
+    }
+
+    /**
+     * 帧的待写大小（估算：数据 + 帧头；控制帧及不限制时为 0）
+     */
+    private int writeSize(Frame frame) {
+        if (frame.message() == null || getConfig().getWriteBufferHighWaterMark() <= 0) {
+            return 0;
+        } else {
+            return frame.message().dataSize() + FRAME_HEAD_SIZE;
+        }
+    }
+
+    private void writePendingAdd(int size) {
+        if (size > 0) {
+            long pending = writePendingBytes.addAndGet(size);
+            if (writable && pending > getConfig().getWriteBufferHighWaterMark()) {
+                updateWritable();
+            }
+        }
+    }
+
+    private void writePendingRelease(int size) {
+        if (size > 0) {
+            long pending = writePendingBytes.addAndGet(-size);
+            if (writable == false && pending <= getConfig().getWriteBufferLowWaterMark()) {
+                updateWritable();
+            }
+        }
+    }
+
+    /**
+     * 更新可写状态（高水位以上不可写，降到低水位才恢复）
+     */
+    private void updateWritable() {
+        boolean writableNew;
+
+        synchronized (writableLock) {
+            long pending = writePendingBytes.get();
+
+            if (writable && pending > getConfig().getWriteBufferHighWaterMark()) {
+                writableNew = false;
+            } else if (writable == false && pending <= getConfig().getWriteBufferLowWaterMark()) {
+                writableNew = true;
+            } else {
+                return;
+            }
+
+            writable = writableNew;
+            writableLock.notifyAll();
+        }
+
+        processor.onWritabilityChanged(this, writableNew);
+    }
+
+    /**
+     * 等待可写（按背压策略：通知时照常发送，否则失败或等待）
+     */
+    private void awaitWritable() throws IOException {
+        if (writable) {
+            return;
+        }
+
+        BackpressurePolicy policy = getConfig().getBackpressurePolicy();
+
+        if (policy.isNotify()) {
+            return;
+        }
+
+        if (policy.isAwait()) {
+            long deadline = System.currentTimeMillis() + policy.getTimeoutMillis();
+
+            synchronized (writableLock) {
+                while (writable == false && isClosed() == 0) {
+                    long waitMillis = deadline - System.currentTimeMillis();
+                    if (waitMillis <= 0) {
+                        break;
+                    }
+
+                    try {
+                        writableLock.wait(waitMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Awaiting writable interrupted, sessionId=" + getSession().sessionId());
+                    }
+                }
+            }
+
+            if (writable) {
+                return;
+            }
+        }
+
+        throw newOverflowException();
+    }
+
+    private SocketdOverflowException newOverflowException() {
+        return new SocketdOverflowException("The channel write buffer is over the high water mark: " +
+                writePendingBytes.get() + " > " + getConfig().getWriteBufferHighWaterMark() +
+                ", sessionId=" + getSession().sessionId());
+    }
+
+    /**
+     * 压缩（数据达到阈值才压缩；分片的大数据不压缩，一般为文件）
+     */
+    private Frame compress(Frame frame) throws IOException {
+        if (compressor == null || frame.message() == null || frame.message().entity() == null) {
+            return frame;
+        }
+
+        if (isDataFrame(frame.flag()) == false) {
+            return frame;
+        }
+
+        MessageInternal message = frame.message();
+        int dataSize = message.dataSize();
+        int threshold = getConfig().getCompressThreshold();
+
+        if (threshold <= 0 || dataSize < threshold || dataSize > getConfig().getFragmentSize()) {
+            return frame;
+        }
+
+        if (message.meta(EntityMetas.META_DATA_COMPRESS) != null) {
+            //已压缩过
+            return frame;
+        }
+
+        byte[] data = compressor.compress(message.dataAsBytes());
+        if (data.length >= dataSize) {
+            //没有收益
+            return frame;
+        }
+
+        getCompressStats().record(dataSize, data.length);
+
+        EntityDefault entity = new EntityDefault()
+                .metaMapPut(message.metaMap())
+                .metaPut(EntityMetas.META_DATA_COMPRESS, compressor.name())
+                .metaPut(EntityMetas.META_DATA_ORIGINAL_LENGTH, String.valueOf(dataSize))
+                .dataSet(data);
+
+        return new Frame(frame.flag(), new MessageBuilder()
+                .flag(frame.flag())
+                .sid(message.sid())
+                .event(message.event())
+                .entity(entity)
+                .build(), frame.features());
+    }
+
+    @Override
+    public StreamManger getStreamManger() {
+        return streamManger;
+    }
+
+    @Override
+    public String generateSid() {
+        if (streamManger instanceof StreamMangerCompact) {
+            return Long.toString(((StreamMangerCompact) streamManger).nextSid());
+        } else {
+            return super.generateSid();
+        }
+    }
+
+    /**
+     * 获取本地的头部字典大小（传输不支持时为 0）
+     */
+    protected int getHeaderTableSize() {
+        if (assistant.isCodecStateful()) {
+            return getConfig().getHeaderTableSize();
+        } else {
+            return 0;
+        }
+    }
+
+    @Override
+    protected void putHandshakeMeta(MessageInternal message) {
+        int headerTableSize = getHeaderTableSize();
+        if (headerTableSize > 0) {
+            message.putMeta(EntityMetas.META_SOCKETD_HEADER_TABLE_SIZE, String.valueOf(headerTableSize));
+        }
+
+        //紧凑流Id
+        if (getConfig().isSidCompact()) {
+            message.putMeta(EntityMetas.META_SOCKETD_SID_COMPACT, "1");
+        }
+
+        //支持的压缩算法（用于解压，所以总是声明）
+        if (getConfig().getCompressors().size() > 0) {
+            StringBuilder buf = new StringBuilder();
+            for (Compressor c : getConfig().getCompressors()) {
+                buf.append(c.name()).append(",");
+            }
+            buf.setLength(buf.length() - 1);
+
+            message.putMeta(EntityMetas.META_SOCKETD_COMPRESS, buf.toString());
+        }
+
+        //分片窗口（传输会丢帧时不声明，双方都不用窗口；否则会授信，所以总是声明；本方发送用窗口时为 1）
+        if (assistant.isFragmentWindowable()) {
+            message.putMeta(EntityMetas.META_SOCKETD_FRAGMENT_WINDOW, getConfig().getFragmentWindowPolicy().isEnabled() ? "1" : "0");
+        }
+    }
+
+    @Override
+    protected int negotiateFeatures(HandshakeInternal handshake) {
+        int features = super.negotiateFeatures(handshake);
+
+        //编解码器（取双方协议版本的低者）
+        String localVersion = getConfig().getProtocolVersion();
+        String version = Features.compareVersion(handshake.version(), localVersion) < 0 ? handshake.version() : localVersion;
+        codec = getConfig().getCodec(version);
+
+        if ((features & Features.MetaBinary) != 0) {
+            //头部字典（双方都启用时，取小的）
+            int headerTableSize = Math.min(getHeaderTableSize(),
+                    parseInt(handshake.getSource().meta(EntityMetas.META_SOCKETD_HEADER_TABLE_SIZE)));
+
+            if (headerTableSize > 0) {
+                encodeHeaderTable = new HeaderTable(headerTableSize, true);
+                decodeHeaderTable = new HeaderTable(headerTableSize, false);
+                features |= Features.HeaderIndexed;
+            }
+        }
+
+        if ((features & Features.MetaBinary) != 0) {
+            //紧凑流Id（双方都启用时）
+            if (getConfig().isSidCompact() && "1".equals(handshake.getSource().meta(EntityMetas.META_SOCKETD_SID_COMPACT))) {
+                streamManger = new StreamMangerCompact(getConfig());
+                features |= Features.SidCompact;
+            }
+        }
+
+        compressor = negotiateCompressor(handshake.getSource().meta(EntityMetas.META_SOCKETD_COMPRESS));
+
+        //分片窗口（对方支持时，本方发送才用窗口；对方用窗口时，本方要授信；传输会丢帧时都不用）
+        if (assistant.isFragmentWindowable()) {
+            String peerFragmentWindow = handshake.getSource().meta(EntityMetas.META_SOCKETD_FRAGMENT_WINDOW);
+            fragmentWindowManager.negotiate(peerFragmentWindow != null, "1".equals(peerFragmentWindow));
+        }
+
+        return features;
+    }
+
+    /**
+     * 协商压缩器（以客户端的优先顺序，取双方都支持的第一个）
+     */
+    private Compressor negotiateCompressor(String peerCompress) {
+        if (peerCompress == null || peerCompress.length() == 0) {
+            return null;
+        }
+
+        List<String> peerNames = Arrays.asList(peerCompress.split(","));
+
+        if (getConfig().clientMode()) {
+            for (Compressor c : getConfig().getCompressors()) {
+                if (peerNames.contains(c.name())) {
+                    return c;
+                }
+            }
+        } else {
+            for (String name : peerNames) {
+                Compressor c = getConfig().getCompressor(name);
+                if (c != null) {
+                    return c;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static int parseInt(String str) {
+        if (str == null) {
+            return 0;
+        }
+
+        try {
+            return Integer.parseInt(str);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public Codec getCodec() {
+        return codec;
+    }
 
-            //不满足分片条件，直接发
-            assistant.write(source, frame);
+    @Override
+    public OrderedDispatcher getDispatcher() {
+        if (dispatcher == null && getConfig().getDispatchPolicy().isOrdered()) {
+            synchronized (this) {
+                if (dispatcher == null) {
+                    dispatcher = new OrderedDispatcher(getConfig().getChannelExecutor(), getConfig().getDispatchPolicy());
+                }
+            }
         }
+
+        return dispatcher;
     }
 
+    @Override
+    public HeaderTable getEncodeHeaderTable() {
+        return encodeHeaderTable;
+    }
+
+    @Override
+    public HeaderTable getDecodeHeaderTable() {
+        return decodeHeaderTable;
+    }
 
     /**
      * 接收（接收答复帧）
@@ -130,22 +755,25 @@ public class ChannelDefault<S> extends ChannelBase implements ChannelInternal {
      */
     @Override
     public void retrieve(Frame frame) {
-        final StreamInternal stream = streamManger.getStream(frame.message().sid());
+        final StreamInternal stream = streamManger.getStream(frame.message());
 
         if (stream != null) {
             if (stream.isSingle() || frame.flag() == Flags.ReplyEnd) {
                 //如果是单收或者答复结束，则移除流接收器
-                streamManger.removeStream(frame.message().sid());
+                streamManger.removeStream(frame.message());
             }
 
             if (stream.isSingle()) {
                 //单收时，内部已经是异步机制
                 stream.onAccept(frame.message(), this);
+            } else if (getConfig().getDispatchPolicy().isInline()) {
+                //内联时，直接在 I/O 线程上交付（同一个流本来就是按到达顺序）
+                InlineWatchdog.run(() -> stream.onAccept(frame.message(), this),
+                        frame.message().sid(),
+                        getConfig().getDispatchPolicy().getBlockThreshold());
             } else {
-                //改为异步处理，避免卡死Io线程
-                getConfig().getChannelExecutor().submit(() -> {
-                    stream.onAccept(frame.message(), this);
-                });
+                //改为异步处理，避免卡死Io线程（同一个流按到达顺序，批量交付）
+                stream.onAcceptAsync(frame.message(), this, getConfig().getChannelExecutor());
             }
         } else {
             if (log.isDebugEnabled()) {
@@ -212,6 +840,14 @@ public class ChannelDefault<S> extends ChannelBase implements ChannelInternal {
         try {
             super.close(code);
             assistant.close(source);
+
+            //结束还没完成的流（不用再等超时）
+            closeStreams();
+
+            //唤醒等待可写的发送（让其失败）
+            synchronized (writableLock) {
+                writableLock.notifyAll();
+            }
         } catch (Throwable e) {
             if (log.isWarnEnabled()) {
                 log.warn("{} channel close error, sessionId={}",
@@ -219,4 +855,43 @@ public class ChannelDefault<S> extends ChannelBase implements ChannelInternal {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 结束还没完成的流（主动关闭或连接断开时）
+     */
+    @Override
+    public void closeStreams() {
+        SocketdChannelException error = new SocketdChannelException("This channel is closed, sessionId=" + getSession().sessionId());
+
+        streamManger.close(error);
+        replyFlowManager.close(error);
+        fragmentWindowManager.close(error);
+    }
+
+    @Override
+    public ReplyFlowManager getReplyFlowManager() {
+        return replyFlowManager;
+    }
+
+    @Override
+    public FragmentWindowManager getFragmentWindowManager() {
+        return fragmentWindowManager;
+    }
+
+    /**
+     * 异步发送的帧
+     */
+    private static class AsyncFrame {
+        final Frame frame;
+        final StreamInternal stream;
+        final CompletableFuture<Void> future;
+        final int size;
+
+        AsyncFrame(Frame frame, StreamInternal stream, CompletableFuture<Void> future, int size) {
+            this.frame = frame;
+            this.stream = stream;
+            this.future = future;
+            this.size = size;
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package org.noear.socketd.transport.core.internal;
 
+import org.noear.socketd.SocketD;
 import org.noear.socketd.transport.core.*;
 import org.noear.socketd.transport.core.codec.CodecDefault;
+import org.noear.socketd.transport.core.codec.CodecRegistry;
+import org.noear.socketd.transport.core.compressor.DeflateCompressor;
 import org.noear.socketd.transport.core.identifier.GuidGenerator;
 import org.noear.socketd.transport.core.fragment.FragmentHandlerDefault;
 import org.noear.socketd.transport.core.stream.StreamMangerDefault;
 import org.noear.socketd.utils.NamedThreadFactory;
+import org.noear.socketd.utils.VirtualThreads;
 
 import javax.net.ssl.SSLContext;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 
 /**
@@ -21,10 +27,11 @@ import java.util.concurrent.*;
 public abstract class ConfigBase<T extends Config> implements Config {
     //是否客户端模式
     private final boolean clientMode;
-    //流管理器
+    //流管理器（已弃用；框架不再使用，只为兼容保留）
+    @Deprecated
     private final StreamManger streamManger;
-    //编解码器
-    private final Codec codec;
+    //编解码器（按协议版本注册）
+    private final CodecRegistry codecRegistry;
 
     //id生成器
     private IdGenerator idGenerator;
@@ -32,11 +39,40 @@ public abstract class ConfigBase<T extends Config> implements Config {
     private FragmentHandler fragmentHandler;
     //分片大小
     private int fragmentSize;
+    //分片窗口策略
+    private FragmentWindowPolicy fragmentWindowPolicy;
+    //切片解码
+    private boolean sliceDecode;
+    //头部字典大小（0 表示不启用）
+    private int headerTableSize;
+    //压缩阈值（0 表示不压缩）
+    private int compressThreshold;
+    //压缩器（按优先顺序）
+    private final List<Compressor> compressors;
+    //紧凑流Id
+    private boolean sidCompact;
+    //解码转存临时文件的阈值（0 表示不启用）
+    private int decodeTempfileThreshold;
+    //冲刷策略
+    private FlushPolicy flushPolicy;
+    //写缓冲水位（高水位为 0 表示不限制）
+    private int writeBufferLowWaterMark;
+    private int writeBufferHighWaterMark;
+    //背压策略
+    private BackpressurePolicy backpressurePolicy;
+    //派发策略
+    private DispatchPolicy dispatchPolicy;
+    //削峰策略
+    private SheddingPolicy sheddingPolicy;
+    //派发统计
+    private final DispatchStats dispatchStats = new DispatchStats();
 
     //ssl 上下文
     private SSLContext sslContext;
     //通道执行器
     private volatile ExecutorService channelExecutor;
+    //是否使用虚拟线程
+    private boolean virtualThreads;
 
     //字符集
     protected Charset charset;
@@ -63,13 +99,21 @@ public abstract class ConfigBase<T extends Config> implements Config {
     public ConfigBase(boolean clientMode) {
         this.clientMode = clientMode;
         this.streamManger = new StreamMangerDefault(this);
-        this.codec = new CodecDefault(this);
+        this.codecRegistry = new CodecRegistry(new CodecDefault(this), SocketD.protocolVersion());
 
         this.charset = StandardCharsets.UTF_8;
 
         this.idGenerator = new GuidGenerator();
         this.fragmentHandler = new FragmentHandlerDefault();
         this.fragmentSize = Constants.MAX_SIZE_DATA;
+        this.fragmentWindowPolicy = FragmentWindowPolicy.NONE;
+        this.flushPolicy = FlushPolicy.IMMEDIATE;
+        this.backpressurePolicy = BackpressurePolicy.NOTIFY;
+        this.dispatchPolicy = DispatchPolicy.CONCURRENT;
+        this.sheddingPolicy = SheddingPolicy.NONE;
+
+        this.compressors = new ArrayList<>(SocketD.compressors());
+        this.compressors.add(new DeflateCompressor());
 
         this.coreThreads = Math.max(Runtime.getRuntime().availableProcessors(), 2);
         this.maxThreads = coreThreads * 4;
@@ -93,7 +137,10 @@ public abstract class ConfigBase<T extends Config> implements Config {
 
     /**
      * 获取流管理器
+     *
+     * @deprecated 2.2.3 框架不再使用（每个连接有自己的流管理器，见 Channel::getStreamManger）
      */
+    @Deprecated
     @Override
     public StreamManger getStreamManger() {
         return streamManger;
@@ -128,7 +175,42 @@ public abstract class ConfigBase<T extends Config> implements Config {
      */
     @Override
     public Codec getCodec() {
-        return codec;
+        return codecRegistry;
+    }
+
+    /**
+     * 获取编解码器
+     */
+    @Override
+    public Codec getCodec(String protocolVersion) {
+        return codecRegistry.get(protocolVersion);
+    }
+
+    /**
+     * 获取协议版本
+     */
+    @Override
+    public String getProtocolVersion() {
+        return codecRegistry.maxVersion();
+    }
+
+    /**
+     * 配置编解码器（用于当前协议版本）
+     */
+    public T codec(Codec codec) {
+        return codec(SocketD.protocolVersion(), codec);
+    }
+
+    /**
+     * 配置编解码器（用于指定协议版本；握手时双方协商取低的版本。握手帧固定用基础编解码器）
+     *
+     * @param protocolVersion 协议版本
+     * @param codec           编解码器
+     */
+    public T codec(String protocolVersion, Codec codec) {
+        Asserts.assertNull("codec", codec);
+        codecRegistry.register(protocolVersion, codec);
+        return (T) this;
     }
 
 
@@ -174,6 +256,245 @@ public abstract class ConfigBase<T extends Config> implements Config {
         return (T) this;
     }
 
+    /**
+     * 获取分片窗口策略
+     */
+    @Override
+    public FragmentWindowPolicy getFragmentWindowPolicy() {
+        return fragmentWindowPolicy;
+    }
+
+    /**
+     * 配置分片窗口策略（固定或按往返时间自动调整；接收方授信后再发）
+     */
+    public T fragmentWindowPolicy(FragmentWindowPolicy fragmentWindowPolicy) {
+        Asserts.assertNull("fragmentWindowPolicy", fragmentWindowPolicy);
+
+        this.fragmentWindowPolicy = fragmentWindowPolicy;
+        return (T) this;
+    }
+
+    /**
+     * 是否切片解码
+     */
+    @Override
+    public boolean isSliceDecode() {
+        return sliceDecode;
+    }
+
+    /**
+     * 配置切片解码（零拷贝；消息数据为传输缓冲的只读视图，在 onMessage 之后自动释放。如需异步使用，先 retain）
+     */
+    public T sliceDecode(boolean sliceDecode) {
+        this.sliceDecode = sliceDecode;
+        return (T) this;
+    }
+
+    /**
+     * 获取头部字典大小
+     */
+    @Override
+    public int getHeaderTableSize() {
+        return headerTableSize;
+    }
+
+    /**
+     * 配置头部字典大小（0 表示不启用；握手时双方协商取小的。不支持 udp）
+     */
+    public T headerTableSize(int headerTableSize) {
+        this.headerTableSize = headerTableSize;
+        return (T) this;
+    }
+
+    /**
+     * 获取压缩阈值
+     */
+    @Override
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    /**
+     * 配置压缩阈值（数据达到此大小才压缩；0 表示不压缩。压缩算法在握手时协商）
+     */
+    public T compressThreshold(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+        return (T) this;
+    }
+
+    /**
+     * 是否启用紧凑流Id
+     */
+    @Override
+    public boolean isSidCompact() {
+        return sidCompact;
+    }
+
+    /**
+     * 配置紧凑流Id（流Id改为连接内计数，varint 编码；握手时协商，双方都启用才生效）
+     */
+    public T sidCompact(boolean sidCompact) {
+        this.sidCompact = sidCompact;
+        return (T) this;
+    }
+
+    /**
+     * 获取解码转存临时文件的阈值
+     */
+    @Override
+    public int getDecodeTempfileThreshold() {
+        return decodeTempfileThreshold;
+    }
+
+    /**
+     * 配置解码转存临时文件的阈值（帧大于此值时，边收边写入临时文件，内存只占用读缓冲；0 表示不启用。
+     * 实体释放时删除临时文件，需配合 sliceDecode 自动释放，或用完后手动释放。目前 smartsocket 适配支持）
+     */
+    public T decodeTempfileThreshold(int decodeTempfileThreshold) {
+        this.decodeTempfileThreshold = decodeTempfileThreshold;
+        return (T) this;
+    }
+
+    /**
+     * 获取冲刷策略
+     */
+    @Override
+    public FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    /**
+     * 配置冲刷策略（批量或定时时，多个帧合并为一次写出；适合大量的小消息。目前 java-tcp, netty, smartsocket, java-websocket 适配支持）
+     */
+    public T flushPolicy(FlushPolicy flushPolicy) {
+        Asserts.assertNull("flushPolicy", flushPolicy);
+
+        this.flushPolicy = flushPolicy;
+        return (T) this;
+    }
+
+    /**
+     * 获取写缓冲低水位
+     */
+    @Override
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    /**
+     * 获取写缓冲高水位
+     */
+    @Override
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    /**
+     * 配置写缓冲水位（待写数据超过高水位时不可写，降到低水位时恢复；按帧的数据估算。默认不限制）
+     */
+    public T writeBufferWaterMark(int low, int high) {
+        if (low < 0 || high < low) {
+            throw new IllegalArgumentException("The write buffer water mark must be: 0 <= low <= high");
+        }
+
+        this.writeBufferLowWaterMark = low;
+        this.writeBufferHighWaterMark = high;
+        return (T) this;
+    }
+
+    /**
+     * 获取背压策略
+     */
+    @Override
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+
+    /**
+     * 配置背压策略（超过高水位时：通知、快速失败，或等待）
+     */
+    public T backpressurePolicy(BackpressurePolicy backpressurePolicy) {
+        Asserts.assertNull("backpressurePolicy", backpressurePolicy);
+
+        this.backpressurePolicy = backpressurePolicy;
+        return (T) this;
+    }
+
+    /**
+     * 获取派发策略
+     */
+    @Override
+    public DispatchPolicy getDispatchPolicy() {
+        return dispatchPolicy;
+    }
+
+    /**
+     * 配置派发策略（并发、会话有序、流有序或内联；有序时不同会话之间公平轮转）
+     */
+    public T dispatchPolicy(DispatchPolicy dispatchPolicy) {
+        Asserts.assertNull("dispatchPolicy", dispatchPolicy);
+
+        this.dispatchPolicy = dispatchPolicy;
+        return (T) this;
+    }
+
+    /**
+     * 获取削峰策略
+     */
+    @Override
+    public SheddingPolicy getSheddingPolicy() {
+        return sheddingPolicy;
+    }
+
+    /**
+     * 配置削峰策略（按容量或逗留时间；被拒绝的请求与订阅会收到 "过载" 告警）
+     */
+    public T sheddingPolicy(SheddingPolicy sheddingPolicy) {
+        Asserts.assertNull("sheddingPolicy", sheddingPolicy);
+
+        this.sheddingPolicy = sheddingPolicy;
+        return (T) this;
+    }
+
+    /**
+     * 获取派发统计
+     */
+    @Override
+    public DispatchStats getDispatchStats() {
+        return dispatchStats;
+    }
+
+    /**
+     * 获取压缩器
+     */
+    @Override
+    public List<Compressor> getCompressors() {
+        return compressors;
+    }
+
+    /**
+     * 获取压缩器
+     */
+    @Override
+    public Compressor getCompressor(String name) {
+        for (Compressor compressor : compressors) {
+            if (compressor.name().equals(name)) {
+                return compressor;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 添加压缩器（优先使用；例如带共享字典的）
+     */
+    public T compressor(Compressor compressor) {
+        this.compressors.removeIf(c -> c.name().equals(compressor.name()));
+        this.compressors.add(0, compressor);
+        return (T) this;
+    }
+
     /**
      * 获取标识生成器
      */
@@ -215,12 +536,17 @@ public abstract class ConfigBase<T extends Config> implements Config {
         if (channelExecutor == null) {
             synchronized (EXECUTOR_LOCK) {
                 if (channelExecutor == null) {
-                    int nThreads = clientMode() ? coreThreads : maxThreads;
-
-                    channelExecutor = new ThreadPoolExecutor(nThreads, nThreads,
-                            0L, TimeUnit.MILLISECONDS,
-                            new LinkedBlockingQueue<Runnable>(),
-                            new NamedThreadFactory("Socketd-channelExecutor-"));
+                    if (isVirtualThreads()) {
+                        //每个任务一个虚拟线程（处理中阻塞等待时，不占用平台线程）
+                        channelExecutor = VirtualThreads.newExecutor("Socketd-channelExecutor-");
+                    } else {
+                        int nThreads = clientMode() ? coreThreads : maxThreads;
+
+                        channelExecutor = new ThreadPoolExecutor(nThreads, nThreads,
+                                0L, TimeUnit.MILLISECONDS,
+                                new LinkedBlockingQueue<Runnable>(),
+                                new NamedThreadFactory("Socketd-channelExecutor-"));
+                    }
                 }
             }
         }
@@ -242,6 +568,22 @@ public abstract class ConfigBase<T extends Config> implements Config {
         return (T) this;
     }
 
+    /**
+     * 是否使用虚拟线程（配置了，且 JDK 21+）
+     */
+    @Override
+    public boolean isVirtualThreads() {
+        return virtualThreads && VirtualThreads.isSupported();
+    }
+
+    /**
+     * 配置是否使用虚拟线程（JDK 21+ 有效，否则仍用平台线程。通道执行器改为每个任务一个虚拟线程；java-tcp, java-udp 适配的收发循环也用虚拟线程）
+     */
+    public T virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return (T) this;
+    }
+
     /**
      * 获取核心线程数
      */
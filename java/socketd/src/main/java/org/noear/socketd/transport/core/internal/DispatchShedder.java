@@ -0,0 +1,94 @@
+package org.noear.socketd.transport.core.internal;
+
+import org.noear.socketd.transport.core.DispatchStats;
+import org.noear.socketd.transport.core.SheddingPolicy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 派发削峰器（每个服务端或客户端一个；入队时按容量接纳，出队时按逗留时间（CoDel）拒绝）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class DispatchShedder {
+    private final SheddingPolicy policy;
+    private final DispatchStats stats;
+    private final long targetNanos;
+    private final long intervalNanos;
+
+    //当前间隔内的最小逗留时间
+    private final AtomicLong windowMinNanos = new AtomicLong(Long.MAX_VALUE);
+    //当前间隔的开始时间
+    private volatile long windowStartNanos = System.nanoTime();
+    //是否过载
+    private volatile boolean overloaded;
+
+    public DispatchShedder(SheddingPolicy policy, DispatchStats stats) {
+        this.policy = policy;
+        this.stats = stats;
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(policy.getTargetDelay());
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(policy.getInterval());
+    }
+
+    /**
+     * 入队（超过容量时拒绝）
+     *
+     * @return 是否接纳
+     */
+    public boolean tryEnqueue() {
+        int depth = stats.recordQueued();
+
+        if (policy.getCapacity() > 0 && depth > policy.getCapacity()) {
+            stats.recordDequeued();
+            stats.recordRejected();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * 出队（开始处理前；逗留太久时拒绝）
+     *
+     * @param queuedNanos 入队时间
+     * @return 是否处理
+     */
+    public boolean tryDequeue(long queuedNanos) {
+        stats.recordDequeued();
+
+        if (policy.isCodel()) {
+            long now = System.nanoTime();
+            long sojourn = now - queuedNanos;
+
+            observe(sojourn, now);
+
+            //过载时按目标延时拒绝，否则给突发留一个间隔的余地
+            if (sojourn > (overloaded ? targetNanos : intervalNanos)) {
+                stats.recordRejected();
+                return false;
+            }
+        }
+
+        stats.recordAdmitted();
+        return true;
+    }
+
+    /**
+     * 观察逗留时间（一个间隔内的最小逗留时间超过目标延时，则为过载）
+     */
+    private void observe(long sojourn, long now) {
+        windowMinNanos.accumulateAndGet(sojourn, Math::min);
+
+        if (now - windowStartNanos >= intervalNanos) {
+            synchronized (this) {
+                if (now - windowStartNanos >= intervalNanos) {
+                    overloaded = windowMinNanos.getAndSet(Long.MAX_VALUE) > targetNanos;
+                    windowStartNanos = now;
+                    stats.overloadedSet(overloaded);
+                }
+            }
+        }
+    }
+}
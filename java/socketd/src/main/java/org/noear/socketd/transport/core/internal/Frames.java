@@ -77,4 +77,52 @@ public class Frames {
 
         return new Frame(Flags.Alarm, message.build());
     }
+
+    /**
+     * 构建告警帧（带告警码）
+     */
+    public static final Frame alarmFrame(Message from, String alarm, int code) {
+        Frame frame = alarmFrame(from, alarm);
+        frame.message().putMeta(EntityMetas.META_ALARM_CODE, String.valueOf(code));
+        return frame;
+    }
+
+    /**
+     * 构建授信帧
+     *
+     * @param sid    流Id
+     * @param credit 授信（答复数）
+     */
+    public static final Frame creditFrame(String sid, long credit) {
+        EntityDefault entity = new EntityDefault();
+        entity.metaPut(EntityMetas.META_STREAM_CREDIT, String.valueOf(credit));
+        return new Frame(Flags.Credit, new MessageBuilder().sid(sid).entity(entity).build());
+    }
+
+    /**
+     * 构建分片授信帧
+     *
+     * @param sid           流Id
+     * @param isReply       是否为答复的分片
+     * @param fragmentIndex 分片索引
+     * @param credit        授信（字节数）
+     */
+    public static final Frame fragmentCreditFrame(String sid, boolean isReply, int fragmentIndex, int credit) {
+        EntityDefault entity = new EntityDefault();
+        entity.metaPut(EntityMetas.META_DATA_FRAGMENT_CREDIT, String.valueOf(credit));
+        entity.metaPut(EntityMetas.META_DATA_FRAGMENT_IDX, String.valueOf(fragmentIndex));
+        if (isReply) {
+            entity.metaPut(EntityMetas.META_DATA_FRAGMENT_REPLY, "1");
+        }
+        return new Frame(Flags.Credit, new MessageBuilder().sid(sid).entity(entity).build());
+    }
+
+    /**
+     * 构建取消帧
+     *
+     * @param sid 流Id
+     */
+    public static final Frame cancelFrame(String sid) {
+        return new Frame(Flags.Cancel, new MessageBuilder().sid(sid).entity(new EntityDefault()).build());
+    }
 }
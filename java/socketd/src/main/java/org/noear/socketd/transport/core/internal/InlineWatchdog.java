@@ -0,0 +1,175 @@
+package org.noear.socketd.transport.core.internal;
+
+import org.noear.socketd.utils.RunUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 内联看门狗（内联处理是在 I/O 线程上执行的，阻塞太久时告警）
+ *
+ * <pre>
+ * 每个 I/O 线程一个观察点，处理前后只记录开始时间（没有加锁和分配）
+ * 后台定时检查：还没处理完且超过阈值的，带上 I/O 线程的调用栈告警一次
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class InlineWatchdog {
+    private static final Logger log = LoggerFactory.getLogger(InlineWatchdog.class);
+
+    //检查间隔（毫秒）
+    private static final long CHECK_INTERVAL = 100;
+
+    private static final Queue<Watch> watches = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<Watch> watchLocal = ThreadLocal.withInitial(InlineWatchdog::register);
+    private static final AtomicBoolean started = new AtomicBoolean();
+    //当前线程是否在内联执行（不看护时也标记）
+    private static final ThreadLocal<Boolean> inlineLocal = new ThreadLocal<>();
+
+    /**
+     * 当前线程是否在内联执行（即在 I/O 线程上处理；此时不能等待要由这个线程读取的帧，比如授信）
+     */
+    public static boolean isInline() {
+        return inlineLocal.get() != null;
+    }
+
+    /**
+     * 内联执行（并看护）
+     *
+     * @param task           任务
+     * @param tag            标记（告警时显示，一般为事件或流Id）
+     * @param blockThreshold 阻塞阈值（毫秒；0 表示不看护）
+     */
+    public static void run(Runnable task, String tag, long blockThreshold) {
+        if (inlineLocal.get() != null) {
+            //嵌套时，由外层标记与看护
+            task.run();
+            return;
+        }
+
+        inlineLocal.set(Boolean.TRUE);
+        try {
+            runDo(task, tag, blockThreshold);
+        } finally {
+            inlineLocal.remove();
+        }
+    }
+
+    private static void runDo(Runnable task, String tag, long blockThreshold) {
+        if (blockThreshold <= 0) {
+            task.run();
+            return;
+        }
+
+        Watch watch = watchLocal.get();
+
+        watch.begin(tag, TimeUnit.MILLISECONDS.toNanos(blockThreshold));
+        try {
+            task.run();
+        } finally {
+            watch.end();
+        }
+    }
+
+    private static Watch register() {
+        Watch watch = new Watch(Thread.currentThread());
+        watches.add(watch);
+
+        if (started.compareAndSet(false, true)) {
+            RunUtils.scheduleAtFixedRate(InlineWatchdog::check, CHECK_INTERVAL, CHECK_INTERVAL);
+        }
+
+        return watch;
+    }
+
+    /**
+     * 检查（定时执行，不能阻塞）
+     */
+    private static void check() {
+        long now = System.nanoTime();
+
+        for (Iterator<Watch> it = watches.iterator(); it.hasNext(); ) {
+            Watch watch = it.next();
+
+            if (watch.thread.isAlive() == false) {
+                it.remove();
+                continue;
+            }
+
+            try {
+                watch.check(now);
+            } catch (Throwable e) {
+                //略...
+            }
+        }
+    }
+
+    /**
+     * 观察点（一个线程一个）
+     */
+    private static class Watch {
+        private final Thread thread;
+        //开始时间（0 表示空闲）
+        private volatile long startNanos;
+        private String tag;
+        private long thresholdNanos;
+        //本次是否已告警
+        private volatile boolean warned;
+
+        Watch(Thread thread) {
+            this.thread = thread;
+        }
+
+        void begin(String tag, long thresholdNanos) {
+            this.tag = tag;
+            this.thresholdNanos = thresholdNanos;
+            this.warned = false;
+            //最后写，检查线程读到它时 tag 等也可见
+            this.startNanos = System.nanoTime();
+        }
+
+        void end() {
+            long elapsed = System.nanoTime() - startNanos;
+            startNanos = 0L;
+
+            if (elapsed > thresholdNanos && log.isWarnEnabled()) {
+                log.warn("Inline handler blocked the I/O thread for {}ms (threshold {}ms): {}, thread={}",
+                        TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        TimeUnit.NANOSECONDS.toMillis(thresholdNanos),
+                        tag,
+                        thread.getName());
+            }
+        }
+
+        void check(long now) {
+            long start = startNanos;
+
+            if (start == 0L || warned) {
+                return;
+            }
+
+            if (now - start > thresholdNanos) {
+                warned = true;
+
+                if (log.isWarnEnabled()) {
+                    //带上 I/O 线程当前的调用栈，方便找到阻塞点
+                    Throwable blocked = new Throwable("Inline handler is blocking the I/O thread: " + thread.getName());
+                    blocked.setStackTrace(thread.getStackTrace());
+
+                    //再确认下还是同一次处理
+                    if (startNanos == start) {
+                        log.warn("Inline handler is blocking the I/O thread for over {}ms: {}",
+                                TimeUnit.NANOSECONDS.toMillis(thresholdNanos), tag, blocked);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.noear.socketd.transport.core.MessageInternal;
 public class MessageBuilder {
     private int flag = Flags.Unknown;
     private String sid = Constants.DEF_SID;
+    private long sidCompact = -1;
     private String event = Constants.DEF_EVENT;
     private Entity entity = null;
 
@@ -30,6 +31,18 @@ public class MessageBuilder {
      */
     public MessageBuilder sid(String sid) {
         this.sid = sid;
+        this.sidCompact = -1;
+        return this;
+    }
+
+    /**
+     * 设置流id（紧凑格式；字符串形式需要时再生成）
+     *
+     * @since 2.2.3
+     */
+    public MessageBuilder sid(long sidCompact) {
+        this.sid = null;
+        this.sidCompact = sidCompact;
         return this;
     }
 
@@ -54,6 +67,10 @@ public class MessageBuilder {
      * 构建
      */
     public MessageInternal build() {
-        return new MessageDefault(flag, sid, event, entity);
+        if (sid == null) {
+            return new MessageDefault(flag, sidCompact, event, entity);
+        } else {
+            return new MessageDefault(flag, sid, event, entity);
+        }
     }
 }
@@ -1,6 +1,7 @@
 package org.noear.socketd.transport.core.internal;
 
 import org.noear.socketd.transport.core.*;
+import org.noear.socketd.transport.core.stream.ReplyFlow;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -15,13 +16,28 @@ import java.util.Map;
  */
 public class MessageDefault implements MessageInternal {
     private final int flag;
-    private final String sid;
+    private String sid;
+    //紧凑流Id（-2 表示未解析）
+    private long sidCompact;
     private final String event;
     private final Entity entity;
+    //答复流控（订阅方启用流控时才有）
+    private ReplyFlow replyFlow;
 
     public MessageDefault(int flag, String sid, String event, Entity entity) {
         this.flag = flag;
         this.sid = sid;
+        this.sidCompact = -2;
+        this.event = event;
+        this.entity = entity;
+    }
+
+    /**
+     * @since 2.2.3
+     */
+    public MessageDefault(int flag, long sidCompact, String event, Entity entity) {
+        this.flag = flag;
+        this.sidCompact = sidCompact;
         this.event = event;
         this.entity = entity;
     }
@@ -63,9 +79,48 @@ public class MessageDefault implements MessageInternal {
      */
     @Override
     public String sid() {
+        if (sid == null) {
+            sid = Long.toString(sidCompact);
+        }
+
         return sid;
     }
 
+    /**
+     * 获取紧凑流Id（流Id为 18 位以内的数字时，才是紧凑格式）
+     */
+    @Override
+    public long sidCompact() {
+        if (sidCompact == -2) {
+            sidCompact = parseSidCompact(sid);
+        }
+
+        return sidCompact;
+    }
+
+    private static long parseSidCompact(String sid) {
+        if (sid == null || sid.length() == 0 || sid.length() > 18) {
+            return -1;
+        }
+
+        long val = 0;
+        for (int i = 0; i < sid.length(); i++) {
+            char c = sid.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+
+            val = val * 10 + (c - '0');
+        }
+
+        if (sid.length() > 1 && sid.charAt(0) == '0') {
+            //非规范格式（还原后不一致）
+            return -1;
+        }
+
+        return val;
+    }
+
     /**
      * 获取消息事件
      */
@@ -82,10 +137,46 @@ public class MessageDefault implements MessageInternal {
         return entity;
     }
 
+    /**
+     * 获取订阅方还需要的答复数
+     */
+    @Override
+    public long demand() {
+        return replyFlow == null ? Long.MAX_VALUE : replyFlow.credit();
+    }
+
+    /**
+     * 是否已取消（订阅方取消了订阅，或者连接断开了）
+     */
+    @Override
+    public boolean isCancelled() {
+        return replyFlow != null && replyFlow.isCancelled();
+    }
+
+    /**
+     * 取消时
+     */
+    @Override
+    public void onCancel(Runnable handler) {
+        if (replyFlow != null) {
+            replyFlow.onCancel(handler);
+        }
+    }
+
+    @Override
+    public ReplyFlow getReplyFlow() {
+        return replyFlow;
+    }
+
+    @Override
+    public void setReplyFlow(ReplyFlow replyFlow) {
+        this.replyFlow = replyFlow;
+    }
+
     @Override
     public String toString() {
         return "Message{" +
-                "sid='" + sid + '\'' +
+                "sid='" + sid() + '\'' +
                 ", event='" + event + '\'' +
                 ", entity=" + entity +
                 '}';
@@ -136,6 +227,15 @@ public class MessageDefault implements MessageInternal {
         return entity.dataSize();
     }
 
+    @Override
+    public MessageDefault retain() {
+        if (entity != null) {
+            entity.retain();
+        }
+
+        return this;
+    }
+
     @Override
     public void release() throws IOException {
         if (entity != null) {
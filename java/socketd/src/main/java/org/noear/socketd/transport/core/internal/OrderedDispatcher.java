@@ -0,0 +1,123 @@
+package org.noear.socketd.transport.core.internal;
+
+import org.noear.socketd.transport.core.DispatchPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 有序派发器（每个通道一个；不为会话建线程，而是用信箱轮转共享执行器）
+ *
+ * <pre>
+ * 每个信箱同一时间最多在执行器里占一个位置，信箱里的任务依次执行
+ * 执行完一个时间片，如果还有任务，就重新排到执行器队尾（公平轮转，一个连接占不满线程池）
+ * 会话有序时只有一个信箱；流有序时按 sid 分条
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class OrderedDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(OrderedDispatcher.class);
+
+    //流有序时的分条数
+    private static final int STREAM_STRIPES = 16;
+
+    private final Executor executor;
+    private final int quantum;
+    private final Mailbox[] mailboxes;
+
+    public OrderedDispatcher(Executor executor, DispatchPolicy policy) {
+        this.executor = executor;
+        this.quantum = policy.getQuantum();
+        this.mailboxes = new Mailbox[policy.isStreamOrdered() ? STREAM_STRIPES : 1];
+
+        for (int i = 0; i < mailboxes.length; i++) {
+            mailboxes[i] = new Mailbox();
+        }
+    }
+
+    /**
+     * 派发
+     *
+     * @param sid  流Id（用于分条）
+     * @param task 任务
+     */
+    public void dispatch(String sid, Runnable task) {
+        Mailbox mailbox;
+        if (mailboxes.length == 1) {
+            mailbox = mailboxes[0];
+        } else {
+            mailbox = mailboxes[(sid.hashCode() & 0x7FFFFFFF) % mailboxes.length];
+        }
+
+        mailbox.add(task);
+    }
+
+    /**
+     * 信箱
+     */
+    private class Mailbox implements Runnable {
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void add(Runnable task) {
+            queue.add(task);
+
+            if (scheduled.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                throw e;
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < quantum; i++) {
+                Runnable task = queue.poll();
+                if (task == null) {
+                    break;
+                }
+
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    if (log.isWarnEnabled()) {
+                        log.warn("Ordered dispatch task error", e);
+                    }
+                }
+            }
+
+            if (queue.isEmpty()) {
+                scheduled.set(false);
+
+                //释放标记后，再确认一下（避免刚入队的没人处理）
+                if (queue.isEmpty() || scheduled.compareAndSet(false, true) == false) {
+                    return;
+                }
+            }
+
+            //还有任务，排到执行器队尾
+            try {
+                schedule();
+            } catch (RejectedExecutionException e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("Ordered dispatch rejected, {} tasks dropped", queue.size());
+                }
+                queue.clear();
+            }
+        }
+    }
+}
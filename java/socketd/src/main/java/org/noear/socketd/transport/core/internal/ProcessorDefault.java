@@ -1,13 +1,20 @@
 package org.noear.socketd.transport.core.internal;
 
 import org.noear.socketd.exception.SocketdAlarmException;
+import org.noear.socketd.exception.SocketdCodecException;
 import org.noear.socketd.exception.SocketdConnectionException;
+import org.noear.socketd.exception.SocketdSizeLimitException;
 import org.noear.socketd.transport.core.*;
+import org.noear.socketd.transport.core.entity.EntityDefault;
 import org.noear.socketd.transport.core.listener.SimpleListener;
+import org.noear.socketd.transport.core.stream.ReplyFlow;
+import org.noear.socketd.utils.RunUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 协议处理器默认实现
@@ -19,6 +26,8 @@ public class ProcessorDefault implements Processor {
     private static Logger log = LoggerFactory.getLogger(ProcessorDefault.class);
 
     private Listener listener = new SimpleListener();
+    //派发削峰器（按需创建）
+    private volatile DispatchShedder shedder;
 
     /**
      * 设置监听
@@ -77,6 +86,10 @@ public class ProcessorDefault implements Processor {
             onOpen(channel);
         } else {
             if (channel.getHandshake() == null) {
+                if (frame.message() != null) {
+                    RunUtils.runAndTry(frame.message()::release);
+                }
+
                 channel.close(Constants.CLOSE1_PROTOCOL);
 
                 if(frame.flag() == Flags.Close){
@@ -110,15 +123,41 @@ public class ProcessorDefault implements Processor {
                     case Flags.Alarm: {
                         //结束流，并异常通知
                         SocketdAlarmException exception = new SocketdAlarmException(frame.message());
-                        StreamInternal stream = channel.getConfig().getStreamManger().getStream(frame.message().sid());
+                        StreamInternal stream = channel.getStreamManger().getStream(frame.message());
                         if (stream == null) {
                             onError(channel, exception);
                         } else {
-                            channel.getConfig().getStreamManger().removeStream(frame.message().sid());
+                            channel.getStreamManger().removeStream(frame.message());
                             stream.onError(exception);
                         }
                         break;
                     }
+                    case Flags.Credit: {
+                        String fragmentCredit = frame.message().meta(EntityMetas.META_DATA_FRAGMENT_CREDIT);
+                        if (fragmentCredit != null) {
+                            //接收方分片授信（放行等待窗口的分片）
+                            channel.getFragmentWindowManager().grant(frame.message().sid(),
+                                    "1".equals(frame.message().meta(EntityMetas.META_DATA_FRAGMENT_REPLY)),
+                                    Integer.parseInt(frame.message().metaOrDefault(EntityMetas.META_DATA_FRAGMENT_IDX, "0")),
+                                    Integer.parseInt(fragmentCredit));
+                            break;
+                        }
+
+                        //订阅方授信（放行排队的答复）
+                        ReplyFlow replyFlow = channel.getReplyFlowManager().getFlow(frame.message().sid());
+                        if (replyFlow != null) {
+                            replyFlow.grant(Long.parseLong(frame.message().metaOrDefault(EntityMetas.META_STREAM_CREDIT, "0")));
+                        }
+                        break;
+                    }
+                    case Flags.Cancel: {
+                        //订阅方取消（停止答复，并通知答复方的处理）
+                        ReplyFlow replyFlow = channel.getReplyFlowManager().getFlow(frame.message().sid());
+                        if (replyFlow != null) {
+                            replyFlow.cancel();
+                        }
+                        break;
+                    }
                     case Flags.Message:
                     case Flags.Request:
                     case Flags.Subscribe: {
@@ -149,7 +188,20 @@ public class ProcessorDefault implements Processor {
             if (fragmentIdxStr != null) {
                 //解析分片索引
                 int index = Integer.parseInt(fragmentIdxStr);
-                Frame frameNew = channel.getConfig().getFragmentHandler().aggrFragment(channel, index, frame.message());
+                int fragmentSize = frame.message().dataSize();
+                Frame frameNew;
+                try {
+                    frameNew = channel.getConfig().getFragmentHandler().aggrFragment(channel, index, frame.message());
+                } catch (SocketdSizeLimitException e) {
+                    //超过聚合上限（分片已丢弃），告警给发送方
+                    if (isReply == false && (frame.message().isRequest() || frame.message().isSubscribe())) {
+                        channel.send(Frames.alarmFrame(frame.message(), e.getMessage(), Constants.ALARM2_SIZE_LIMIT), null);
+                    }
+                    throw e;
+                } finally {
+                    //已聚合（或落盘、丢弃），授信给发送方（窗口只限制在途；内存聚合的占用，由聚合上限限制）
+                    creditFragment(channel, frame.message().sid(), isReply, index, fragmentSize);
+                }
 
                 if (frameNew == null) {
                     return;
@@ -157,6 +209,22 @@ public class ProcessorDefault implements Processor {
                     frame = frameNew;
                 }
             }
+        } else if (isReply) {
+            //不聚合时，答复的分片交给流接收器就授信
+            creditFragment(channel, frame.message(), true);
+        }
+
+        //如果有压缩，先解压
+        if (frame.message().meta(EntityMetas.META_DATA_COMPRESS) != null) {
+            frame = decompress(channel, frame);
+        }
+
+        //订阅（可以被取消；订阅方启用了流控时，按授信答复）
+        if (frame.flag() == Flags.Subscribe) {
+            String credit = frame.message().meta(EntityMetas.META_STREAM_CREDIT);
+            long creditVal = (credit == null ? Long.MAX_VALUE : Long.parseLong(credit));
+            frame.message().setReplyFlow(channel.getReplyFlowManager().addFlow(frame.message().sid(), creditVal,
+                    channel.getConfig().getStreamTimeout()));
         }
 
         //执行接收处理
@@ -167,15 +235,79 @@ public class ProcessorDefault implements Processor {
         }
     }
 
+    /**
+     * 分片授信（对方发送分片用窗口时；不聚合的消息分片，处理完后授信）
+     */
+    private void creditFragment(ChannelInternal channel, Message message, boolean isReply) {
+        if (channel.getConfig().getFragmentHandler().aggrEnable()) {
+            return;
+        }
+
+        String fragmentIdxStr = message.meta(EntityMetas.META_DATA_FRAGMENT_IDX);
+        if (fragmentIdxStr != null) {
+            creditFragment(channel, message.sid(), isReply, Integer.parseInt(fragmentIdxStr), message.dataSize());
+        }
+    }
+
+    private void creditFragment(ChannelInternal channel, String sid, boolean isReply, int fragmentIndex, int fragmentSize) {
+        if (channel.getFragmentWindowManager().isCrediting() == false) {
+            return;
+        }
+
+        try {
+            channel.send(Frames.fragmentCreditFrame(sid, isReply, fragmentIndex, fragmentSize), null);
+        } catch (Throwable e) {
+            if (log.isWarnEnabled()) {
+                log.warn("{} channel send fragment credit error",
+                        channel.getConfig().getRoleName(), e);
+            }
+        }
+    }
+
+    /**
+     * 解压（去掉压缩相关的元信息，对使用者透明）
+     */
+    private Frame decompress(ChannelInternal channel, Frame frame) throws IOException {
+        MessageInternal message = frame.message();
+        String name = message.meta(EntityMetas.META_DATA_COMPRESS);
+        Compressor compressor = channel.getConfig().getCompressor(name);
+
+        if (compressor == null) {
+            throw new SocketdCodecException("Unsupported compress: " + name);
+        }
+
+        int originalSize = Integer.parseInt(message.metaOrDefault(EntityMetas.META_DATA_ORIGINAL_LENGTH, "-1"));
+        if (originalSize < 0 || originalSize > Constants.MAX_SIZE_DATA) {
+            throw new SocketdCodecException("Invalid '" + EntityMetas.META_DATA_ORIGINAL_LENGTH + "' meta: " + originalSize);
+        }
+
+        byte[] data;
+        try {
+            data = compressor.decompress(message.dataAsBytes(), originalSize);
+        } finally {
+            RunUtils.runAndTry(message::release);
+        }
+
+        Map<String, String> metaMap = new ConcurrentHashMap<>(message.metaMap());
+        metaMap.remove(EntityMetas.META_DATA_COMPRESS);
+        metaMap.remove(EntityMetas.META_DATA_ORIGINAL_LENGTH);
+
+        return new Frame(frame.flag(), new MessageBuilder()
+                .flag(frame.flag())
+                .sid(message.sid())
+                .event(message.event())
+                .entity(new EntityDefault().metaMapSet(metaMap).dataSet(data))
+                .build(), frame.features());
+    }
 
     /**
-     * 打开时
+     * 打开时（内联派发时也内联处理：之后的消息在同一个 I/O 线程上处理，不会先于 onOpen）
      *
      * @param channel 通道
      */
     @Override
     public void onOpen(ChannelInternal channel) {
-        channel.getConfig().getChannelExecutor().submit(() -> {
+        Runnable task = () -> {
             try {
                 listener.onOpen(channel.getSession());
                 channel.doOpenFuture(true, null);
@@ -186,7 +318,14 @@ public class ProcessorDefault implements Processor {
                 }
                 channel.doOpenFuture(false, e);
             }
-        });
+        };
+
+        DispatchPolicy dispatchPolicy = channel.getConfig().getDispatchPolicy();
+        if (dispatchPolicy.isInline()) {
+            InlineWatchdog.run(task, "onOpen", dispatchPolicy.getBlockThreshold());
+        } else {
+            channel.getConfig().getChannelExecutor().submit(task);
+        }
     }
 
     /**
@@ -197,7 +336,25 @@ public class ProcessorDefault implements Processor {
      */
     @Override
     public void onMessage(ChannelInternal channel, Message message) {
-        channel.getConfig().getChannelExecutor().submit(() -> {
+        DispatchPolicy dispatchPolicy = channel.getConfig().getDispatchPolicy();
+        boolean inline = dispatchPolicy.isInline() || listener.isInline(channel.getSession(), message);
+        DispatchShedder shedder = inline ? null : getShedder(channel.getConfig());
+
+        //入队前，按容量削峰
+        if (shedder != null && shedder.tryEnqueue() == false) {
+            onShed(channel, message);
+            return;
+        }
+
+        final long queuedNanos = (shedder == null ? 0L : System.nanoTime());
+
+        Runnable task = () -> {
+            //出队后，按逗留时间削峰
+            if (shedder != null && shedder.tryDequeue(queuedNanos) == false) {
+                onShed(channel, message);
+                return;
+            }
+
             try {
                 listener.onMessage(channel.getSession(), message);
             } catch (Throwable e) {
@@ -206,8 +363,77 @@ public class ProcessorDefault implements Processor {
                             channel.getConfig().getRoleName(), e);
                 }
                 onError(channel, e);
+            } finally {
+                creditFragment(channel, message, false);
+
+                if (channel.getConfig().isSliceDecode()) {
+                    //切片解码时，自动释放（如需继续使用，要先 retain）
+                    RunUtils.runAndTry(message::release);
+                }
             }
-        });
+        };
+
+        if (inline) {
+            //内联（直接在 I/O 线程上处理，由看门狗检测阻塞）
+            InlineWatchdog.run(task, message.event(), dispatchPolicy.getBlockThreshold());
+        } else if (dispatchPolicy.isOrdered()) {
+            //有序（同一会话或流依次处理）
+            channel.getDispatcher().dispatch(message.sid(), task);
+        } else {
+            channel.getConfig().getChannelExecutor().submit(task);
+        }
+    }
+
+    /**
+     * 获取派发削峰器（没有启用则为 null）
+     */
+    private DispatchShedder getShedder(Config config) {
+        if (shedder == null) {
+            SheddingPolicy policy = config.getSheddingPolicy();
+
+            if (policy.isEnabled() == false) {
+                return null;
+            }
+
+            synchronized (this) {
+                if (shedder == null) {
+                    shedder = new DispatchShedder(policy, config.getDispatchStats());
+                }
+            }
+        }
+
+        return shedder;
+    }
+
+    /**
+     * 削峰时（请求与订阅立即答复 "过载" 告警，让对方可以换个节点重试）
+     *
+     * @param channel 通道
+     * @param message 消息
+     */
+    private void onShed(ChannelInternal channel, Message message) {
+        try {
+            if (message.isRequest() || message.isSubscribe()) {
+                channel.send(Frames.alarmFrame(message, "Overloaded, the message was rejected", Constants.ALARM1_OVERLOADED), null);
+            }
+        } catch (Throwable e) {
+            if (log.isWarnEnabled()) {
+                log.warn("{} channel send overloaded alarm error",
+                        channel.getConfig().getRoleName(), e);
+            }
+        } finally {
+            //告警了，不会再答复
+            if (message instanceof MessageInternal && ((MessageInternal) message).getReplyFlow() != null) {
+                ((MessageInternal) message).getReplyFlow().end();
+            }
+
+            creditFragment(channel, message, false);
+
+            if (channel.getConfig().isSliceDecode()) {
+                //切片解码时，自动释放
+                RunUtils.runAndTry(message::release);
+            }
+        }
     }
 
     /**
@@ -217,6 +443,9 @@ public class ProcessorDefault implements Processor {
      */
     @Override
     public void onClose(ChannelInternal channel) {
+        //连接断开了，结束还没完成的流
+        channel.closeStreams();
+
         if (channel.isClosed() == 0) {
             onCloseInternal(channel);
         }
@@ -241,4 +470,24 @@ public class ProcessorDefault implements Processor {
     public void onError(ChannelInternal channel, Throwable error) {
         listener.onError(channel.getSession(), error);
     }
+
+    /**
+     * 可写状态变化时（异步通知，回调里可以继续发送）
+     *
+     * @param channel  通道
+     * @param writable 是否可写
+     */
+    @Override
+    public void onWritabilityChanged(ChannelInternal channel, boolean writable) {
+        channel.getConfig().getChannelExecutor().submit(() -> {
+            try {
+                listener.onWritabilityChanged(channel.getSession(), writable);
+            } catch (Throwable e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("{} channel listener onWritabilityChanged error",
+                            channel.getConfig().getRoleName(), e);
+                }
+            }
+        });
+    }
 }
\ No newline at end of file
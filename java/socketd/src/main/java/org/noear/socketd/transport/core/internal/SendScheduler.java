@@ -0,0 +1,226 @@
+package org.noear.socketd.transport.core.internal;
+
+import org.noear.socketd.utils.RunnableEx;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 发送调度器（每个通道一个）
+ *
+ * <pre>
+ * 以帧为单位排队（无锁队列，多生产者单消费者），抢到排空权的线程代其它线程写出（同一时间只有一个线程写传输）：
+ * 控制帧（握手、心跳、关闭、告警）优先，插在排队的数据帧前面写出
+ * 数据帧按到达顺序轮转：大数据每发一个分片就让出一次，其它流的分片及小消息可以插在中间发送
+ * 同一个流的分片不能交错（接收端按 sid 聚合），后来的需等前面的发完
+ * 写帧的线程等到自己的帧写完才返回（错误也抛给它）；代写够一批后，把排空权交给排在前面的线程
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class SendScheduler {
+    //一次最多代写的帧数（之后交出排空权，避免一个线程一直代写）
+    private static final int MAX_DRAIN_BATCH = 64;
+
+    //控制帧队列与数据帧队列
+    private final Queue<WriteTask> urgentQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<WriteTask> normalQueue = new ConcurrentLinkedQueue<>();
+    //正在排空的线程（可重入）
+    private final AtomicReference<Thread> drainer = new AtomicReference<>();
+    //正在分片发送的流
+    private final Set<String> fragmentingSids = new HashSet<>();
+
+    /**
+     * 写一帧（数据帧，按到达顺序）
+     */
+    public void write(RunnableEx<IOException> task) throws IOException {
+        writeAndWait(task, normalQueue);
+    }
+
+    /**
+     * 优先写一帧（控制帧，插在排队的数据帧前面）
+     */
+    public void writeUrgent(RunnableEx<IOException> task) throws IOException {
+        writeAndWait(task, urgentQueue);
+    }
+
+    /**
+     * 投递（排在数据帧后面，不等待写完；错误由任务自己处理）
+     */
+    public void post(RunnableEx<IOException> task) {
+        normalQueue.add(new WriteTask(task, null));
+
+        if (drainer.get() == null && drainer.compareAndSet(null, Thread.currentThread())) {
+            drain(null);
+        }
+    }
+
+    /**
+     * 是否有等待写的帧
+     */
+    public boolean hasQueuedWriters() {
+        return urgentQueue.isEmpty() == false || normalQueue.isEmpty() == false;
+    }
+
+    private void writeAndWait(RunnableEx<IOException> task, Queue<WriteTask> queue) throws IOException {
+        Thread current = Thread.currentThread();
+
+        if (drainer.get() == current) {
+            //重入（正在代写的线程）
+            task.run();
+            return;
+        }
+
+        WriteTask writeTask = new WriteTask(task, current);
+        queue.add(writeTask);
+
+        boolean interrupted = false;
+        while (writeTask.done == false) {
+            if (drainer.get() == null && drainer.compareAndSet(null, current)) {
+                drain(writeTask);
+            } else {
+                LockSupport.park(this);
+
+                if (Thread.interrupted()) {
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (interrupted) {
+            current.interrupt();
+        }
+
+        if (writeTask.error != null) {
+            if (writeTask.error instanceof IOException) {
+                throw (IOException) writeTask.error;
+            } else if (writeTask.error instanceof RuntimeException) {
+                throw (RuntimeException) writeTask.error;
+            } else if (writeTask.error instanceof Error) {
+                throw (Error) writeTask.error;
+            } else {
+                throw new IOException(writeTask.error);
+            }
+        }
+    }
+
+    /**
+     * 排空（已持有排空权）
+     *
+     * @param own 自己的帧（投递时为 null）
+     */
+    private void drain(WriteTask own) {
+        while (true) {
+            int count = 0;
+
+            try {
+                WriteTask task;
+                while ((task = poll()) != null) {
+                    run(task);
+                    count++;
+
+                    //自己的写完了，且代写够一批，交出排空权
+                    if (own != null && own.done && count >= MAX_DRAIN_BATCH) {
+                        break;
+                    }
+                }
+            } finally {
+                drainer.set(null);
+            }
+
+            //释放后再看一下（避免刚入队的没人处理）：有人在等，叫醒他接手；没人等（投递的），自己接着排空
+            WriteTask head = peek();
+            if (head == null) {
+                return;
+            }
+
+            if (head.waiter != null && (own == null || own.done)) {
+                LockSupport.unpark(head.waiter);
+                return;
+            }
+
+            if (drainer.compareAndSet(null, Thread.currentThread()) == false) {
+                return;
+            }
+        }
+    }
+
+    private WriteTask poll() {
+        WriteTask task = urgentQueue.poll();
+        if (task == null) {
+            task = normalQueue.poll();
+        }
+        return task;
+    }
+
+    private WriteTask peek() {
+        WriteTask task = urgentQueue.peek();
+        if (task == null) {
+            task = normalQueue.peek();
+        }
+        return task;
+    }
+
+    private void run(WriteTask task) {
+        try {
+            task.task.run();
+        } catch (Throwable e) {
+            task.error = e;
+        } finally {
+            task.done = true;
+
+            if (task.waiter != null && task.waiter != Thread.currentThread()) {
+                LockSupport.unpark(task.waiter);
+            }
+        }
+    }
+
+    /**
+     * 开始分片发送（同一个流，需等前面的分片发完）
+     */
+    public void beginFragments(String sid) throws IOException {
+        synchronized (fragmentingSids) {
+            while (fragmentingSids.add(sid) == false) {
+                try {
+                    fragmentingSids.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Fragment sending interrupted, sid=" + sid);
+                }
+            }
+        }
+    }
+
+    /**
+     * 结束分片发送
+     */
+    public void endFragments(String sid) {
+        synchronized (fragmentingSids) {
+            fragmentingSids.remove(sid);
+            fragmentingSids.notifyAll();
+        }
+    }
+
+    /**
+     * 写帧任务
+     */
+    private static class WriteTask {
+        final RunnableEx<IOException> task;
+        //等待的线程（投递时为 null）
+        final Thread waiter;
+        volatile boolean done;
+        Throwable error;
+
+        WriteTask(RunnableEx<IOException> task, Thread waiter) {
+            this.task = task;
+            this.waiter = waiter;
+        }
+    }
+}
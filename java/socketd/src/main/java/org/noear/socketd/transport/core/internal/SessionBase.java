@@ -2,6 +2,7 @@ package org.noear.socketd.transport.core.internal;
 
 import org.noear.socketd.transport.core.Channel;
 import org.noear.socketd.transport.core.Session;
+import org.noear.socketd.transport.core.compressor.CompressStats;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -89,6 +90,14 @@ public abstract class SessionBase implements Session {
         return this;
     }
 
+    /**
+     * 获取压缩统计
+     */
+    @Override
+    public CompressStats compressStats() {
+        return channel.getCompressStats();
+    }
+
     @Override
     public String sessionId() {
         return sessionId;
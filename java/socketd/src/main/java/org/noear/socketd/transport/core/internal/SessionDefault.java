@@ -4,15 +4,22 @@ import org.noear.socketd.exception.SocketdChannelException;
 import org.noear.socketd.exception.SocketdException;
 import org.noear.socketd.exception.SocketdTimeoutException;
 import org.noear.socketd.transport.core.*;
+import org.noear.socketd.transport.core.flow.Publisher;
+import org.noear.socketd.transport.core.stream.ReplyFlow;
 import org.noear.socketd.transport.core.stream.StreamRequest;
 import org.noear.socketd.transport.core.stream.StreamSubscribe;
+import org.noear.socketd.transport.core.stream.StreamSubscribeFlow;
 import org.noear.socketd.utils.IoConsumer;
+import org.noear.socketd.utils.RunUtils;
+import org.noear.socketd.utils.TimingWheel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -24,6 +31,8 @@ import java.util.concurrent.TimeoutException;
  */
 public class SessionDefault extends SessionBase {
     private static final Logger log = LoggerFactory.getLogger(SessionDefault.class);
+    //已完成（丢弃的答复）
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
     private String pathNew;
 
     public SessionDefault(Channel channel) {
@@ -38,6 +47,14 @@ public class SessionDefault extends SessionBase {
         return channel.isValid();
     }
 
+    /**
+     * 是否可写
+     */
+    @Override
+    public boolean isWritable() {
+        return channel.isWritable();
+    }
+
     /**
      * 获取远程地址
      */
@@ -128,7 +145,7 @@ public class SessionDefault extends SessionBase {
     @Override
     public void send(String event, Entity content) throws IOException {
         MessageInternal message = new MessageBuilder()
-                .sid(generateId())
+                .sid(channel.generateSid())
                 .event(event)
                 .entity(content)
                 .build();
@@ -150,7 +167,7 @@ public class SessionDefault extends SessionBase {
         }
 
         MessageInternal message = new MessageBuilder()
-                .sid(generateId())
+                .sid(channel.generateSid())
                 .event(event)
                 .entity(content)
                 .build();
@@ -173,6 +190,18 @@ public class SessionDefault extends SessionBase {
                 } else {
                     throw new SocketdChannelException("This channel is closed" + hint);
                 }
+            } catch (ExecutionException e) {
+                //流出错（如：收到告警）
+                if (e.getCause() instanceof SocketdException) {
+                    throw (SocketdException) e.getCause();
+                }
+
+                StringBuilder hint = new StringBuilder();
+                hint.append(", sessionId=").append(channel.getSession().sessionId());
+                hint.append(", event=").append(event);
+                hint.append(", sid=").append(message.sid());
+
+                throw new SocketdException("Send and request failed" + hint, e.getCause());
             } catch (Throwable e) {
                 StringBuilder hint = new StringBuilder();
                 hint.append(", sessionId=").append(channel.getSession().sessionId());
@@ -182,7 +211,7 @@ public class SessionDefault extends SessionBase {
                 throw new SocketdException("Send and request failed" + hint, e);
             }
         } finally {
-            channel.getConfig().getStreamManger().removeStream(message.sid());
+            channel.getStreamManger().removeStream(message);
         }
     }
 
@@ -198,7 +227,7 @@ public class SessionDefault extends SessionBase {
     public Stream sendAndRequest(String event, Entity content, IoConsumer<Reply> consumer, long timeout) throws IOException {
         //异步，用 streamTimeout
         MessageInternal message = new MessageBuilder()
-                .sid(generateId())
+                .sid(channel.generateSid())
                 .event(event)
                 .entity(content)
                 .build();
@@ -227,7 +256,7 @@ public class SessionDefault extends SessionBase {
     @Override
     public Stream sendAndSubscribe(String event, Entity content, IoConsumer<Reply> consumer, long timeout) throws IOException {
         MessageInternal message = new MessageBuilder()
-                .sid(generateId())
+                .sid(channel.generateSid())
                 .event(event)
                 .entity(content)
                 .build();
@@ -238,7 +267,28 @@ public class SessionDefault extends SessionBase {
     }
 
     /**
-     * 答复
+     * 订阅（流控；订阅者请求多少，答复方最多答复多少）
+     *
+     * @param event   事件
+     * @param content 内容
+     * @param timeout 超时
+     */
+    @Override
+    public Publisher<Reply> subscribe(String event, Entity content, long timeout) {
+        return subscriber -> {
+            MessageInternal message = new MessageBuilder()
+                    .sid(channel.generateSid())
+                    .event(event)
+                    .entity(content)
+                    .build();
+
+            //第一次请求时，才发出订阅
+            subscriber.onSubscribe(new StreamSubscribeFlow(channel, message, timeout, subscriber));
+        };
+    }
+
+    /**
+     * 答复（订阅方启用流控时，授信用完会等待；内联处理时不等待，改为排队）
      *
      * @param from    来源消息
      * @param content 内容
@@ -251,6 +301,24 @@ public class SessionDefault extends SessionBase {
                 .entity(content)
                 .build();
 
+        ReplyFlow replyFlow = getReplyFlow(from);
+        if (replyFlow == null) {
+            channel.send(new Frame(Flags.Reply, message), null);
+            return;
+        }
+
+        CompletableFuture<Boolean> acquired = replyFlow.acquire(false);
+        if (acquired.isDone() == false && InlineWatchdog.isInline()) {
+            //内联时（在 I/O 线程上）不能等待授信（授信帧要由这个线程读取），有授信后再发
+            replyLater(acquired, new Frame(Flags.Reply, message), null);
+            return;
+        }
+
+        if (awaitReplyFlow(replyFlow, acquired) == false) {
+            //订阅方已取消
+            return;
+        }
+
         channel.send(new Frame(Flags.Reply, message), null);
     }
 
@@ -268,7 +336,196 @@ public class SessionDefault extends SessionBase {
                 .entity(content)
                 .build();
 
-        channel.send(new Frame(Flags.ReplyEnd, message), null);
+        ReplyFlow replyFlow = getReplyFlow(from);
+        if (replyFlow == null) {
+            channel.send(new Frame(Flags.ReplyEnd, message), null);
+            return;
+        }
+
+        CompletableFuture<Boolean> acquired = replyFlow.acquire(true);
+        if (acquired.isDone() == false && InlineWatchdog.isInline()) {
+            //内联时，排在之前的答复之后再发
+            replyLater(acquired, new Frame(Flags.ReplyEnd, message), replyFlow);
+            return;
+        }
+
+        try {
+            if (awaitReplyFlow(replyFlow, acquired)) {
+                channel.send(new Frame(Flags.ReplyEnd, message), null);
+            }
+        } finally {
+            replyFlow.end();
+        }
+    }
+
+    /**
+     * 有授信后再答复（在授信的线程上按排队顺序发送；失败的交给通道的异常处理）
+     *
+     * @param acquired 答复许可
+     * @param frame    答复帧
+     * @param endFlow  答复结束时的流控（发送后结束）
+     */
+    private void replyLater(CompletableFuture<Boolean> acquired, Frame frame, ReplyFlow endFlow) {
+        acquired.whenComplete((ok, e) -> {
+            try {
+                if (e == null && ok) {
+                    channel.send(frame, null);
+                }
+            } catch (Throwable ex) {
+                channel.onError(ex);
+            } finally {
+                if (endFlow != null) {
+                    endFlow.end();
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取答复流控（订阅方启用流控时才有）
+     */
+    private static ReplyFlow getReplyFlow(Message from) {
+        if (from instanceof MessageInternal) {
+            return ((MessageInternal) from).getReplyFlow();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * 等待答复许可（授信用完时，等到订阅方请求更多、取消或者通道关闭；false 表示已取消）
+     */
+    private static boolean awaitReplyFlow(ReplyFlow replyFlow, CompletableFuture<Boolean> acquired) throws IOException {
+        try {
+            return acquired.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Awaiting reply credit interrupted, sid=" + replyFlow.sid());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SocketdException) {
+                throw (SocketdException) e.getCause();
+            } else {
+                throw new SocketdException("Awaiting reply credit failed, sid=" + replyFlow.sid(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * 异步发送
+     *
+     * @param event   事件
+     * @param content 内容
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(String event, Entity content) {
+        MessageInternal message = new MessageBuilder()
+                .sid(channel.generateSid())
+                .event(event)
+                .entity(content)
+                .build();
+
+        return channel.sendAsync(new Frame(Flags.Message, message), null);
+    }
+
+    /**
+     * 异步请求（限为一次答复；指定超时）
+     *
+     * @param event   事件
+     * @param content 内容
+     * @param timeout 超时（毫秒）
+     */
+    @Override
+    public CompletableFuture<Reply> requestAsync(String event, Entity content, long timeout) {
+        if (timeout < 10) {
+            timeout = channel.getConfig().getRequestTimeout();
+        }
+
+        MessageInternal message = new MessageBuilder()
+                .sid(channel.generateSid())
+                .event(event)
+                .entity(content)
+                .build();
+
+        StringBuilder hint = new StringBuilder();
+        hint.append(", sessionId=").append(channel.getSession().sessionId());
+        hint.append(", event=").append(event);
+        hint.append(", sid=").append(message.sid());
+
+        CompletableFuture<Reply> future = new CompletableFuture<>();
+        StreamInternal stream = new StreamRequest(message.sid(), timeout, future);
+
+        //超时（不占用线程等待）
+        final long timeoutFinal = timeout;
+        TimingWheel.Timeout timeoutFuture = RunUtils.timeout(() -> {
+            if (channel.isValid()) {
+                future.completeExceptionally(new SocketdTimeoutException("Request reply timeout > " + timeoutFinal + hint));
+            } else {
+                future.completeExceptionally(new SocketdChannelException("This channel is closed" + hint));
+            }
+        }, timeout);
+
+        future.whenComplete((r, e) -> {
+            timeoutFuture.cancel();
+            channel.getStreamManger().removeStream(message);
+        });
+
+        channel.sendAsync(new Frame(Flags.Request, message), stream).whenComplete((r, e) -> {
+            if (e != null) {
+                future.completeExceptionally(new SocketdException("Send and request failed" + hint, e));
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * 异步答复
+     *
+     * @param from    来源消息
+     * @param content 内容
+     */
+    @Override
+    public CompletableFuture<Void> replyAsync(Message from, Entity content) {
+        MessageInternal message = new MessageBuilder()
+                .sid(from.sid())
+                .event(from.event())
+                .entity(content)
+                .build();
+
+        ReplyFlow replyFlow = getReplyFlow(from);
+        if (replyFlow == null) {
+            return channel.sendAsync(new Frame(Flags.Reply, message), null);
+        } else {
+            //授信用完时排队，有授信后再发（已取消的，丢弃）
+            return replyFlow.acquire(false)
+                    .thenCompose(ok -> ok ? channel.sendAsync(new Frame(Flags.Reply, message), null) : DONE);
+        }
+    }
+
+    /**
+     * 异步答复并结束（即最后一次答复）
+     *
+     * @param from    来源消息
+     * @param content 内容
+     */
+    @Override
+    public CompletableFuture<Void> replyEndAsync(Message from, Entity content) {
+        MessageInternal message = new MessageBuilder()
+                .sid(from.sid())
+                .event(from.event())
+                .entity(content)
+                .build();
+
+        ReplyFlow replyFlow = getReplyFlow(from);
+        if (replyFlow == null) {
+            return channel.sendAsync(new Frame(Flags.ReplyEnd, message), null);
+        } else {
+            //排在之前的答复之后
+            CompletableFuture<Void> future = replyFlow.acquire(true)
+                    .thenCompose(ok -> ok ? channel.sendAsync(new Frame(Flags.ReplyEnd, message), null) : DONE);
+            future.whenComplete((r, e) -> replyFlow.end());
+            return future;
+        }
     }
 
     /**
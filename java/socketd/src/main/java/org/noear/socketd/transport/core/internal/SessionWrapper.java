@@ -1,11 +1,14 @@
 package org.noear.socketd.transport.core.internal;
 
 import org.noear.socketd.transport.core.*;
+import org.noear.socketd.transport.core.compressor.CompressStats;
+import org.noear.socketd.transport.core.flow.Publisher;
 import org.noear.socketd.utils.IoConsumer;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Session 包装器（用于静态代理）
@@ -25,6 +28,11 @@ public class SessionWrapper implements Session {
         return real.isValid();
     }
 
+    @Override
+    public boolean isWritable() {
+        return real.isWritable();
+    }
+
     @Override
     public InetSocketAddress remoteAddress() throws IOException {
         return real.remoteAddress();
@@ -40,6 +48,11 @@ public class SessionWrapper implements Session {
         return real.handshake();
     }
 
+    @Override
+    public CompressStats compressStats() {
+        return real.compressStats();
+    }
+
     @Override
     public String param(String name) {
         return real.param(name);
@@ -140,6 +153,16 @@ public class SessionWrapper implements Session {
         return real.sendAndSubscribe(event, content, consumer, timeout);
     }
 
+    @Override
+    public Publisher<Reply> subscribe(String event, Entity content) {
+        return real.subscribe(event, content);
+    }
+
+    @Override
+    public Publisher<Reply> subscribe(String event, Entity content, long timeout) {
+        return real.subscribe(event, content, timeout);
+    }
+
     @Override
     public void reply(Message from, Entity content) throws IOException {
         real.reply(from, content);
@@ -150,6 +173,31 @@ public class SessionWrapper implements Session {
         real.replyEnd(from, content);
     }
 
+    @Override
+    public CompletableFuture<Void> sendAsync(String event, Entity content) {
+        return real.sendAsync(event, content);
+    }
+
+    @Override
+    public CompletableFuture<Reply> requestAsync(String event, Entity content) {
+        return real.requestAsync(event, content);
+    }
+
+    @Override
+    public CompletableFuture<Reply> requestAsync(String event, Entity content, long timeout) {
+        return real.requestAsync(event, content, timeout);
+    }
+
+    @Override
+    public CompletableFuture<Void> replyAsync(Message from, Entity content) {
+        return real.replyAsync(from, content);
+    }
+
+    @Override
+    public CompletableFuture<Void> replyEndAsync(Message from, Entity content) {
+        return real.replyEndAsync(from, content);
+    }
+
     @Override
     public void close() throws IOException {
         real.close();
@@ -7,6 +7,8 @@ import org.noear.socketd.utils.IoBiConsumer;
 import org.noear.socketd.utils.IoConsumer;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -21,6 +23,8 @@ public class EventListener implements Listener {
     private IoBiConsumer<Session, Message> doOnMessageHandler;
     private Consumer<Session> doOnCloseHandler;
     private BiConsumer<Session, Throwable> doOnErrorHandler;
+    private BiConsumer<Session, Boolean> doOnWritabilityChangedHandler;
+    private final Set<String> inlineEvents = new HashSet<>();
 
     /**
      * 事件路由选择器
@@ -56,11 +60,24 @@ public class EventListener implements Listener {
         return this;
     }
 
+    public EventListener doOnWritabilityChanged(BiConsumer<Session, Boolean> onWritabilityChanged) {
+        this.doOnWritabilityChangedHandler = onWritabilityChanged;
+        return this;
+    }
+
     public EventListener doOn(String event, IoBiConsumer<Session, Message> handler) {
         eventRouteSelector.put(event, handler);
         return this;
     }
 
+    /**
+     * 内联事件（直接在 I/O 线程上处理，不能阻塞；doOnMessage 的处理也会一起内联）
+     */
+    public EventListener doOnInline(String event, IoBiConsumer<Session, Message> handler) {
+        inlineEvents.add(event);
+        return doOn(event, handler);
+    }
+
 
     // for Listener
 
@@ -96,4 +113,16 @@ public class EventListener implements Listener {
             doOnErrorHandler.accept(session, error);
         }
     }
+
+    @Override
+    public void onWritabilityChanged(Session session, boolean writable) {
+        if (doOnWritabilityChangedHandler != null) {
+            doOnWritabilityChangedHandler.accept(session, writable);
+        }
+    }
+
+    @Override
+    public boolean isInline(Session session, Message message) {
+        return inlineEvents.size() > 0 && inlineEvents.contains(message.event());
+    }
 }
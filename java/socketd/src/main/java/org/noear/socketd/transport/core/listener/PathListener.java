@@ -76,4 +76,24 @@ public class PathListener implements Listener {
             l1.onError(session, error);
         }
     }
+
+    @Override
+    public void onWritabilityChanged(Session session, boolean writable) {
+        Listener l1 = pathRouteSelector.select(session.path());
+
+        if (l1 != null) {
+            l1.onWritabilityChanged(session, writable);
+        }
+    }
+
+    @Override
+    public boolean isInline(Session session, Message message) {
+        Listener l1 = pathRouteSelector.select(session.path());
+
+        if (l1 != null) {
+            return l1.isInline(session, message);
+        } else {
+            return false;
+        }
+    }
 }
\ No newline at end of file
@@ -89,4 +89,38 @@ public class PipelineListener implements Listener {
             listener.onError(session, error);
         }
     }
+
+    /**
+     * 可写状态变化时
+     *
+     * @param session  会话
+     * @param writable 是否可写
+     */
+    @Override
+    public void onWritabilityChanged(Session session, boolean writable) {
+        for (Listener listener : deque) {
+            listener.onWritabilityChanged(session, writable);
+        }
+    }
+
+    /**
+     * 是否内联处理（所有监听器都内联时）
+     *
+     * @param session 会话
+     * @param message 消息
+     */
+    @Override
+    public boolean isInline(Session session, Message message) {
+        if (deque.isEmpty()) {
+            return false;
+        }
+
+        for (Listener listener : deque) {
+            if (listener.isInline(session, message) == false) {
+                return false;
+            }
+        }
+
+        return true;
+    }
 }
\ No newline at end of file
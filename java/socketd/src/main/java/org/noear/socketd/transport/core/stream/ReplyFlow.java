@@ -0,0 +1,296 @@
+package org.noear.socketd.transport.core.stream;
+
+import org.noear.socketd.exception.SocketdTimeoutException;
+import org.noear.socketd.utils.RunUtils;
+import org.noear.socketd.utils.TimingWheel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 答复流控（答复方用；每个订阅一个）
+ *
+ * <pre>
+ * 订阅方启用流控时，按需授信（答复数），答复方每答复一次用掉一个授信；授信用完时，答复排队等待
+ * 答复结束不用授信（但要排在之前的答复之后）
+ * 订阅方取消（或者连接断开）后，不再答复，并通知答复方的处理
+ * 答复结束（或告警）、空闲超时（没有答复与授信）、连接关闭时，不再跟踪（从管理器移除）；处理（onMessage）返回后仍可异步答复
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class ReplyFlow {
+    //可以答复
+    private static final CompletableFuture<Boolean> ACQUIRED = CompletableFuture.completedFuture(true);
+    //已取消（不用答复了）
+    private static final CompletableFuture<Boolean> CANCELLED = CompletableFuture.completedFuture(false);
+
+    private final ReplyFlowManager manager;
+    private final String sid;
+    //授信（Long.MAX_VALUE 表示不限）
+    private long credit;
+    //排队等待授信的答复
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+    //取消处理
+    private final List<Runnable> cancelHandlers = new ArrayList<>();
+    private volatile boolean cancelled;
+    //关闭异常（连接关闭时才有）
+    private Throwable closedError;
+    //保险任务（空闲超时）
+    private volatile TimingWheel.Timeout insuranceFuture;
+    private volatile long streamTimeout;
+    //最后活动时间（答复或授信）
+    private volatile long activeTime;
+    private volatile boolean ended;
+
+    public ReplyFlow(ReplyFlowManager manager, String sid, long credit) {
+        this.manager = manager;
+        this.sid = sid;
+        this.credit = Math.max(credit, 0);
+    }
+
+    /**
+     * 流Id
+     */
+    public String sid() {
+        return sid;
+    }
+
+    /**
+     * 当前授信（还可以答复的数量；取消后为 0）
+     */
+    public synchronized long credit() {
+        return cancelled ? 0 : credit;
+    }
+
+    /**
+     * 是否已取消
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 保险开始（空闲超过流超时的，不再跟踪，并按取消处理；避免没有答复结束时，内存不能释放）
+     *
+     * @param streamTimeout 流超时
+     */
+    public void insuranceStart(long streamTimeout) {
+        if (streamTimeout <= 0) {
+            return;
+        }
+
+        this.streamTimeout = streamTimeout;
+        this.activeTime = System.currentTimeMillis();
+        this.insuranceFuture = RunUtils.timeout(this::insuranceCheck, streamTimeout);
+    }
+
+    /**
+     * 保险检查（期间有活动的，顺延）
+     */
+    private void insuranceCheck() {
+        if (ended || cancelled) {
+            return;
+        }
+
+        long idleMillis = System.currentTimeMillis() - activeTime;
+        if (idleMillis < streamTimeout) {
+            insuranceFuture = RunUtils.timeout(this::insuranceCheck, streamTimeout - idleMillis);
+            return;
+        }
+
+        manager.removeFlow(this);
+        cancelDo(new SocketdTimeoutException("The reply flow idle timeout, sid=" + sid));
+    }
+
+    /**
+     * 保险取消
+     */
+    private void insuranceCancel() {
+        TimingWheel.Timeout future = insuranceFuture;
+        if (future != null) {
+            future.cancel();
+        }
+    }
+
+    /**
+     * 取消时（已取消的，立即异步执行）
+     *
+     * @param handler 处理
+     */
+    public void onCancel(Runnable handler) {
+        synchronized (this) {
+            if (cancelled == false) {
+                cancelHandlers.add(handler);
+                return;
+            }
+        }
+
+        RunUtils.asyncAndTry(handler::run);
+    }
+
+    /**
+     * 授信（订阅方请求了更多的答复）
+     *
+     * @param n 数量
+     */
+    public void grant(long n) {
+        if (n <= 0) {
+            return;
+        }
+
+        List<CompletableFuture<Boolean>> readyList = new ArrayList<>();
+        activeTime = System.currentTimeMillis();
+
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+
+            credit = (credit + n < 0) ? Long.MAX_VALUE : credit + n;
+
+            //按排队顺序放行
+            while (waiters.isEmpty() == false) {
+                Waiter waiter = waiters.peek();
+                if (waiter.isEnd == false && credit == 0) {
+                    break;
+                }
+
+                waiters.poll();
+                if (waiter.isEnd == false) {
+                    use();
+                }
+                readyList.add(waiter.future);
+            }
+        }
+
+        //锁外完成（完成后会发送答复）
+        for (CompletableFuture<Boolean> future : readyList) {
+            future.complete(true);
+        }
+    }
+
+    /**
+     * 获取答复许可（true 可以答复；false 已取消，不用答复了）
+     *
+     * <pre>
+     * 有授信且没有排队时，立即完成；否则排队等待授信
+     * </pre>
+     *
+     * @param isEnd 是否为答复结束（不用授信）
+     */
+    public CompletableFuture<Boolean> acquire(boolean isEnd) {
+        CompletableFuture<Boolean> future;
+        activeTime = System.currentTimeMillis();
+
+        synchronized (this) {
+            if (closedError != null) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(closedError);
+                return future;
+            }
+
+            if (cancelled) {
+                return CANCELLED;
+            }
+
+            if (waiters.isEmpty() && (isEnd || credit > 0)) {
+                if (isEnd == false) {
+                    use();
+                }
+                return ACQUIRED;
+            }
+
+            future = new CompletableFuture<>();
+            waiters.add(new Waiter(future, isEnd));
+        }
+
+        return future;
+    }
+
+    private void use() {
+        if (credit != Long.MAX_VALUE) {
+            credit--;
+        }
+    }
+
+    /**
+     * 结束（答复结束或告警后，从管理器移除）
+     */
+    public void end() {
+        ended = true;
+        insuranceCancel();
+        manager.removeFlow(this);
+    }
+
+    /**
+     * 取消（订阅方取消了；排队的答复不再发送）
+     */
+    public void cancel() {
+        insuranceCancel();
+        manager.removeFlow(this);
+        cancelDo(null);
+    }
+
+    /**
+     * 关闭（连接关闭了；排队的答复异常完成）
+     *
+     * @param error 异常
+     */
+    public void close(Throwable error) {
+        insuranceCancel();
+        cancelDo(error);
+    }
+
+    private void cancelDo(Throwable error) {
+        List<Waiter> waitingList = new ArrayList<>();
+        List<Runnable> handlerList;
+
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+
+            cancelled = true;
+            closedError = error;
+
+            Waiter waiter;
+            while ((waiter = waiters.poll()) != null) {
+                waitingList.add(waiter);
+            }
+
+            handlerList = new ArrayList<>(cancelHandlers);
+            cancelHandlers.clear();
+        }
+
+        for (Waiter waiter : waitingList) {
+            if (error == null) {
+                waiter.future.complete(false);
+            } else {
+                waiter.future.completeExceptionally(error);
+            }
+        }
+
+        //异步通知（不占用 I/O 线程）
+        for (Runnable handler : handlerList) {
+            RunUtils.asyncAndTry(handler::run);
+        }
+    }
+
+    /**
+     * 等待授信的答复
+     */
+    private static class Waiter {
+        final CompletableFuture<Boolean> future;
+        final boolean isEnd;
+
+        Waiter(CompletableFuture<Boolean> future, boolean isEnd) {
+            this.future = future;
+            this.isEnd = isEnd;
+        }
+    }
+}
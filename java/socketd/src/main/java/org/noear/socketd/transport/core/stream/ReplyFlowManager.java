@@ -0,0 +1,88 @@
+package org.noear.socketd.transport.core.stream;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 答复流控管理器（答复方用；每个连接一个，按流Id接收授信与取消）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class ReplyFlowManager {
+    //答复流控字典
+    private final Map<String, ReplyFlow> flowMap = new ConcurrentHashMap<>();
+    //关闭异常（已关闭时才有）
+    private volatile Throwable closedError;
+
+    /**
+     * 添加答复流控
+     *
+     * @param sid           流Id
+     * @param credit        初始授信
+     * @param streamTimeout 流超时（空闲超过的，不再跟踪）
+     */
+    public ReplyFlow addFlow(String sid, long credit, long streamTimeout) {
+        ReplyFlow flow = new ReplyFlow(this, sid, credit);
+        flowMap.put(sid, flow);
+        flow.insuranceStart(streamTimeout);
+
+        //添加时正好关闭了
+        if (closedError != null) {
+            removeFlow(flow);
+            flow.close(closedError);
+        }
+
+        return flow;
+    }
+
+    /**
+     * 获取答复流控
+     *
+     * @param sid 流Id
+     */
+    public ReplyFlow getFlow(String sid) {
+        return flowMap.get(sid);
+    }
+
+    /**
+     * 跟踪中的答复流控数量
+     */
+    public int size() {
+        return flowMap.size();
+    }
+
+    /**
+     * 移除答复流控
+     *
+     * @param sid 流Id
+     */
+    public void removeFlow(String sid) {
+        flowMap.remove(sid);
+    }
+
+    /**
+     * 移除答复流控（只移除同一个；流Id可能已被新的订阅复用）
+     *
+     * @param flow 答复流控
+     */
+    public void removeFlow(ReplyFlow flow) {
+        flowMap.remove(flow.sid(), flow);
+    }
+
+    /**
+     * 关闭（移除所有的答复流控，排队的答复异常完成，并通知取消）
+     *
+     * @param error 异常
+     */
+    public void close(Throwable error) {
+        closedError = error;
+
+        for (String sid : flowMap.keySet()) {
+            ReplyFlow flow = flowMap.remove(sid);
+            if (flow != null) {
+                flow.close(error);
+            }
+        }
+    }
+}
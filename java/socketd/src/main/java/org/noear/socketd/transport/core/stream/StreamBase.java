@@ -1,12 +1,19 @@
 package org.noear.socketd.transport.core.stream;
 
 import org.noear.socketd.exception.SocketdTimeoutException;
+import org.noear.socketd.transport.core.Channel;
+import org.noear.socketd.transport.core.MessageInternal;
 import org.noear.socketd.transport.core.Stream;
 import org.noear.socketd.transport.core.StreamInternal;
 import org.noear.socketd.transport.core.StreamManger;
+import org.noear.socketd.transport.core.internal.Frames;
 import org.noear.socketd.utils.RunUtils;
+import org.noear.socketd.utils.TimingWheel;
 
-import java.util.concurrent.ScheduledFuture;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 /**
@@ -17,12 +24,18 @@ import java.util.function.Consumer;
  */
 public abstract class StreamBase implements StreamInternal {
     //保险任务
-    private ScheduledFuture<?> insuranceFuture;
+    private TimingWheel.Timeout insuranceFuture;
 
     private final String sid;
     private final boolean isSingle;
     private final long timeout;
     private Consumer<Throwable> doOnError;
+    //注册时的通道（取消时，通过它通知答复方）
+    private volatile Channel channel;
+    private volatile boolean cancelled;
+    //异步接收的答复（按到达顺序）
+    private final Queue<AcceptItem> acceptQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean acceptDraining = new AtomicBoolean();
 
     public StreamBase(String sid, boolean isSingle, long timeout) {
         this.sid = sid;
@@ -51,6 +64,48 @@ public abstract class StreamBase implements StreamInternal {
         return timeout;
     }
 
+    /**
+     * 设置通道（注册时）
+     */
+    @Override
+    public void setChannel(Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * 取消（不再接收答复，并通知答复方停止答复）
+     */
+    @Override
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+
+        cancelled = true;
+
+        Channel channel = this.channel;
+        if (channel == null) {
+            //还没发出
+            return;
+        }
+
+        //还在接收的，才需要通知答复方
+        if (channel.getStreamManger().getStream(sid) == this) {
+            channel.getStreamManger().removeStream(sid);
+
+            if (channel.isValid()) {
+                RunUtils.runAndTry(() -> channel.send(Frames.cancelFrame(sid), null));
+            }
+        }
+    }
+
+    /**
+     * 是否已取消
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
     /**
      * 保险开始（避免永久没有回调，造成内存不能释放）
      *
@@ -63,7 +118,7 @@ public abstract class StreamBase implements StreamInternal {
             return;
         }
 
-        insuranceFuture = RunUtils.delay(() -> {
+        insuranceFuture = RunUtils.timeout(() -> {
             streamManger.removeStream(sid);
             this.onError(new SocketdTimeoutException("The stream response timeout, sid=" + sid));
         }, streamTimeout);
@@ -75,7 +130,43 @@ public abstract class StreamBase implements StreamInternal {
     @Override
     public void insuranceCancel() {
         if (insuranceFuture != null) {
-            insuranceFuture.cancel(false);
+            insuranceFuture.cancel();
+        }
+    }
+
+    /**
+     * 异步接收时（同一个流的答复不会并发、乱序；一次任务交付所有排队的答复）
+     */
+    @Override
+    public void onAcceptAsync(MessageInternal reply, Channel channel, Executor executor) {
+        acceptQueue.add(new AcceptItem(reply, channel));
+
+        if (acceptDraining.compareAndSet(false, true)) {
+            executor.execute(this::acceptDrain);
+        }
+    }
+
+    /**
+     * 异步接收排空
+     */
+    private void acceptDrain() {
+        while (true) {
+            AcceptItem item;
+            while ((item = acceptQueue.poll()) != null) {
+                try {
+                    onAccept(item.reply, item.channel);
+                } catch (Throwable e) {
+                    //不能中断排空（否则之后的答复都不会交付）
+                    item.channel.onError(e);
+                }
+            }
+
+            acceptDraining.set(false);
+
+            //释放标记后，再确认一下（避免刚入队的没人处理）
+            if (acceptQueue.isEmpty() || acceptDraining.compareAndSet(false, true) == false) {
+                return;
+            }
         }
     }
 
@@ -91,4 +182,17 @@ public abstract class StreamBase implements StreamInternal {
         this.doOnError = onError;
         return this;
     }
+
+    /**
+     * 异步接收的答复
+     */
+    private static class AcceptItem {
+        final MessageInternal reply;
+        final Channel channel;
+
+        AcceptItem(MessageInternal reply, Channel channel) {
+            this.reply = reply;
+            this.channel = channel;
+        }
+    }
 }
@@ -0,0 +1,339 @@
+package org.noear.socketd.transport.core.stream;
+
+import org.noear.socketd.transport.core.*;
+import org.noear.socketd.utils.RunUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 流管理器紧凑实现（每个连接一个；流Id为连接内计数，用 long 作键，免去字符串的生成与哈希）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class StreamMangerCompact implements StreamManger {
+    private static Logger log = LoggerFactory.getLogger(StreamMangerCompact.class);
+
+    //分段数（连续的流Id，会均匀落到各段）
+    private static final int SEGMENTS = 16;
+
+    //配置
+    private final Config config;
+    //流Id计数器（客户端用奇数，服务端用偶数；双方各自生成，不会相同）
+    private final AtomicLong sidCounter;
+    //流接收器字典（分段加锁）
+    private final Segment[] segments;
+    //关闭异常（已关闭时才有）
+    private volatile Throwable closedError;
+
+    public StreamMangerCompact(Config config) {
+        this.config = config;
+        this.sidCounter = new AtomicLong(config.clientMode() ? -1L : 0L);
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * 生成流Id（客户端为 1、3、5...；服务端为 2、4、6...）
+     *
+     * <pre>
+     * 分片聚合、分片发送等按流Id区分，双方的流Id不能相同（否则对方的请求与本方请求的答复会混在一起）
+     * </pre>
+     */
+    public long nextSid() {
+        return sidCounter.addAndGet(2);
+    }
+
+    private Segment segmentOf(long sid) {
+        //本方的流Id奇偶相同，去掉最低位再分段
+        return segments[(int) ((sid >>> 1) & (SEGMENTS - 1))];
+    }
+
+    /**
+     * 添加流接收器
+     *
+     * @param sid    流Id
+     * @param stream 流
+     */
+    public void addStream(long sid, StreamInternal stream) {
+        Asserts.assertNull("stream", stream);
+
+        if (sid <= 0) {
+            throw new IllegalArgumentException("The compact sid must be > 0: " + sid);
+        }
+
+        segmentOf(sid).put(sid, stream);
+
+        //增加流超时处理（做为后备保险）
+        long streamTimeout = stream.timeout() > 0 ? stream.timeout() : config.getStreamTimeout();
+        if (streamTimeout > 0) {
+            stream.insuranceStart(this, streamTimeout);
+        }
+
+        //添加时正好关闭了（关闭时可能没遍历到它）
+        if (closedError != null) {
+            failStream(sid, closedError);
+        }
+    }
+
+    /**
+     * 获取流接收器
+     *
+     * @param sid 流Id
+     */
+    public StreamInternal getStream(long sid) {
+        if (sid <= 0) {
+            return null;
+        }
+
+        return segmentOf(sid).get(sid);
+    }
+
+    /**
+     * 移除流接收器
+     *
+     * @param sid 流Id
+     */
+    public void removeStream(long sid) {
+        if (sid <= 0) {
+            return;
+        }
+
+        StreamInternal stream = segmentOf(sid).remove(sid);
+
+        if (stream != null) {
+            stream.insuranceCancel();
+
+            if (log.isDebugEnabled()) {
+                log.debug("{} stream removed, sid={}", config.getRoleName(), sid);
+            }
+        }
+    }
+
+    @Override
+    public void addStream(String sid, StreamInternal stream) {
+        addStream(parseSid(sid), stream);
+    }
+
+    @Override
+    public StreamInternal getStream(String sid) {
+        return getStream(parseSid(sid));
+    }
+
+    @Override
+    public void removeStream(String sid) {
+        removeStream(parseSid(sid));
+    }
+
+    @Override
+    public void addStream(MessageInternal message, StreamInternal stream) {
+        addStream(message.sidCompact(), stream);
+    }
+
+    @Override
+    public StreamInternal getStream(MessageInternal message) {
+        return getStream(message.sidCompact());
+    }
+
+    @Override
+    public void removeStream(MessageInternal message) {
+        removeStream(message.sidCompact());
+    }
+
+    /**
+     * 关闭（移除所有的流，并异常通知）
+     *
+     * @param error 异常
+     */
+    @Override
+    public void close(Throwable error) {
+        closedError = error;
+
+        for (Segment segment : segments) {
+            for (long sid : segment.keys()) {
+                failStream(sid, error);
+            }
+        }
+    }
+
+    /**
+     * 移除流，并异常通知（异步通知，不占用 I/O 线程）
+     */
+    private void failStream(long sid, Throwable error) {
+        StreamInternal stream = segmentOf(sid).remove(sid);
+
+        if (stream != null) {
+            stream.insuranceCancel();
+            RunUtils.asyncAndTry(() -> stream.onError(error));
+
+            if (log.isDebugEnabled()) {
+                log.debug("{} stream closed, sid={}", config.getRoleName(), sid);
+            }
+        }
+    }
+
+    private static long parseSid(String sid) {
+        try {
+            return Long.parseLong(sid);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 分段（开放寻址的 long 键字典；删除时后移归位，不留墓碑。读为乐观读，不加锁）
+     */
+    private static class Segment {
+        private final StampedLock lock = new StampedLock();
+        private long[] keys = new long[16];
+        private StreamInternal[] vals = new StreamInternal[16];
+        private int size;
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        StreamInternal get(long key) {
+            long stamp = lock.tryOptimisticRead();
+            StreamInternal val = find(keys, vals, key);
+
+            if (lock.validate(stamp)) {
+                return val;
+            }
+
+            //读期间有写入，改为加锁读
+            stamp = lock.readLock();
+            try {
+                return find(keys, vals, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private static StreamInternal find(long[] keys, StreamInternal[] vals, long key) {
+            if (keys.length != vals.length) {
+                //乐观读时，正好遇到扩容
+                return null;
+            }
+
+            int mask = keys.length - 1;
+            //最多探测一圈（乐观读时，可能看到不一致的数据）
+            for (int i = slot(key, mask), n = 0; n < keys.length; i = (i + 1) & mask, n++) {
+                long k = keys[i];
+                if (k == key) {
+                    return vals[i];
+                } else if (k == 0) {
+                    return null;
+                }
+            }
+
+            return null;
+        }
+
+        void put(long key, StreamInternal val) {
+            long stamp = lock.writeLock();
+            try {
+                if ((size + 1) * 2 > keys.length) {
+                    resize(keys.length * 2);
+                }
+
+                int mask = keys.length - 1;
+                int i = slot(key, mask);
+                for (; keys[i] != 0; i = (i + 1) & mask) {
+                    if (keys[i] == key) {
+                        vals[i] = val;
+                        return;
+                    }
+                }
+
+                vals[i] = val;
+                keys[i] = key;
+                size++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        StreamInternal remove(long key) {
+            long stamp = lock.writeLock();
+            try {
+                int mask = keys.length - 1;
+                int i = slot(key, mask);
+                for (; keys[i] != key; i = (i + 1) & mask) {
+                    if (keys[i] == 0) {
+                        return null;
+                    }
+                }
+
+                StreamInternal val = vals[i];
+
+                //后面同簇的条目，如果理想位置不在 (i, j] 之间，则前移到 i
+                for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                    int k = slot(keys[j], mask);
+                    boolean between = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+
+                    if (between == false) {
+                        keys[i] = keys[j];
+                        vals[i] = vals[j];
+                        i = j;
+                    }
+                }
+
+                keys[i] = 0;
+                vals[i] = null;
+                size--;
+
+                return val;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * 获取所有的键（快照）
+         */
+        long[] keys() {
+            long stamp = lock.readLock();
+            try {
+                long[] list = new long[size];
+                int n = 0;
+                for (long k : keys) {
+                    if (k != 0) {
+                        list[n++] = k;
+                    }
+                }
+
+                return list;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void resize(int capacity) {
+            long[] newKeys = new long[capacity];
+            StreamInternal[] newVals = new StreamInternal[capacity];
+
+            int mask = capacity - 1;
+            for (int n = 0; n < keys.length; n++) {
+                if (keys[n] != 0) {
+                    int i = slot(keys[n], mask);
+                    while (newKeys[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+
+                    newKeys[i] = keys[n];
+                    newVals[i] = vals[n];
+                }
+            }
+
+            keys = newKeys;
+            vals = newVals;
+        }
+    }
+}
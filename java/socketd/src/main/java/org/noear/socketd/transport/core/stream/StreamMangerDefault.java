@@ -2,6 +2,7 @@ package org.noear.socketd.transport.core.stream;
 
 import org.noear.socketd.transport.core.*;
 import org.noear.socketd.transport.core.internal.ChannelDefault;
+import org.noear.socketd.utils.RunUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,7 +10,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * 流管理器默认实现
+ * 流管理器默认实现（每个连接一个，连接关闭时结束其所有的流）
  *
  * @author noear
  * @since 2.0
@@ -21,6 +22,8 @@ public class StreamMangerDefault implements StreamManger {
     private final Config config;
     //流接收器字典（管理）
     private final Map<String, StreamInternal> streamMap;
+    //关闭异常（已关闭时才有）
+    private volatile Throwable closedError;
 
     public StreamMangerDefault(Config config) {
         this.streamMap = new ConcurrentHashMap<>();
@@ -53,6 +56,11 @@ public class StreamMangerDefault implements StreamManger {
         if (streamTimeout > 0) {
             stream.insuranceStart(this, streamTimeout);
         }
+
+        //添加时正好关闭了（关闭时可能没遍历到它）
+        if (closedError != null) {
+            failStream(sid, closedError);
+        }
     }
 
     /**
@@ -72,4 +80,34 @@ public class StreamMangerDefault implements StreamManger {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 关闭（移除所有的流，并异常通知）
+     *
+     * @param error 异常
+     */
+    @Override
+    public void close(Throwable error) {
+        closedError = error;
+
+        for (String sid : streamMap.keySet()) {
+            failStream(sid, error);
+        }
+    }
+
+    /**
+     * 移除流，并异常通知（异步通知，不占用 I/O 线程）
+     */
+    private void failStream(String sid, Throwable error) {
+        StreamInternal stream = streamMap.remove(sid);
+
+        if (stream != null) {
+            stream.insuranceCancel();
+            RunUtils.asyncAndTry(() -> stream.onError(error));
+
+            if (log.isDebugEnabled()) {
+                log.debug("{} stream closed, sid={}", config.getRoleName(), sid);
+            }
+        }
+    }
+}
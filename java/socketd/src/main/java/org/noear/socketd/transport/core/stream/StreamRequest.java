@@ -33,4 +33,22 @@ public class StreamRequest extends StreamBase {
     public void onAccept(MessageInternal reply, Channel channel) {
         future.complete(reply);
     }
+
+    /**
+     * 取消（等待的请求立即结束）
+     */
+    @Override
+    public void cancel() {
+        super.cancel();
+        future.cancel(false);
+    }
+
+    /**
+     * 出错时（如：收到告警；让等待的请求立即结束，不用等到超时）
+     */
+    @Override
+    public void onError(Throwable error) {
+        future.completeExceptionally(error);
+        super.onError(error);
+    }
 }
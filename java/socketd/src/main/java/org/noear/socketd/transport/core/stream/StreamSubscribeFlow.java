@@ -0,0 +1,222 @@
+package org.noear.socketd.transport.core.stream;
+
+import org.noear.socketd.transport.core.*;
+import org.noear.socketd.transport.core.flow.Subscriber;
+import org.noear.socketd.transport.core.flow.Subscription;
+import org.noear.socketd.transport.core.internal.Frames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 订阅流（流控；订阅者按需请求，请求数做为授信发给答复方）
+ *
+ * <pre>
+ * 第一次请求时发出订阅（带上初始授信），之后的请求发授信帧
+ * 收到的答复排队，按订阅者的请求数交付（答复结束没有数据时，只通知完成）
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class StreamSubscribeFlow extends StreamBase implements Subscription {
+    private static Logger log = LoggerFactory.getLogger(StreamSubscribeFlow.class);
+
+    private final Channel channel;
+    private final MessageInternal message;
+    private final Subscriber<? super Reply> subscriber;
+
+    //订阅者请求的数量（还没交付的）
+    private final AtomicLong requested = new AtomicLong();
+    //收到的答复（还没交付的）
+    private final Queue<Reply> replyQueue = new ConcurrentLinkedQueue<>();
+    //交付中标记（同时只有一个线程交付）
+    private final AtomicInteger drainWip = new AtomicInteger();
+    //是否已发出订阅
+    private boolean subscribed;
+    private volatile boolean done;
+    private volatile Throwable error;
+    //已终止（取消了，或者已通知结束）
+    private volatile boolean terminated;
+
+    public StreamSubscribeFlow(Channel channel, MessageInternal message, long timeout, Subscriber<? super Reply> subscriber) {
+        super(message.sid(), false, timeout);
+        this.channel = channel;
+        this.message = message;
+        this.subscriber = subscriber;
+    }
+
+    /**
+     * 是否结束接收
+     */
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * 请求（再要 n 个答复）
+     */
+    @Override
+    public void request(long n) {
+        if (terminated) {
+            return;
+        }
+
+        if (n <= 0) {
+            onError(new IllegalArgumentException("The request n must be greater than 0: " + n));
+            return;
+        }
+
+        requested.accumulateAndGet(n, StreamSubscribeFlow::addCap);
+
+        if (done) {
+            //已结束接收（只交付排队的答复）
+            drain();
+            return;
+        }
+
+        try {
+            //同一个流的授信要按顺序发
+            synchronized (this) {
+                if (subscribed) {
+                    channel.send(Frames.creditFrame(sid(), n), null);
+                } else {
+                    subscribed = true;
+                    message.putMeta(EntityMetas.META_STREAM_CREDIT, String.valueOf(n));
+                    channel.send(new Frame(Flags.Subscribe, message), this);
+                }
+            }
+        } catch (Throwable e) {
+            channel.getStreamManger().removeStream(sid());
+            onError(e);
+            return;
+        }
+
+        drain();
+    }
+
+    /**
+     * 取消（不再接收答复，并通知答复方停止答复）
+     */
+    @Override
+    public void cancel() {
+        if (terminated) {
+            return;
+        }
+
+        terminated = true;
+        super.cancel();
+        drain();
+    }
+
+    /**
+     * 接收时
+     */
+    @Override
+    public void onAccept(MessageInternal reply, Channel channel) {
+        if (reply.isEnd()) {
+            //答复结束没有数据时，只通知完成
+            if (reply.dataSize() > 0) {
+                replyQueue.add(reply);
+            }
+            done = true;
+        } else {
+            replyQueue.add(reply);
+        }
+
+        drain();
+    }
+
+    /**
+     * 出错时
+     */
+    @Override
+    public void onError(Throwable error) {
+        if (done) {
+            return;
+        }
+
+        this.error = error;
+        this.done = true;
+        super.onError(error);
+
+        drain();
+    }
+
+    /**
+     * 交付（按请求数交付排队的答复；结束时通知完成或出错）
+     */
+    private void drain() {
+        if (drainWip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+
+        while (true) {
+            long r = requested.get();
+            long e = 0L;
+
+            while (e != r) {
+                if (terminated) {
+                    replyQueue.clear();
+                    return;
+                }
+
+                Reply reply = replyQueue.poll();
+                if (reply == null) {
+                    break;
+                }
+
+                try {
+                    subscriber.onNext(reply);
+                } catch (Throwable ex) {
+                    //订阅者不应该抛出异常（当做取消）
+                    if (log.isWarnEnabled()) {
+                        log.warn("Subscriber onNext error, sid={}", sid(), ex);
+                    }
+                    cancel();
+                    return;
+                }
+
+                e++;
+            }
+
+            if (terminated) {
+                replyQueue.clear();
+                return;
+            }
+
+            if (done && replyQueue.isEmpty()) {
+                //终止（之后不再通知）
+                terminated = true;
+
+                if (error == null) {
+                    subscriber.onComplete();
+                } else {
+                    subscriber.onError(error);
+                }
+                return;
+            }
+
+            if (e != 0L && r != Long.MAX_VALUE) {
+                requested.addAndGet(-e);
+            }
+
+            missed = drainWip.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    private static long addCap(long a, long b) {
+        long r = a + b;
+        return r < 0 ? Long.MAX_VALUE : r;
+    }
+}
@@ -16,6 +16,11 @@ public class RunUtils {
      * 调度执行器（一般用于延时任务）
      */
     private static ScheduledExecutorService scheduledExecutor;
+    /**
+     * 时间轮（一般用于大量的超时任务；精度为 10ms）
+     */
+    private static final TimingWheel timingWheel = new TimingWheel("Socketd-timingWheel", 10, 512,
+            task -> asyncExecutor.execute(task));
 
     static {
         int asyncPoolSize = Math.max(Runtime.getRuntime().availableProcessors(), 2);
@@ -92,6 +97,20 @@ public class RunUtils {
         return scheduledExecutor.scheduleWithFixedDelay(task, 1000, millis, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * 超时执行（用时间轮；添加、取消都是 O(1)，适合大量的超时任务）
+     */
+    public static TimingWheel.Timeout timeout(Runnable task, long millis) {
+        return timingWheel.newTimeout(task, millis);
+    }
+
+    /**
+     * 超时执行并重复（用时间轮）
+     */
+    public static TimingWheel.Timeout timeoutAndRepeat(Runnable task, long millis) {
+        return timingWheel.newTimeout(task, 1000, millis);
+    }
+
     /**
      * 定时任务
      */
@@ -0,0 +1,359 @@
+package org.noear.socketd.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 哈希时间轮（用于大量的超时任务：添加、取消都是 O(1)，到期时由一个刻度线程成批处理）
+ *
+ * <pre>
+ * 时间按刻度分到轮上的槽里，超过一圈的记录剩余圈数
+ * 添加与取消只是入队（无锁），由刻度线程在每个刻度统一放入或移出槽
+ * 到期的任务交给执行器运行（刻度线程不运行任务，避免被阻塞）
+ * 精度为一个刻度，适合超时、心跳之类；不适合要求精确的延时
+ * </pre>
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class TimingWheel {
+    //每个刻度最多放入的任务数（避免刻度线程被大量添加拖住）
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private final String name;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor executor;
+
+    //待放入的任务
+    private final Queue<Timeout> pendingQueue = new ConcurrentLinkedQueue<>();
+    //待移出的任务
+    private final Queue<Timeout> cancelledQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final long startNanos;
+    //当前刻度（只有刻度线程读写）
+    private long tick;
+
+    /**
+     * @param name       名字（刻度线程名）
+     * @param tickMillis 刻度（毫秒）
+     * @param wheelSize  槽数（会调整为 2 的幂）
+     * @param executor   到期任务的执行器
+     */
+    public TimingWheel(String name, long tickMillis, int wheelSize, Executor executor) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("The tickMillis must be greater than 0");
+        }
+
+        if (wheelSize < 1 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("The wheelSize must be between 1 and 2^30");
+        }
+
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+
+        this.name = name;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.wheel = new Bucket[size];
+        this.mask = size - 1;
+        this.executor = executor;
+        this.startNanos = System.nanoTime();
+
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+    }
+
+    /**
+     * 添加超时任务
+     *
+     * @param task   任务
+     * @param millis 延时（毫秒）
+     */
+    public Timeout newTimeout(Runnable task, long millis) {
+        return newTimeout(task, millis, 0);
+    }
+
+    /**
+     * 添加超时任务（重复执行，直到取消）
+     *
+     * @param task         任务
+     * @param millis       延时（毫秒）
+     * @param periodMillis 重复间隔（毫秒；上次执行完后开始计时）
+     */
+    public Timeout newTimeout(Runnable task, long millis, long periodMillis) {
+        if (task == null) {
+            throw new IllegalArgumentException("The task cannot be null");
+        }
+
+        start();
+
+        Timeout timeout = new Timeout(this, task, TimeUnit.MILLISECONDS.toNanos(periodMillis));
+        schedule(timeout, millis);
+        return timeout;
+    }
+
+    private void schedule(Timeout timeout, long millis) {
+        timeout.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0)) - startNanos;
+        pendingQueue.add(timeout);
+    }
+
+    private void start() {
+        if (started.get() == false && started.compareAndSet(false, true)) {
+            Thread ticker = new Thread(this::run, name);
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+    }
+
+    /**
+     * 刻度线程
+     */
+    private void run() {
+        //从当前时间对应的刻度开始
+        tick = (System.nanoTime() - startNanos) / tickNanos;
+
+        while (true) {
+            waitForNextTick();
+
+            try {
+                removeCancelled();
+                transferPending();
+
+                wheel[(int) (tick & mask)].expire();
+            } catch (Throwable e) {
+                //略...（刻度线程不能停）
+            }
+
+            tick++;
+        }
+    }
+
+    /**
+     * 等待下一个刻度
+     */
+    private void waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+
+        while (true) {
+            long current = System.nanoTime() - startNanos;
+            long sleepMillis = (deadline - current + 999_999) / 1_000_000;
+
+            if (sleepMillis <= 0) {
+                return;
+            }
+
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                //略...
+            }
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = pendingQueue.poll();
+            if (timeout == null) {
+                break;
+            }
+
+            if (Timeout.STATE_UPDATER.compareAndSet(timeout, Timeout.ST_INIT, Timeout.ST_SCHEDULED) == false) {
+                //放入之前就取消了，直接丢掉
+                continue;
+            }
+
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+
+            //已经过期的，放到当前刻度
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        while (true) {
+            Timeout timeout = cancelledQueue.poll();
+            if (timeout == null) {
+                break;
+            }
+
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * 超时任务句柄
+     */
+    public static class Timeout {
+        //待放入
+        private static final int ST_INIT = 0;
+        //已放入槽
+        private static final int ST_SCHEDULED = 1;
+        private static final int ST_CANCELLED = 2;
+        private static final int ST_EXPIRED = 3;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimingWheel timingWheel;
+        private final Runnable task;
+        private final long periodNanos;
+        private volatile int state = ST_INIT;
+        //重复时，取消后不再重新添加
+        private volatile boolean cancelled;
+
+        //以下只有刻度线程读写（deadline 在入队前写好）
+        private long deadline;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(TimingWheel timingWheel, Runnable task, long periodNanos) {
+            this.timingWheel = timingWheel;
+            this.task = task;
+            this.periodNanos = periodNanos;
+        }
+
+        /**
+         * 取消
+         */
+        public boolean cancel() {
+            cancelled = true;
+
+            if (STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                //还没放入槽（大多数请求在一个刻度内就结束了），放入时会丢掉
+                return true;
+            } else if (STATE_UPDATER.compareAndSet(this, ST_SCHEDULED, ST_CANCELLED)) {
+                //由刻度线程移出槽
+                timingWheel.cancelledQueue.add(this);
+                return true;
+            } else {
+                return false;
+            }
+        }
+
+        /**
+         * 是否已取消
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * 是否已到期（重复的任务，执行期间为到期状态）
+         */
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (STATE_UPDATER.compareAndSet(this, ST_SCHEDULED, ST_EXPIRED) == false) {
+                return;
+            }
+
+            try {
+                timingWheel.executor.execute(this::runTask);
+            } catch (Throwable e) {
+                //略...
+            }
+        }
+
+        private void runTask() {
+            try {
+                task.run();
+            } finally {
+                if (periodNanos > 0 && cancelled == false) {
+                    //重复的，重新添加
+                    if (STATE_UPDATER.compareAndSet(this, ST_EXPIRED, ST_INIT)) {
+                        timingWheel.schedule(this, TimeUnit.NANOSECONDS.toMillis(periodNanos));
+
+                        if (cancelled) {
+                            //重新添加期间被取消了
+                            cancel();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 槽（双向链表；只有刻度线程读写）
+     */
+    private static class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+
+        }
+
+        void remove(Timeout timeout) {
+            Timeout next = timeout.next;
+
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+
+            if (timeout == head) {
+                if (timeout == tail) {
+                    head = tail = null;
+                } else {
+                    head = next;
+                }
+            } else if (timeout == tail) {
+                tail = timeout.prev;
+            }
+
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * 到期处理（成批）
+         */
+        void expire() {
+            Timeout timeout = head;
+
+            while (timeout != null) {
+                Timeout next = timeout.next;
+
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.state == Timeout.ST_CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+
+                timeout = next;
+            }
+        }
+    }
+}
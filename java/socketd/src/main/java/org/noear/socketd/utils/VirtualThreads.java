@@ -0,0 +1,102 @@
+package org.noear.socketd.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程工具（JDK 21+ 才有；通过反射调用，编译及运行仍兼容 java 8）
+ *
+ * @author noear
+ * @since 2.2.3
+ */
+public class VirtualThreads {
+    private static final Method ofVirtual;
+    private static final Method builderName;
+    private static final Method builderFactory;
+    private static final Method newThreadPerTaskExecutor;
+    private static final Method isVirtual;
+
+    static {
+        Method ofVirtualTmp = null;
+        Method builderNameTmp = null;
+        Method builderFactoryTmp = null;
+        Method newThreadPerTaskExecutorTmp = null;
+        Method isVirtualTmp = null;
+
+        try {
+            Class<?> builderClz = Class.forName("java.lang.Thread$Builder");
+
+            ofVirtualTmp = Thread.class.getMethod("ofVirtual");
+            builderNameTmp = builderClz.getMethod("name", String.class, long.class);
+            builderFactoryTmp = builderClz.getMethod("factory");
+            newThreadPerTaskExecutorTmp = java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            isVirtualTmp = Thread.class.getMethod("isVirtual");
+        } catch (Throwable e) {
+            //不支持（JDK 21 之前）
+            ofVirtualTmp = null;
+        }
+
+        ofVirtual = ofVirtualTmp;
+        builderName = builderNameTmp;
+        builderFactory = builderFactoryTmp;
+        newThreadPerTaskExecutor = newThreadPerTaskExecutorTmp;
+        isVirtual = isVirtualTmp;
+    }
+
+    /**
+     * 是否支持
+     */
+    public static boolean isSupported() {
+        return ofVirtual != null;
+    }
+
+    /**
+     * 是否为虚拟线程
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (isVirtual == null) {
+            return false;
+        }
+
+        try {
+            return (Boolean) isVirtual.invoke(thread);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * 新建线程工厂
+     *
+     * @param namePrefix 名字前缀
+     */
+    public static ThreadFactory newFactory(String namePrefix) {
+        if (isSupported() == false) {
+            throw new UnsupportedOperationException("Virtual threads require JDK 21+");
+        }
+
+        try {
+            Object builder = ofVirtual.invoke(null);
+            builder = builderName.invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) builderFactory.invoke(builder);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Virtual thread factory creation failed", e);
+        }
+    }
+
+    /**
+     * 新建执行器（每个任务一个虚拟线程）
+     *
+     * @param namePrefix 名字前缀
+     */
+    public static ExecutorService newExecutor(String namePrefix) {
+        ThreadFactory factory = newFactory(namePrefix);
+
+        try {
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Virtual thread executor creation failed", e);
+        }
+    }
+}